@@ -25,6 +25,7 @@ package org.json;
  */
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.Array;
@@ -79,6 +80,17 @@ import java.util.Map;
  */
 public class JSONArray {
 
+    // --- start Arian modifications ---
+
+    /**
+     * Read an array from the input, using a {@link JSONReader}.
+     */
+    public static JSONArray read(InputStream input) {
+        return new JSONReader(input).nextArray();
+    }
+
+    // --- end Arian modifications ---
+
     /**
      * The arrayList where the JSONArray's properties are kept.
      */
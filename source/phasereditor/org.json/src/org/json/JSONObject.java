@@ -96,8 +96,11 @@ public class JSONObject {
 
 	// --- start Arian modifications ---
 	
+	/**
+	 * Read an object from the input, using a {@link JSONReader}.
+	 */
 	public static JSONObject read(InputStream input) {
-		return new JSONObject(new JSONTokener(input));
+		return new JSONReader(input).nextObject();
 	}
 	
 	// Methods to ignore to put defaults
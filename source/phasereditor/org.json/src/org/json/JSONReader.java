@@ -0,0 +1,728 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package org.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A pull reader of JSON content. It reads the content token by token, so the
+ * callers can inspect a document without build the whole {@link JSONObject}
+ * tree, and stop the reading as soon as they find what they need.
+ * 
+ * <pre>
+ * JSONReader reader = new JSONReader(input);
+ * reader.beginObject();
+ * if (reader.findName("frames")) {
+ * 	Token token = reader.peek();
+ * 	...
+ * }
+ * </pre>
+ * 
+ * It is also used to build the {@link JSONObject} and {@link JSONArray} trees
+ * (see {@link JSONObject#read(InputStream)}), with less transient garbage than
+ * the {@link JSONTokener}: the characters are read in blocks and the object
+ * names are shared by all the objects of the document.
+ * 
+ * The syntax is the same accepted by the {@link JSONTokener}, except that
+ * empty elements in arrays (like <code>[1,,2]</code>) are not supported.
+ * 
+ * @author arian
+ *
+ */
+public class JSONReader {
+
+	public enum Token {
+		BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+	}
+
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int DANGLING_NAME = 3;
+	private static final int NONEMPTY_OBJECT = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+
+	private Reader reader;
+	private char[] buffer;
+	private int pos;
+	private int limit;
+	private long consumed;
+	private long line;
+
+	private int[] stack;
+	private int stackSize;
+
+	private Token peeked;
+	private String peekedString;
+	private Object peekedValue;
+	private boolean skipping;
+
+	private StringBuilder sb;
+	private String[] names;
+
+	public JSONReader(Reader reader) {
+		this.reader = reader;
+		this.buffer = new char[8192];
+		this.pos = 0;
+		this.limit = 0;
+		this.consumed = 0;
+		this.line = 1;
+		this.stack = new int[32];
+		this.stack[0] = EMPTY_DOCUMENT;
+		this.stackSize = 1;
+		this.sb = new StringBuilder();
+		this.names = new String[512];
+	}
+
+	public JSONReader(InputStream input) {
+		this(new InputStreamReader(input));
+	}
+
+	public JSONReader(String s) {
+		this(new StringReader(s));
+	}
+
+	/**
+	 * Read the value of the top-level object with the given name, without
+	 * build the other values. The reading stops after the value is found.
+	 * 
+	 * @param input
+	 *            The content.
+	 * @param name
+	 *            The name of the value.
+	 * @return The value or <code>null</code> if the object has not a value
+	 *         with that name.
+	 * @throws JSONException
+	 *             If the content is not a JSON object, or it has a syntax
+	 *             error before the value is found.
+	 */
+	public static Object readValue(InputStream input, String name) throws JSONException {
+		JSONReader reader = new JSONReader(input);
+		reader.beginObject();
+		if (reader.findName(name)) {
+			return reader.nextValue();
+		}
+		return null;
+	}
+
+	/**
+	 * Read the top-level object, but only with the values of the given names.
+	 * The reading stops when all the values are found, so the rest of the
+	 * content is not parsed.
+	 * 
+	 * @param input
+	 *            The content.
+	 * @param names
+	 *            The names of the values to read.
+	 * @return An object with the values found.
+	 * @throws JSONException
+	 *             If the content is not a JSON object, or it has a syntax
+	 *             error before all the values are found.
+	 */
+	public static JSONObject readValues(InputStream input, String... names) throws JSONException {
+		Set<String> pending = new HashSet<>(Arrays.asList(names));
+
+		JSONObject obj = new JSONObject();
+
+		JSONReader reader = new JSONReader(input);
+		reader.beginObject();
+
+		while (!pending.isEmpty() && reader.hasNext()) {
+			String name = reader.nextName();
+			if (pending.remove(name)) {
+				obj.putOnce(name, reader.nextValue());
+			} else {
+				reader.skipValue();
+			}
+		}
+
+		return obj;
+	}
+
+	/**
+	 * Get the type of the next token, without consume it.
+	 */
+	public Token peek() throws JSONException {
+		if (this.peeked == null) {
+			this.peeked = this.doPeek();
+		}
+		return this.peeked;
+	}
+
+	/**
+	 * Consume the start of an object.
+	 */
+	public void beginObject() throws JSONException {
+		this.expect(Token.BEGIN_OBJECT);
+		this.push(EMPTY_OBJECT);
+	}
+
+	/**
+	 * Consume the end of an object.
+	 */
+	public void endObject() throws JSONException {
+		this.expect(Token.END_OBJECT);
+		this.stackSize--;
+	}
+
+	/**
+	 * Consume the start of an array.
+	 */
+	public void beginArray() throws JSONException {
+		this.expect(Token.BEGIN_ARRAY);
+		this.push(EMPTY_ARRAY);
+	}
+
+	/**
+	 * Consume the end of an array.
+	 */
+	public void endArray() throws JSONException {
+		this.expect(Token.END_ARRAY);
+		this.stackSize--;
+	}
+
+	/**
+	 * If the current object or array has more elements.
+	 */
+	public boolean hasNext() throws JSONException {
+		Token token = this.peek();
+		return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+	}
+
+	/**
+	 * Consume the name of the next value of the current object.
+	 */
+	public String nextName() throws JSONException {
+		this.expect(Token.NAME);
+		return this.peekedString;
+	}
+
+	/**
+	 * Consume a string. Numbers and booleans are returned as strings too.
+	 */
+	public String nextString() throws JSONException {
+		Token token = this.peek();
+		switch (token) {
+		case STRING:
+			this.peeked = null;
+			return this.peekedString;
+		case NUMBER:
+		case BOOLEAN:
+			this.peeked = null;
+			return this.peekedValue.toString();
+		default:
+			throw this.syntaxError("Expected a string and instead saw " + token);
+		}
+	}
+
+	/**
+	 * Consume a number. It could be an {@link Integer}, a {@link Long} or a
+	 * {@link Double}.
+	 */
+	public Number nextNumber() throws JSONException {
+		this.expect(Token.NUMBER);
+		return (Number) this.peekedValue;
+	}
+
+	public boolean nextBoolean() throws JSONException {
+		this.expect(Token.BOOLEAN);
+		return ((Boolean) this.peekedValue).booleanValue();
+	}
+
+	public void nextNull() throws JSONException {
+		this.expect(Token.NULL);
+	}
+
+	/**
+	 * Consume the next value and return it as it is returned by
+	 * {@link JSONTokener#nextValue()}: a {@link JSONObject}, a
+	 * {@link JSONArray}, a {@link String}, a {@link Number}, a {@link Boolean}
+	 * or {@link JSONObject#NULL}.
+	 */
+	public Object nextValue() throws JSONException {
+		Token token = this.peek();
+		switch (token) {
+		case BEGIN_OBJECT:
+			return this.nextObject();
+		case BEGIN_ARRAY:
+			return this.nextArray();
+		case STRING:
+			this.peeked = null;
+			return this.peekedString;
+		case NUMBER:
+		case BOOLEAN:
+		case NULL:
+			this.peeked = null;
+			return this.peekedValue;
+		default:
+			throw this.syntaxError("Expected a value and instead saw " + token);
+		}
+	}
+
+	/**
+	 * Consume the next object and all its content.
+	 */
+	public JSONObject nextObject() throws JSONException {
+		this.beginObject();
+		JSONObject obj = new JSONObject();
+		while (this.hasNext()) {
+			String name = this.nextName();
+			obj.putOnce(name, this.nextValue());
+		}
+		this.endObject();
+		return obj;
+	}
+
+	/**
+	 * Consume the next array and all its content.
+	 */
+	public JSONArray nextArray() throws JSONException {
+		this.beginArray();
+		JSONArray array = new JSONArray();
+		while (this.hasNext()) {
+			array.put(this.nextValue());
+		}
+		this.endArray();
+		return array;
+	}
+
+	/**
+	 * Skip the next value. If the next token is a name, it skips the name and
+	 * its value. The skipped strings and numbers are not built.
+	 */
+	public void skipValue() throws JSONException {
+		this.skipping = true;
+		try {
+			int depth = 0;
+			Token token;
+			do {
+				token = this.peek();
+				switch (token) {
+				case BEGIN_OBJECT:
+					this.beginObject();
+					depth++;
+					break;
+				case BEGIN_ARRAY:
+					this.beginArray();
+					depth++;
+					break;
+				case END_OBJECT:
+					this.endObject();
+					depth--;
+					break;
+				case END_ARRAY:
+					this.endArray();
+					depth--;
+					break;
+				case END_DOCUMENT:
+					throw this.syntaxError("Unexpected end of the content");
+				default:
+					this.peeked = null;
+					break;
+				}
+			} while (depth > 0 || token == Token.NAME);
+		} finally {
+			this.skipping = false;
+		}
+	}
+
+	/**
+	 * Skip the values of the current object until the value with the given
+	 * name. If it returns <code>true</code>, the next token is the value.
+	 * 
+	 * @param name
+	 *            The name to find.
+	 * @return If the name was found. If not, all the values of the object are
+	 *         consumed and the next token is the end of the object.
+	 */
+	public boolean findName(String name) throws JSONException {
+		while (this.hasNext()) {
+			if (this.nextName().equals(name)) {
+				return true;
+			}
+			this.skipValue();
+		}
+		return false;
+	}
+
+	private void expect(Token expected) throws JSONException {
+		Token token = this.peek();
+		if (token != expected) {
+			throw this.syntaxError("Expected " + expected + " and instead saw " + token);
+		}
+		this.peeked = null;
+	}
+
+	private void push(int scope) {
+		if (this.stackSize == this.stack.length) {
+			this.stack = Arrays.copyOf(this.stack, this.stackSize * 2);
+		}
+		this.stack[this.stackSize++] = scope;
+	}
+
+	private Token doPeek() throws JSONException {
+		int top = this.stackSize - 1;
+		int scope = this.stack[top];
+		char c;
+
+		switch (scope) {
+		case EMPTY_ARRAY:
+			this.stack[top] = NONEMPTY_ARRAY;
+			c = this.nextClean();
+			if (c == ']') {
+				return Token.END_ARRAY;
+			}
+			this.back();
+			break;
+		case NONEMPTY_ARRAY:
+			c = this.nextClean();
+			if (c == ']') {
+				return Token.END_ARRAY;
+			}
+			if (c != ',' && c != ';') {
+				throw this.syntaxError("Expected a ',' or ']'");
+			}
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			c = this.nextClean();
+			if (c == '}') {
+				return Token.END_OBJECT;
+			}
+			if (scope == NONEMPTY_OBJECT) {
+				if (c != ',' && c != ';') {
+					throw this.syntaxError("Expected a ',' or '}'");
+				}
+				c = this.nextClean();
+				if (c == '}') {
+					// an extra comma is allowed
+					return Token.END_OBJECT;
+				}
+			}
+			this.stack[top] = DANGLING_NAME;
+			return this.readName(c);
+		case DANGLING_NAME:
+			this.stack[top] = NONEMPTY_OBJECT;
+			c = this.nextClean();
+			if (c == '=') {
+				if (this.next() != '>') {
+					this.back();
+				}
+			} else if (c != ':') {
+				throw this.syntaxError("Expected a ':' after a key");
+			}
+			break;
+		case EMPTY_DOCUMENT:
+			this.stack[top] = NONEMPTY_DOCUMENT;
+			break;
+		default:
+			// like the JSONTokener, ignore the content after the first
+			// value
+			return Token.END_DOCUMENT;
+		}
+
+		c = this.nextClean();
+
+		switch (c) {
+		case '{':
+			return Token.BEGIN_OBJECT;
+		case '[':
+			return Token.BEGIN_ARRAY;
+		case '"':
+		case '\'':
+			this.peekedString = this.readString(c);
+			return Token.STRING;
+		case 0:
+			throw this.syntaxError("Unexpected end of the content");
+		default:
+			this.back();
+			return this.readLiteral();
+		}
+	}
+
+	private Token readName(char c) throws JSONException {
+		switch (c) {
+		case '"':
+		case '\'':
+			this.readString(c);
+			break;
+		case 0:
+			throw this.syntaxError("A JSONObject text must end with '}'");
+		case '{':
+		case '[':
+			throw this.syntaxError("Expected a key");
+		default:
+			this.back();
+			this.readText();
+			if (this.sb.length() == 0) {
+				throw this.syntaxError("Expected a key");
+			}
+			break;
+		}
+
+		this.peekedString = this.skipping ? null : this.internName();
+
+		return Token.NAME;
+	}
+
+	/**
+	 * Return the shared string of the name in the string builder. Documents
+	 * usually have a lot of objects with the same names.
+	 */
+	private String internName() {
+		StringBuilder sb = this.sb;
+		int len = sb.length();
+		int h = 0;
+		for (int i = 0; i < len; i++) {
+			h = 31 * h + sb.charAt(i);
+		}
+		int slot = (h ^ (h >>> 16)) & (this.names.length - 1);
+		String name = this.names[slot];
+		if (name == null || !name.contentEquals(sb)) {
+			name = sb.toString();
+			this.names[slot] = name;
+		}
+		return name;
+	}
+
+	private Token readLiteral() throws JSONException {
+		this.readText();
+
+		if (this.sb.length() == 0) {
+			throw this.syntaxError("Missing value");
+		}
+
+		if (this.skipping) {
+			return Token.STRING;
+		}
+
+		String text = this.sb.toString();
+		Object value = JSONObject.stringToValue(text);
+
+		this.peekedValue = value;
+
+		if (value instanceof Boolean) {
+			return Token.BOOLEAN;
+		}
+
+		if (value == JSONObject.NULL) {
+			return Token.NULL;
+		}
+
+		if (value instanceof Number) {
+			return Token.NUMBER;
+		}
+
+		this.peekedString = text;
+
+		return Token.STRING;
+	}
+
+	/**
+	 * Read the unquoted text (like numbers or <code>true</code>) in the string
+	 * builder.
+	 */
+	private void readText() throws JSONException {
+		StringBuilder sb = this.sb;
+		sb.setLength(0);
+		for (;;) {
+			char c = this.next();
+			if (c < ' ' || ",:]}/\\\"[{;=#".indexOf(c) >= 0) {
+				if (c != 0) {
+					this.back();
+				}
+				break;
+			}
+			sb.append(c);
+		}
+
+		// trim
+		int end = sb.length();
+		while (end > 0 && sb.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		sb.setLength(end);
+	}
+
+	/**
+	 * Read the characters up to the close quote in the string builder. It
+	 * returns the string, or <code>null</code> if the reader is skipping
+	 * values.
+	 */
+	private String readString(char quote) throws JSONException {
+		StringBuilder sb = this.sb;
+		sb.setLength(0);
+		boolean skip = this.skipping;
+
+		for (;;) {
+			char[] buf = this.buffer;
+			int start = this.pos;
+			int p = start;
+			int l = this.limit;
+
+			while (p < l) {
+				char c = buf[p++];
+
+				if (c == quote) {
+					this.pos = p;
+					if (skip) {
+						return null;
+					}
+					sb.append(buf, start, p - 1 - start);
+					return sb.toString();
+				}
+
+				if (c == '\\') {
+					if (!skip) {
+						sb.append(buf, start, p - 1 - start);
+					}
+					this.pos = p;
+					this.readEscape(skip);
+					p = start = this.pos;
+					buf = this.buffer;
+					l = this.limit;
+				} else if (c == '\n' || c == '\r') {
+					this.pos = p;
+					throw this.syntaxError("Unterminated string");
+				}
+			}
+
+			if (!skip) {
+				sb.append(buf, start, p - start);
+			}
+
+			this.pos = p;
+
+			if (!this.fill()) {
+				throw this.syntaxError("Unterminated string");
+			}
+		}
+	}
+
+	private void readEscape(boolean skip) throws JSONException {
+		char c = this.next();
+		switch (c) {
+		case 'b':
+			c = '\b';
+			break;
+		case 't':
+			c = '\t';
+			break;
+		case 'n':
+			c = '\n';
+			break;
+		case 'f':
+			c = '\f';
+			break;
+		case 'r':
+			c = '\r';
+			break;
+		case 'u':
+			int code = 0;
+			for (int i = 0; i < 4; i++) {
+				int d = JSONTokener.dehexchar(this.next());
+				if (d < 0) {
+					throw this.syntaxError("Illegal escape.");
+				}
+				code = code * 16 + d;
+			}
+			c = (char) code;
+			break;
+		case '"':
+		case '\'':
+		case '\\':
+		case '/':
+			break;
+		default:
+			throw this.syntaxError("Illegal escape.");
+		}
+
+		if (!skip) {
+			this.sb.append(c);
+		}
+	}
+
+	private boolean fill() throws JSONException {
+		try {
+			this.consumed += this.limit;
+			this.pos = 0;
+			this.limit = 0;
+			int n = this.reader.read(this.buffer, 0, this.buffer.length);
+			if (n <= 0) {
+				return false;
+			}
+			this.limit = n;
+			return true;
+		} catch (IOException e) {
+			throw new JSONException(e);
+		}
+	}
+
+	/**
+	 * Get the next character, or 0 at the end of the content.
+	 */
+	private char next() throws JSONException {
+		if (this.pos == this.limit && !this.fill()) {
+			return 0;
+		}
+		return this.buffer[this.pos++];
+	}
+
+	/**
+	 * Step back the last character read with {@link #next()}. It always
+	 * works, because the buffer is filled only when all the characters were
+	 * read. At the end of the content it does nothing.
+	 */
+	private void back() {
+		if (this.pos > 0) {
+			this.pos--;
+		}
+	}
+
+	private char nextClean() throws JSONException {
+		for (;;) {
+			char c = this.next();
+			if (c == '\n') {
+				this.line++;
+			} else if (c == 0 || c > ' ') {
+				return c;
+			}
+		}
+	}
+
+	public JSONException syntaxError(String message) {
+		return new JSONException(message + this.toString());
+	}
+
+	@Override
+	public String toString() {
+		return " at " + (this.consumed + this.pos) + " [line " + this.line + "]";
+	}
+}
@@ -2,17 +2,23 @@ package phasereditor.assetexplorer.ui;
 
 import static phasereditor.ui.PhaserEditorUI.swtRun;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ui.IViewReference;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 
 import phasereditor.assetexplorer.ui.views.AssetExplorer;
+import phasereditor.assetexplorer.ui.views.AssetExplorerDelta;
+import phasereditor.assetpack.core.AssetPackBuildParticipant;
 import phasereditor.project.core.IProjectBuildParticipant;
+import phasereditor.project.core.ProjectCore;
 
 public class AssetsExplorerProjectBuildParticipant implements IProjectBuildParticipant {
 
@@ -36,7 +42,25 @@ public class AssetsExplorerProjectBuildParticipant implements IProjectBuildParti
 
 	@Override
 	public void build(IProject project, IResourceDelta delta, Map<String, Object> env) {
-		swtRun(AssetsExplorerProjectBuildParticipant::refreshExplorer);
+		AssetExplorerDelta explorerDelta;
+
+		try {
+			explorerDelta = AssetExplorerDelta.create(project, AssetPackBuildParticipant.getData(env), delta);
+		} catch (CoreException e) {
+			ProjectCore.logError(e);
+			swtRun(AssetsExplorerProjectBuildParticipant::refreshExplorer);
+			return;
+		}
+
+		if (explorerDelta.isEmpty()) {
+			return;
+		}
+
+		swtRun(() -> {
+			for (AssetExplorer view : getExplorerViews()) {
+				view.applyDelta(explorerDelta);
+			}
+		});
 	}
 
 	@Override
@@ -45,6 +69,13 @@ public class AssetsExplorerProjectBuildParticipant implements IProjectBuildParti
 	}
 
 	private static void refreshExplorer() {
+		for (AssetExplorer view : getExplorerViews()) {
+			view.refreshContent();
+		}
+	}
+
+	private static List<AssetExplorer> getExplorerViews() {
+		List<AssetExplorer> list = new ArrayList<>();
 		IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
 		IWorkbenchPage page = window.getActivePage();
 		IViewReference[] refs = page.getViewReferences();
@@ -52,10 +83,11 @@ public class AssetsExplorerProjectBuildParticipant implements IProjectBuildParti
 			if (ref.getId().equals(AssetExplorer.ID)) {
 				AssetExplorer view = (AssetExplorer) ref.getView(false);
 				if (view != null) {
-					view.refreshContent();
+					list.add(view);
 				}
 			}
 		}
+		return list;
 	}
 
 }
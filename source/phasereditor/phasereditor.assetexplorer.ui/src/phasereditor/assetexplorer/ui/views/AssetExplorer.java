@@ -21,11 +21,15 @@
 // USE OR OTHER DEALINGS IN THE SOFTWARE.
 package phasereditor.assetexplorer.ui.views;
 
+import static phasereditor.ui.PhaserEditorUI.swtRun;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.commands.operations.IUndoContext;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.help.HelpSystem;
 import org.eclipse.help.IContext;
 import org.eclipse.help.IContextProvider;
@@ -47,6 +51,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.IActionBars;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.PlatformUI;
@@ -61,6 +66,7 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import phasereditor.assetpack.core.AssetGroupModel;
+import phasereditor.assetpack.core.AssetModel;
 import phasereditor.assetpack.core.AssetPackCore;
 import phasereditor.assetpack.core.AssetPackModel;
 import phasereditor.assetpack.core.AssetSectionModel;
@@ -69,6 +75,8 @@ import phasereditor.assetpack.ui.AssetPackUI;
 import phasereditor.canvas.core.CanvasFile;
 import phasereditor.canvas.core.CanvasType;
 import phasereditor.canvas.ui.CanvasUI;
+import phasereditor.project.core.DeferredBuildQueue;
+import phasereditor.project.core.IDeferredBuildListener;
 import phasereditor.ui.FilteredTree2;
 import phasereditor.ui.PatternFilter2;
 
@@ -76,6 +84,7 @@ public class AssetExplorer extends ViewPart {
 	public static final String ID = "phasereditor.assetpack.views.assetExplorer";
 	TreeViewer _viewer;
 	private FilteredTree _filteredTree;
+	private IDeferredBuildListener _deferredBuildListener;
 	// private AssetExplorerLabelProvider _treeLabelProvider;
 	// private AssetExplorerContentProvider _treeContentProvider;
 	// private AssetExplorerListLabelProvider _listLabelProvider;
@@ -204,6 +213,68 @@ public class AssetExplorer extends ViewPart {
 		IActionBars actionBars = getViewSite().getActionBars();
 		actionBars.setGlobalActionHandler(ActionFactory.UNDO.getId(), new UndoActionHandler(getSite(), undoContext));
 		actionBars.setGlobalActionHandler(ActionFactory.REDO.getId(), new RedoActionHandler(getSite(), undoContext));
+
+		// the media and canvas icons are built in background, so update the
+		// labels when they are ready
+
+		_deferredBuildListener = (category, files) -> swtRun(() -> refreshLabels(files));
+		DeferredBuildQueue.getInstance().addListener(_deferredBuildListener);
+	}
+
+	@Override
+	public void dispose() {
+		if (_deferredBuildListener != null) {
+			DeferredBuildQueue.getInstance().removeListener(_deferredBuildListener);
+		}
+		super.dispose();
+	}
+
+	/**
+	 * Update the labels of the elements (already created in the tree) that use
+	 * the given files.
+	 */
+	void refreshLabels(Set<IFile> files) {
+		if (_viewer.getControl().isDisposed()) {
+			return;
+		}
+
+		List<Object> toUpdate = new ArrayList<>();
+		collectElementsUsingFiles(_viewer.getTree().getItems(), files, toUpdate);
+
+		if (!toUpdate.isEmpty()) {
+			_viewer.update(toUpdate.toArray(), null);
+		}
+	}
+
+	private static void collectElementsUsingFiles(TreeItem[] items, Set<IFile> files, List<Object> result) {
+		for (TreeItem item : items) {
+			Object data = item.getData();
+
+			if (data != null && usesFiles(data, files)) {
+				result.add(data);
+			}
+
+			collectElementsUsingFiles(item.getItems(), files, result);
+		}
+	}
+
+	private static boolean usesFiles(Object element, Set<IFile> files) {
+		if (element instanceof CanvasFile) {
+			return files.contains(((CanvasFile) element).getFile());
+		}
+
+		if (element instanceof IAssetKey) {
+			IFile[] used = ((IAssetKey) element).getAsset().getLastUsedFiles();
+			if (used != null) {
+				for (IFile file : used) {
+					if (files.contains(file)) {
+						return true;
+					}
+				}
+			}
+		}
+
+		return false;
 	}
 
 	@Override
@@ -245,6 +316,122 @@ public class AssetExplorer extends ViewPart {
 		// changeViewMode(_treeLabelProvider, _treeContentProvider);
 	}
 
+	/**
+	 * Find the element that replaces the given element, after the pack was
+	 * built again.
+	 */
+	private static Object findNewVersion(Object obj) {
+		if (obj instanceof IAssetKey) {
+			return ((IAssetKey) obj).getSharedVersion();
+		} else if (obj instanceof AssetGroupModel || obj instanceof AssetSectionModel) {
+			AssetPackModel oldPack = obj instanceof AssetGroupModel ? ((AssetGroupModel) obj).getSection().getPack()
+					: ((AssetSectionModel) obj).getPack();
+			JSONObject ref = oldPack.getAssetJSONRefrence(obj);
+			IFile file = oldPack.getFile();
+			AssetPackModel newPack = AssetPackCore.getAssetPackModel(file, false);
+			if (newPack != null) {
+				return newPack.getElementFromJSONReference(ref);
+			}
+		} else if (obj instanceof AssetPackModel) {
+			return AssetPackCore.getAssetPackModel(((AssetPackModel) obj).getFile(), false);
+		} else if (obj instanceof CanvasType) {
+			return obj;
+		}
+		return null;
+	}
+
+	private static IFile getPackFile(Object obj) {
+		if (obj instanceof AssetPackModel) {
+			return ((AssetPackModel) obj).getFile();
+		} else if (obj instanceof AssetSectionModel) {
+			return ((AssetSectionModel) obj).getPack().getFile();
+		} else if (obj instanceof AssetGroupModel) {
+			return ((AssetGroupModel) obj).getSection().getPack().getFile();
+		} else if (obj instanceof IAssetKey) {
+			return ((IAssetKey) obj).getAsset().getPack().getFile();
+		}
+		return null;
+	}
+
+	/**
+	 * Update only the elements affected by the build, instead of refresh all
+	 * the tree.
+	 */
+	public void applyDelta(AssetExplorerDelta delta) {
+		if (_viewer.getControl().isDisposed()) {
+			return;
+		}
+
+		if (PlatformUI.getWorkbench().isClosing()) {
+			return;
+		}
+
+		IProject activeProject = AssetExplorerContentProvider.getActiveProject();
+		if (activeProject != null && !activeProject.equals(delta.getProject())) {
+			// the tree shows the content of other project
+			return;
+		}
+
+		_viewer.getTree().setRedraw(false);
+		try {
+			Set<IFile> packFiles = delta.getPackFiles();
+
+			if (!packFiles.isEmpty()) {
+				replacePacks(packFiles);
+			}
+
+			for (AssetModel asset : delta.getAssets()) {
+				if (!packFiles.contains(asset.getPack().getFile())) {
+					_viewer.refresh(asset);
+				}
+			}
+
+			if (delta.isCanvasFilesChanged()) {
+				for (CanvasType type : CanvasType.values()) {
+					_viewer.refresh(type);
+				}
+			}
+		} finally {
+			_viewer.getTree().setRedraw(true);
+		}
+	}
+
+	/**
+	 * Replace the items of the given packs with the new models (if any) and
+	 * restore the expanded elements of those packs.
+	 */
+	private void replacePacks(Set<IFile> packFiles) {
+		List<Object> expanded = new ArrayList<>();
+		for (Object obj : _viewer.getExpandedElements()) {
+			if (packFiles.contains(getPackFile(obj))) {
+				expanded.add(obj);
+			}
+		}
+
+		for (TreeItem item : _viewer.getTree().getItems()) {
+			Object data = item.getData();
+			if (data instanceof AssetPackModel && packFiles.contains(((AssetPackModel) data).getFile())) {
+				_viewer.remove(data);
+			}
+		}
+
+		Object[] children = ((AssetExplorerContentProvider) _viewer.getContentProvider()).getChildren(ROOT);
+
+		for (int i = 0; i < children.length; i++) {
+			Object child = children[i];
+			if (child instanceof AssetPackModel && packFiles.contains(((AssetPackModel) child).getFile())) {
+				_viewer.insert(ROOT, child, i);
+			}
+		}
+
+		for (Object obj : expanded) {
+			Object obj2 = findNewVersion(obj);
+			if (obj2 != null) {
+				_viewer.setExpandedState(obj2, true);
+			}
+		}
+	}
+
 	public void refreshContent() {
 		if (_viewer.getControl().isDisposed()) {
 			return;
@@ -263,35 +450,7 @@ public class AssetExplorer extends ViewPart {
 			List<Object> toExpand = new ArrayList<>();
 
 			for (Object obj : expanded) {
-				if (obj instanceof IAssetKey) {
-					IAssetKey key = ((IAssetKey) obj).getSharedVersion();
-					toExpand.add(key);
-				} else if (obj instanceof AssetGroupModel) {
-					AssetPackModel oldPack = ((AssetGroupModel) obj).getSection().getPack();
-					JSONObject ref = oldPack.getAssetJSONRefrence(obj);
-					IFile file = oldPack.getFile();
-					AssetPackModel newPack = AssetPackCore.getAssetPackModel(file, false);
-					if (newPack != null) {
-						Object obj2 = newPack.getElementFromJSONReference(ref);
-						if (obj2 != null) {
-							toExpand.add(obj2);
-						}
-					}
-				} else if (obj instanceof AssetSectionModel) {
-					AssetPackModel oldPack = ((AssetSectionModel) obj).getPack();
-					JSONObject ref = oldPack.getAssetJSONRefrence(obj);
-					IFile file = oldPack.getFile();
-					AssetPackModel newPack = AssetPackCore.getAssetPackModel(file, false);
-					if (newPack != null) {
-						Object obj2 = newPack.getElementFromJSONReference(ref);
-						toExpand.add(obj2);
-					}
-				} else if (obj instanceof AssetPackModel) {
-					AssetPackModel newPack = AssetPackCore.getAssetPackModel(((AssetPackModel) obj).getFile(), false);
-					toExpand.add(newPack);
-				} else if (obj instanceof CanvasType) {
-					toExpand.add(obj);
-				}
+				toExpand.add(findNewVersion(obj));
 			}
 			toExpand.remove(null);
 			Object[] array = toExpand.toArray();
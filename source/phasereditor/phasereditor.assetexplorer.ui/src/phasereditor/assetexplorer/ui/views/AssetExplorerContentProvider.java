@@ -23,6 +23,8 @@ package phasereditor.assetexplorer.ui.views;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -58,6 +60,7 @@ class AssetExplorerContentProvider extends AssetsContentProvider {
 
 	IPartListener _partListener;
 	private TreeViewer _viewer;
+	private Map<Tilemap, Object[]> _tilemapContainers = new WeakHashMap<>();
 
 	public AssetExplorerContentProvider() {
 		_partListener = new IPartListener() {
@@ -195,8 +198,11 @@ class AssetExplorerContentProvider extends AssetsContentProvider {
 				return asset.getSubElements().toArray();
 			case tilemap:
 				Tilemap tilemap = ((TilemapAssetModel) asset).getTilemap();
-				return new Object[] { new Container("Layers", tilemap.getLayers().toArray()),
-						new Container("Tilesets", tilemap.getTilesets().toArray()) };
+				// keep the same containers, so the viewer can preserve the
+				// expanded state in the refreshes
+				return _tilemapContainers.computeIfAbsent(tilemap,
+						t -> new Object[] { new Container("Layers", t.getLayers().toArray()),
+								new Container("Tilesets", t.getTilesets().toArray()) });
 			case physics:
 				List<PhysicsAssetModel.SpriteData> sprites = ((PhysicsAssetModel) asset).getSprites();
 				return sprites.toArray();
@@ -232,15 +238,19 @@ class AssetExplorerContentProvider extends AssetsContentProvider {
 			return;
 		}
 
+		IProject project = getActiveProject();
+
+		if (project == _lastToken) {
+			// the content depends only on the active project, the changes in
+			// the project are applied by the build participant
+			return;
+		}
+
 		_viewer.getTree().setRedraw(false);
 		try {
 			_viewer.refresh();
-
-			IProject project = getActiveProject();
-			if (project != _lastToken) {
-				_viewer.expandToLevel(4);
-				_lastToken = project;
-			}
+			_viewer.expandToLevel(4);
+			_lastToken = project;
 		} finally {
 			_viewer.getTree().setRedraw(true);
 		}
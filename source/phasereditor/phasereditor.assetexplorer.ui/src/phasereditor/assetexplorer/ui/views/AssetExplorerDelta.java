@@ -0,0 +1,158 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.assetexplorer.ui.views;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import phasereditor.assetpack.core.AssetModel;
+import phasereditor.assetpack.core.AssetPackCore;
+import phasereditor.assetpack.core.AssetPackCore.PackDelta;
+import phasereditor.assetpack.core.AssetPackModel;
+import phasereditor.canvas.core.CanvasCore;
+import phasereditor.project.core.IResourceDeltaVisitor2;
+import phasereditor.project.core.ProjectCore;
+
+/**
+ * The changes of a build that should be shown in the {@link AssetExplorer}.
+ * 
+ * @author arian
+ *
+ */
+public class AssetExplorerDelta {
+	private IProject _project;
+	private Set<IFile> _packFiles;
+	private Set<AssetModel> _assets;
+	private boolean _canvasFilesChanged;
+
+	public AssetExplorerDelta(IProject project) {
+		_project = project;
+		_packFiles = new LinkedHashSet<>();
+		_assets = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Compute the changes from the delta of the asset packs and the resources
+	 * delta.
+	 */
+	public static AssetExplorerDelta create(IProject project, PackDelta packDelta, IResourceDelta resourceDelta)
+			throws CoreException {
+		AssetExplorerDelta delta = new AssetExplorerDelta(project);
+
+		if (packDelta != null) {
+			for (AssetPackModel pack : packDelta.getPacks()) {
+				delta._packFiles.add(pack.getFile());
+			}
+
+			for (AssetModel asset : packDelta.getAssets()) {
+				delta._assets.add(asset);
+			}
+		}
+
+		resourceDelta.accept(new IResourceDeltaVisitor2() {
+
+			@Override
+			public void fileAdded(IFile file) {
+				visitFile(file);
+			}
+
+			@Override
+			public void fileRemoved(IFile file) {
+				visitFile(file);
+			}
+
+			@Override
+			public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+				visitFile(file);
+				visitFile(file.getWorkspace().getRoot().getFile(movedFromPath));
+			}
+
+			@Override
+			public void fileChanged(IFile file) {
+				visitFile(file);
+			}
+
+			private void visitFile(IFile file) {
+				if (!file.exists()) {
+					// the content type of a removed file is not available
+					if (file.getFileExtension() != null && CanvasCore.isCanvasFileExtension(file)) {
+						delta._canvasFilesChanged = true;
+					}
+
+					// the removed files could be packs, the views ignore the
+					// files that are not in the tree
+					delta._packFiles.add(file);
+
+					return;
+				}
+
+				if (CanvasCore.isCanvasFile(file)) {
+					delta._canvasFilesChanged = true;
+					return;
+				}
+
+				try {
+					if (AssetPackCore.isAssetPackFile(file)) {
+						delta._packFiles.add(file);
+					}
+				} catch (CoreException e) {
+					ProjectCore.logError(e);
+				}
+			}
+		});
+
+		return delta;
+	}
+
+	public IProject getProject() {
+		return _project;
+	}
+
+	/**
+	 * The files of the packs that were added, removed or replaced by a new
+	 * model.
+	 */
+	public Set<IFile> getPackFiles() {
+		return _packFiles;
+	}
+
+	/**
+	 * The assets that were built again (the model is the same).
+	 */
+	public Set<AssetModel> getAssets() {
+		return _assets;
+	}
+
+	public boolean isCanvasFilesChanged() {
+		return _canvasFilesChanged;
+	}
+
+	public boolean isEmpty() {
+		return _packFiles.isEmpty() && _assets.isEmpty() && !_canvasFilesChanged;
+	}
+}
@@ -61,6 +61,7 @@ public class Activator extends AbstractUIPlugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		AssetPackCore.savePackFilesSnapshots();
 		plugin = null;
 		super.stop(context);
 	}
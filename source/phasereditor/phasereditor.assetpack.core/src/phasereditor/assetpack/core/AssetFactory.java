@@ -29,7 +29,6 @@ import org.eclipse.core.runtime.Path;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import phasereditor.atlas.core.AtlasCore;
 import phasereditor.ui.PhaserEditorUI;
 
 public abstract class AssetFactory {
@@ -216,7 +215,7 @@ public abstract class AssetFactory {
 					}
 				} else {
 					asset.setKey(pack.createKey(file));
-					String format = AtlasCore.getAtlasFormat(file);
+					String format = AssetPackCore.getAtlasFormat(file);
 					if (format != null) {
 						asset.setFormat(format);
 					}
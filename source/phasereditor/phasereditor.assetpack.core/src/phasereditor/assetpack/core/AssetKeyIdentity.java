@@ -0,0 +1,125 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.assetpack.core;
+
+import java.util.Objects;
+
+import org.eclipse.core.resources.IFile;
+
+/**
+ * The identity of an asset key: the key, the asset, the section and the pack
+ * file. Two asset keys with the same identity reference the same asset (or
+ * asset element), even if they are instances of different versions of the
+ * pack.
+ * 
+ * The hash code is computed at creation time, so the identity can be used as
+ * an efficient key of hash tables.
+ * 
+ * @author arian
+ *
+ */
+public final class AssetKeyIdentity {
+	private final String _key;
+	private final String _assetKey;
+	private final String _sectionKey;
+	private final IFile _packFile;
+	private final int _hash;
+
+	private AssetKeyIdentity(String key, String assetKey, String sectionKey, IFile packFile) {
+		_key = key;
+		_assetKey = assetKey;
+		_sectionKey = sectionKey;
+		_packFile = packFile;
+		_hash = Objects.hash(key, assetKey, sectionKey, packFile);
+	}
+
+	public static AssetKeyIdentity of(IAssetKey assetKey) {
+		AssetModel asset = assetKey.getAsset();
+		AssetSectionModel section = asset.getSection();
+		AssetPackModel pack = section.getPack();
+		return new AssetKeyIdentity(assetKey.getKey(), asset.getKey(), section.getKey(),
+				pack == null ? null : pack.getFile());
+	}
+
+	/**
+	 * Compare the identity of two asset keys, without create any object.
+	 */
+	public static boolean equals(IAssetKey a, IAssetKey b) {
+		if (a == b) {
+			return true;
+		}
+
+		AssetModel asset1 = a.getAsset();
+		AssetModel asset2 = b.getAsset();
+		AssetSectionModel section1 = asset1.getSection();
+		AssetSectionModel section2 = asset2.getSection();
+		AssetPackModel pack1 = section1.getPack();
+		AssetPackModel pack2 = section2.getPack();
+
+		return Objects.equals(a.getKey(), b.getKey()) && Objects.equals(asset1.getKey(), asset2.getKey())
+				&& Objects.equals(section1.getKey(), section2.getKey())
+				&& Objects.equals(pack1 == null ? null : pack1.getFile(), pack2 == null ? null : pack2.getFile());
+	}
+
+	public String getKey() {
+		return _key;
+	}
+
+	public String getAssetKey() {
+		return _assetKey;
+	}
+
+	public String getSectionKey() {
+		return _sectionKey;
+	}
+
+	public IFile getPackFile() {
+		return _packFile;
+	}
+
+	@Override
+	public int hashCode() {
+		return _hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof AssetKeyIdentity)) {
+			return false;
+		}
+
+		AssetKeyIdentity other = (AssetKeyIdentity) obj;
+
+		return _hash == other._hash && Objects.equals(_key, other._key) && Objects.equals(_assetKey, other._assetKey)
+				&& Objects.equals(_sectionKey, other._sectionKey) && Objects.equals(_packFile, other._packFile);
+	}
+
+	@Override
+	public String toString() {
+		return _key + "$" + _assetKey + "$" + _sectionKey + "$"
+				+ (_packFile == null ? null : _packFile.getFullPath().toPortableString());
+	}
+}
@@ -58,7 +58,7 @@ public abstract class AssetModel implements IAssetKey, IAdaptable {
 
 	static {
 		PhaserJSDoc jsdoc = PhaserJSDoc.getInstance();
-		PhaserType phaserType = jsdoc.getTypesMap().get("Phaser.Loader");
+		PhaserType phaserType = jsdoc.getType("Phaser.Loader");
 
 		// the phaserType can be null if the phaser version is wrong.
 		if (phaserType != null) {
@@ -184,6 +184,7 @@ public abstract class AssetModel implements IAssetKey, IAdaptable {
 
 	public void setKey(String key, boolean notify) {
 		_key = key;
+		invalidateIndex();
 		if (notify) {
 			firePropertyChange("key");
 			AssetPackModel model = getPack();
@@ -212,6 +213,7 @@ public abstract class AssetModel implements IAssetKey, IAdaptable {
 	public void setSection(AssetSectionModel section, boolean notify) {
 		Assert.isNotNull(section);
 		_section = section;
+		invalidateIndex();
 		if (notify) {
 			firePropertyChange("section");
 		}
@@ -259,10 +261,20 @@ public abstract class AssetModel implements IAssetKey, IAdaptable {
 	}
 
 	public void firePropertyChange(String property) {
+		invalidateIndex();
 		_support.firePropertyChange(property, true, false);
 		getPack().setDirty(true);
 	}
 
+	/**
+	 * Discard the indexes that contain this asset or its sub-elements.
+	 */
+	void invalidateIndex() {
+		if (_section != null) {
+			_section.invalidateIndex();
+		}
+	}
+
 	@SuppressWarnings("static-method")
 	public IFile[] computeUsedFiles() {
 		return new IFile[0];
@@ -300,11 +312,67 @@ public abstract class AssetModel implements IAssetKey, IAdaptable {
 		return urls;
 	}
 
+	/**
+	 * The elements of the asset. The implementations should return the same
+	 * list until the elements change, it is indexed by
+	 * {@link #findSubElement(String)}.
+	 */
 	@SuppressWarnings("static-method")
 	public List<? extends IAssetElementModel> getSubElements() {
 		return Collections.emptyList();
 	}
 
+	private static class SubElementsIndex {
+		public List<? extends IAssetElementModel> list;
+		public int size;
+		public Map<String, IAssetElementModel> map;
+
+		public SubElementsIndex(List<? extends IAssetElementModel> list) {
+			this.list = list;
+			this.size = list.size();
+			this.map = new HashMap<>();
+			for (IAssetElementModel elem : list) {
+				String name = elem.getName();
+				if (name != null) {
+					// the first element wins, like in the linear search
+					map.putIfAbsent(name, elem);
+				}
+			}
+		}
+	}
+
+	private transient volatile SubElementsIndex _subElementsIndex;
+
+	/**
+	 * Find the sub-element with the given name. The elements are indexed by
+	 * name and the index is created again when the asset creates a new list of
+	 * sub-elements.
+	 * 
+	 * @param name
+	 *            The name of the element.
+	 * @return The element or <code>null</code> if it is not found.
+	 */
+	public IAssetElementModel findSubElement(String name) {
+		List<? extends IAssetElementModel> list = getSubElements();
+		SubElementsIndex index = _subElementsIndex;
+
+		if (index == null || index.list != list || index.size != list.size()) {
+			index = new SubElementsIndex(list);
+			_subElementsIndex = index;
+		}
+
+		IAssetElementModel elem = index.map.get(name);
+
+		if (elem != null && !name.equals(elem.getName())) {
+			// the element was renamed
+			index = new SubElementsIndex(list);
+			_subElementsIndex = index;
+			elem = index.map.get(name);
+		}
+
+		return elem;
+	}
+
 	/**
 	 * Return <code>null</code> if the given string is <code>null</code> or the
 	 * empty string.
@@ -328,6 +396,9 @@ public abstract class AssetModel implements IAssetKey, IAdaptable {
 
 		internalBuild(problems);
 
+		// the sub-elements could be different now
+		invalidateIndex();
+
 	}
 
 	protected abstract void internalBuild(List<IStatus> problems);
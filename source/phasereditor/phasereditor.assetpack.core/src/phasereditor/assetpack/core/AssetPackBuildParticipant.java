@@ -22,6 +22,7 @@
 package phasereditor.assetpack.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -41,6 +42,7 @@ import org.eclipse.core.runtime.IStatus;
 
 import phasereditor.assetpack.core.AssetPackCore.PackDelta;
 import phasereditor.project.core.IProjectBuildParticipant;
+import phasereditor.project.core.MarkerBatch;
 import phasereditor.project.core.ProjectCore;
 
 /**
@@ -60,6 +62,7 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 	public void clean(IProject project, Map<String, Object> env) {
 		ProjectCore.deleteResourceMarkers(project, AssetPackCore.ASSET_PACK_PROBLEM_ID);
 		AssetPackCore.removeAssetPackModels(project);
+		AssetPackCore.removePackFilesSnapshot(project);
 	}
 	
 	@Override
@@ -69,7 +72,8 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 	@Override
 	public void fullBuild(IProject project, Map<String, Object> env) {
-		ProjectCore.deleteResourceMarkers(project, AssetPackCore.ASSET_PACK_PROBLEM_ID);
+		// the markers of the files that are not packs anymore are deleted
+		MarkerBatch markers = new MarkerBatch(AssetPackCore.ASSET_PACK_PROBLEM_ID, project);
 
 		AssetPackCore.discoverAssetPackModels(project);
 
@@ -77,10 +81,10 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 		for (AssetPackModel pack : list) {
 			List<IStatus> problems = pack.build();
-			for (IStatus problem : problems) {
-				createAssetPackMarker(pack.getFile(), problem);
-			}
+			markers.setProblems(pack.getFile(), problems);
 		}
+
+		markers.apply();
 	}
 
 	@Override
@@ -91,6 +95,8 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 
+			boolean[] filesAddedOrRemoved = { false };
+
 			// check for the packs to delete
 
 			mainDelta.accept(new IResourceDeltaVisitor() {
@@ -106,6 +112,10 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 						int kind = delta.getKind();
 
+						if (kind == IResourceDelta.ADDED || kind == IResourceDelta.REMOVED) {
+							filesAddedOrRemoved[0] = true;
+						}
+
 						switch (kind) {
 						case IResourceDelta.REMOVED:
 							for (AssetPackModel pack : packs) {
@@ -158,6 +168,13 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 			List<AssetPackModel> allPacks = AssetPackCore.getAssetPackModels(project);
 
+			if (filesAddedOrRemoved[0]) {
+				// the assets only report the used files that exist
+				for (AssetPackModel pack : allPacks) {
+					pack.invalidateUsedFilesIndex();
+				}
+			}
+
 			// TODO: probably this is not going to work.
 			// delta packs can be computed by comparing the old model with the
 			// new model.
@@ -193,12 +210,13 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 			// build and validate all the affected packs
 			{
+				Set<IFile> toCleanMarks = new HashSet<>();
+				Set<IFile> hadProblems = new HashSet<>();
+				MarkerBatch markers = new MarkerBatch(AssetPackCore.ASSET_PACK_PROBLEM_ID);
 
-				// delete all affected files markers
+				// reset the problems of all the affected files
 
 				{
-					Set<IFile> toCleanMarks = new HashSet<>();
-
 					for (AssetPackModel pack : packDelta.getPacks()) {
 						toCleanMarks.add(pack.getFile());
 					}
@@ -209,7 +227,10 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 
 					for (IFile file : toCleanMarks) {
 						if (file.exists()) {
-							ProjectCore.deleteResourceMarkers(file, AssetPackCore.ASSET_PACK_PROBLEM_ID);
+							if (ProjectCore.hasProblems(file)) {
+								hadProblems.add(file);
+							}
+							markers.setProblems(file, Collections.emptyList());
 						}
 					}
 				}
@@ -234,7 +255,19 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 					List<IStatus> problems = new ArrayList<>();
 					asset.build(problems);
 					for (IStatus problem : problems) {
-						createAssetPackMarker(file, problem);
+						markers.addProblem(file, problem);
+					}
+				}
+
+				// only the markers that changed are updated
+
+				markers.apply();
+
+				// the canvas validation checks the problems of the packs
+
+				for (IFile file : toCleanMarks) {
+					if (file.exists() && hadProblems.contains(file) != ProjectCore.hasProblems(file)) {
+						packDelta.getProblemsChangedFiles().add(file);
 					}
 				}
 			}
@@ -244,10 +277,6 @@ public class AssetPackBuildParticipant implements IProjectBuildParticipant {
 		}
 	}
 
-	private static void createAssetPackMarker(IFile file, IStatus problem) {
-		ProjectCore.createErrorMarker(AssetPackCore.ASSET_PACK_PROBLEM_ID, problem, file);
-	}
-
 	public static PackDelta getData(Map<String, Object> env) {
 		return (PackDelta) env.get(DATA_KEY);
 	}
@@ -24,7 +24,6 @@ package phasereditor.assetpack.core;
 import static java.lang.System.err;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -32,6 +31,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.BiFunction;
@@ -57,10 +57,13 @@ import org.eclipse.ui.IMemento;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
+import org.json.JSONReader;
+import org.json.JSONReader.Token;
 
 import phasereditor.atlas.core.AtlasCore;
 import phasereditor.audiosprite.core.AudioSpriteCore;
+import phasereditor.project.core.FileKindCache;
+import phasereditor.project.core.FileSnapshot;
 
 /**
  * Utilities related to the assets and resources.
@@ -253,7 +256,8 @@ public class AssetPackCore {
 	 *             If error.
 	 */
 	public static List<IFile> discoverAudioSpriteFiles(IContainer folder) throws CoreException {
-		return discoverFiles(folder, AudioSpriteCore::isAudioSpriteFile);
+		return discoverFiles(folder, file -> Boolean
+				.valueOf(FileKindCache.is(file, "audioSprite", AudioSpriteCore::isAudioSpriteFile)));
 	}
 
 	public static List<IFile> discoverTilemapFiles(IContainer folder) throws CoreException {
@@ -284,13 +288,27 @@ public class AssetPackCore {
 
 			@Override
 			public Boolean apply(IFile t) {
-				String format;
-				try {
-					format = AtlasCore.getAtlasFormat(t);
-					return format == null ? Boolean.FALSE : Boolean.TRUE;
-				} catch (CoreException e) {
-					throw new RuntimeException(e);
-				}
+				String format = getAtlasFormat(t);
+				return format == null ? Boolean.FALSE : Boolean.TRUE;
+			}
+		});
+	}
+
+	/**
+	 * Return the atlas format of the file, or null if it is not an atlas. The
+	 * result is cached in the {@link FileKindCache}.
+	 * 
+	 * @param file
+	 *            The file to test.
+	 * @return The atlas format, or null if it is not an atlas.
+	 * @see AtlasCore#getAtlasFormat(IFile)
+	 */
+	public static String getAtlasFormat(IFile file) {
+		return FileKindCache.get(file, "atlas", f -> {
+			try {
+				return AtlasCore.getAtlasFormat(f);
+			} catch (CoreException e) {
+				throw new RuntimeException(e);
 			}
 		});
 	}
@@ -401,14 +419,28 @@ public class AssetPackCore {
 		if (!file.exists() || !file.isSynchronized(IResource.DEPTH_ONE)) {
 			return false;
 		}
-		IContentDescription desc = file.getContentDescription();
-		if (desc == null) {
-			return false;
-		}
 
-		IContentType contentType = desc.getContentType();
-		String id = contentType.getId();
-		return id.equals(AssetPackContentDescriber.CONTENT_TYPE_ID);
+		return isContentType(file, "assetPack", AssetPackContentDescriber.CONTENT_TYPE_ID);
+	}
+
+	/**
+	 * Test if the file has the given content type. The result is cached in the
+	 * {@link FileKindCache}.
+	 */
+	private static boolean isContentType(IFile file, String kind, Object contentTypeId) {
+		return FileKindCache.is(file, kind, f -> {
+			try {
+				IContentDescription desc = f.getContentDescription();
+				if (desc == null) {
+					return Boolean.FALSE;
+				}
+				IContentType contentType = desc.getContentType();
+				String id = contentType.getId();
+				return Boolean.valueOf(id.equals(contentTypeId));
+			} catch (CoreException e) {
+				throw new RuntimeException(e);
+			}
+		});
 	}
 
 	/**
@@ -425,17 +457,7 @@ public class AssetPackCore {
 			return false;
 		}
 
-		try {
-			IContentDescription desc = file.getContentDescription();
-			if (desc == null) {
-				return false;
-			}
-			IContentType contentType = desc.getContentType();
-			String id = contentType.getId();
-			return id.equals(TilemapJSONDescriber.CONTENT_TYPE_ID);
-		} catch (CoreException e) {
-			throw new RuntimeException(e);
-		}
+		return isContentType(file, "tilemapJSON", TilemapJSONDescriber.CONTENT_TYPE_ID);
 	}
 
 	/**
@@ -448,8 +470,8 @@ public class AssetPackCore {
 	 */
 	public static String isAssetPackContent(InputStream contents) {
 		try {
-			JSONTokener tokener = new JSONTokener(new InputStreamReader(contents));
-			JSONObject obj = new JSONObject(tokener);
+			// read only the meta, do not build the whole pack
+			JSONObject obj = JSONReader.readValues(contents, "meta");
 			JSONObject meta = obj.getJSONObject("meta");
 			meta.get("generated");
 			meta.get("version");
@@ -471,12 +493,40 @@ public class AssetPackCore {
 	 */
 	public static String isTilemapJSONContent(InputStream contents) {
 		try {
-			JSONTokener tokener = new JSONTokener(new InputStreamReader(contents));
-			JSONObject obj = new JSONObject(tokener);
-			obj.getJSONArray("layers");
-			obj.getJSONArray("tilesets");
-			obj.getDouble("tileheight");
-			obj.getDouble("tilewidth");
+			// check the type of the properties but skip the content of the
+			// layers and tilesets, they could be very large
+
+			JSONReader reader = new JSONReader(contents);
+			reader.beginObject();
+
+			int found = 0;
+
+			while (found < 4 && reader.hasNext()) {
+				String name = reader.nextName();
+				switch (name) {
+				case "layers":
+				case "tilesets":
+					if (reader.peek() != Token.BEGIN_ARRAY) {
+						return "JSONObject[\"" + name + "\"] is not a JSONArray.";
+					}
+					reader.skipValue();
+					found++;
+					break;
+				case "tileheight":
+				case "tilewidth":
+					reader.nextNumber();
+					found++;
+					break;
+				default:
+					reader.skipValue();
+					break;
+				}
+			}
+
+			if (found < 4) {
+				return "Missing tilemap properties.";
+			}
+
 			return null;
 		} catch (JSONException e) {
 			return e.getMessage();
@@ -512,31 +562,26 @@ public class AssetPackCore {
 		List<Object> list = new ArrayList<>();
 		List<AssetPackModel> packs = getAssetPackModels(project);
 		for (AssetPackModel pack : packs) {
-			List<AssetModel> assets = pack.getAssets();
-			for (AssetModel asset : assets) {
-				if (asset.getKey().equals(key)) {
-					list.add(asset);
-				}
-				List<? extends IAssetElementModel> elems = asset.getSubElements();
-				for (IAssetElementModel elem : elems) {
-					if (elem.getName().equals(key)) {
-						list.add(elem);
-					}
-				}
-			}
+			list.addAll(pack.findAssetObjects(key));
 		}
 		return list;
 	}
 
+	private static final String PACK_FILES_SNAPSHOT_NAME = "phasereditor.assetpack.core.packFiles";
+	private static final String PACK_FILES_SNAPSHOT_PACK = "pack";
+	private static Map<IProject, FileSnapshot> _packFilesSnapshots = new HashMap<>();
+
 	/**
-	 * Get the asset packs of the whole workspace.
+	 * Get the asset packs of the whole workspace. It is called at startup, so
+	 * it uses the snapshot written in the last session to skip the content
+	 * detection of the files that were not modified.
 	 * 
 	 * @return A list with the asset pack models.
 	 */
 	static List<AssetPackModel> discoverAssetPackModels() {
 		IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
 		for (IProject project : projects) {
-			discoverAssetPackModels(project);
+			discoverAssetPackModels(project, true);
 		}
 
 		synchronized (_filePackMap) {
@@ -545,10 +590,25 @@ public class AssetPackCore {
 	}
 
 	public static void discoverAssetPackModels(IProject project) {
+		discoverAssetPackModels(project, false);
+	}
+
+	/**
+	 * Discover the asset packs of the project.
+	 * 
+	 * @param useSnapshot
+	 *            If <code>true</code>, the files that were not modified since
+	 *            the last {@link #savePackFilesSnapshots()} are not tested
+	 *            again.
+	 */
+	public static void discoverAssetPackModels(IProject project, boolean useSnapshot) {
 		if (!project.isAccessible()) {
 			return;
 		}
 
+		FileSnapshot lastSnapshot = useSnapshot ? FileSnapshot.read(project, PACK_FILES_SNAPSHOT_NAME, 1) : null;
+		FileSnapshot newSnapshot = new FileSnapshot(1);
+
 		try {
 			project.accept(new IResourceVisitor() {
 
@@ -556,7 +616,21 @@ public class AssetPackCore {
 				public boolean visit(IResource resource) throws CoreException {
 					if (resource instanceof IFile) {
 						IFile file = (IFile) resource;
-						if (isAssetPackFile(file)) {
+
+						FileSnapshot.Item item = lastSnapshot == null ? null : lastSnapshot.getValid(file);
+
+						boolean isPack;
+
+						if (item == null || !file.isSynchronized(IResource.DEPTH_ONE)) {
+							isPack = isAssetPackFile(file);
+						} else {
+							isPack = item.data != null;
+						}
+
+						newSnapshot.put(file.getFullPath(), file.getModificationStamp(),
+								isPack ? PACK_FILES_SNAPSHOT_PACK : null);
+
+						if (isPack) {
 							try {
 								getAssetPackModel(file);
 							} catch (Exception e) {
@@ -570,6 +644,29 @@ public class AssetPackCore {
 		} catch (CoreException e) {
 			logError(e);
 		}
+
+		synchronized (_packFilesSnapshots) {
+			_packFilesSnapshots.put(project, newSnapshot);
+		}
+	}
+
+	/**
+	 * Write the result of the last discovery of packs, so the next session
+	 * only has to test the modified files.
+	 */
+	static void savePackFilesSnapshots() {
+		synchronized (_packFilesSnapshots) {
+			for (Entry<IProject, FileSnapshot> entry : _packFilesSnapshots.entrySet()) {
+				entry.getValue().write(entry.getKey(), PACK_FILES_SNAPSHOT_NAME);
+			}
+		}
+	}
+
+	static void removePackFilesSnapshot(IProject project) {
+		synchronized (_packFilesSnapshots) {
+			_packFilesSnapshots.remove(project);
+		}
+		FileSnapshot.delete(project, PACK_FILES_SNAPSHOT_NAME);
 	}
 
 	public static AssetPackModel getAssetPackModel(IFile file) throws Exception {
@@ -694,6 +791,7 @@ public class AssetPackCore {
 	public static class PackDelta {
 		private Set<AssetPackModel> _packs;
 		private Set<AssetModel> _assets;
+		private Set<IFile> _problemsChangedFiles;
 		private IProject _project;
 
 		public PackDelta(IProject project) {
@@ -701,6 +799,7 @@ public class AssetPackCore {
 			_project = project;
 			_packs = new HashSet<>();
 			_assets = new HashSet<>();
+			_problemsChangedFiles = new HashSet<>();
 		}
 
 		public IProject getProject() {
@@ -719,8 +818,16 @@ public class AssetPackCore {
 			return _packs;
 		}
 
+		/**
+		 * The pack files that started or stopped to have problems in this
+		 * build.
+		 */
+		public Set<IFile> getProblemsChangedFiles() {
+			return _problemsChangedFiles;
+		}
+
 		public boolean isEmpty() {
-			return _packs.isEmpty() && _assets.isEmpty();
+			return _packs.isEmpty() && _assets.isEmpty() && _problemsChangedFiles.isEmpty();
 		}
 
 		public boolean contains(Object... list) {
@@ -743,6 +850,7 @@ public class AssetPackCore {
 		public void add(PackDelta delta) {
 			_packs.addAll(delta.getPacks());
 			_assets.addAll(delta.getAssets());
+			_problemsChangedFiles.addAll(delta.getProblemsChangedFiles());
 		}
 	}
 
@@ -773,11 +881,15 @@ public class AssetPackCore {
 		StatusManager.getManager().handle(new Status(IStatus.ERROR, PLUGIN_ID, msg, null));
 	}
 
+	/**
+	 * Compare the identity of the asset keys. See {@link AssetKeyIdentity}.
+	 */
 	public static boolean equals(IAssetKey a, IAssetKey b) {
-		String k1 = uniqueKey(a);
-		String k2 = uniqueKey(b);
+		if (a == null || b == null) {
+			return false;
+		}
 
-		return k1.equals(k2);
+		return AssetKeyIdentity.equals(a, b);
 	}
 
 	public static String uniqueKey(IAssetKey assetKey) {
@@ -785,10 +897,7 @@ public class AssetPackCore {
 			return UUID.randomUUID().toString();
 		}
 
-		AssetModel asset = assetKey.getAsset();
-
-		return assetKey.getKey() + "$" + asset.getKey() + "$" + asset.getSection().getKey() + "$"
-				+ asset.getPack().getFile().getFullPath().toPortableString();
+		return AssetKeyIdentity.of(assetKey).toString();
 	}
 
 	public static BiFunction<IProject, JSONObject, Object> createCustomFindAssetFunction(final AssetPackModel pack) {
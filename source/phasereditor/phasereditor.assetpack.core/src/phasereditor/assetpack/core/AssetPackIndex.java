@@ -0,0 +1,108 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.assetpack.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash indexes of the content of a pack. An index is immutable, when the pack
+ * is modified the index is discarded and a new one is created the next time
+ * it is requested.
+ * 
+ * @author arian
+ *
+ */
+final class AssetPackIndex {
+	private Map<String, AssetSectionModel> _sectionMap;
+	private Set<String> _assetKeys;
+	private Map<String, List<Object>> _keyObjectsMap;
+	private List<AssetModel> _assets;
+
+	public AssetPackIndex(List<AssetSectionModel> sections) {
+		_sectionMap = new HashMap<>();
+		_assetKeys = new HashSet<>();
+		_keyObjectsMap = new HashMap<>();
+		_assets = new ArrayList<>();
+
+		for (AssetSectionModel section : sections) {
+			String sectionKey = section.getKey();
+			if (sectionKey != null) {
+				// the first section wins, like in the linear search
+				_sectionMap.putIfAbsent(sectionKey, section);
+			}
+
+			for (AssetModel asset : section.getAssets()) {
+				_assets.add(asset);
+
+				String assetKey = asset.getKey();
+				if (assetKey != null) {
+					_assetKeys.add(assetKey);
+					addKeyObject(assetKey, asset);
+				}
+
+				for (IAssetElementModel elem : asset.getSubElements()) {
+					String name = elem.getName();
+					if (name != null) {
+						addKeyObject(name, elem);
+					}
+				}
+			}
+		}
+
+		_assets = Collections.unmodifiableList(_assets);
+	}
+
+	private void addKeyObject(String key, Object obj) {
+		List<Object> list = _keyObjectsMap.get(key);
+		if (list == null) {
+			list = new ArrayList<>(1);
+			_keyObjectsMap.put(key, list);
+		}
+		list.add(obj);
+	}
+
+	public AssetSectionModel findSection(String key) {
+		return _sectionMap.get(key);
+	}
+
+	public boolean hasKey(String key) {
+		return _sectionMap.containsKey(key) || _assetKeys.contains(key);
+	}
+
+	/**
+	 * The assets and asset elements with the given key, in the pack order.
+	 */
+	public List<Object> findAssetObjects(String key) {
+		List<Object> list = _keyObjectsMap.get(key);
+		return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+	}
+
+	public List<AssetModel> getAssets() {
+		return _assets;
+	}
+}
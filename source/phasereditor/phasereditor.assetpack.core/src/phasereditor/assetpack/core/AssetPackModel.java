@@ -31,9 +31,11 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -49,7 +51,6 @@ import org.eclipse.ui.IMemento;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.assetpack.core.AssetPackCore.PackDelta;
 import phasereditor.project.core.ProjectCore;
@@ -63,6 +64,10 @@ public final class AssetPackModel {
 	protected List<AssetSectionModel> _sections;
 	private IFile _file;
 	private boolean _dirty;
+	private volatile AssetPackIndex _index;
+	private volatile Map<IPath, List<AssetModel>> _usedFilesIndex;
+	private volatile int _indexVersion;
+	private final Object _indexLock = new Object();
 
 	public AssetPackModel(IFile file) throws Exception {
 		this(readJSON(file), file);
@@ -104,24 +109,64 @@ public final class AssetPackModel {
 			return delta;
 		}
 
-		for (AssetModel asset : getAssets()) {
-			IFile[] lastUsedFiles = asset.getLastUsedFiles();
-			IFile[] usedFiles = asset.computeUsedFiles();
-			IFile[][] allfiles = { lastUsedFiles, usedFiles };
-
-			for (IFile[] files : allfiles) {
-				for (IFile file : files) {
-					if (file != null) {
-						IPath path = file.getFullPath();
-						if (path.equals(deltaFilePath)) {
-							delta.add(asset);
+		for (AssetModel asset : findAssetsUsingFile(deltaFilePath)) {
+			delta.add(asset);
+		}
+
+		return delta;
+	}
+
+	/**
+	 * Find the assets that use (or used in the last build) the given file.
+	 * 
+	 * @param path
+	 *            The full path of the file.
+	 * @return The assets.
+	 */
+	public List<AssetModel> findAssetsUsingFile(IPath path) {
+		Map<IPath, List<AssetModel>> index = _usedFilesIndex;
+
+		if (index == null) {
+			int version = _indexVersion;
+
+			index = new HashMap<>();
+
+			for (AssetModel asset : getAssets()) {
+				IFile[][] allfiles = { asset.getLastUsedFiles(), asset.computeUsedFiles() };
+				for (IFile[] files : allfiles) {
+					for (IFile file : files) {
+						if (file != null) {
+							List<AssetModel> list = index.computeIfAbsent(file.getFullPath(),
+									k -> new ArrayList<>(1));
+							if (!list.contains(asset)) {
+								list.add(asset);
+							}
 						}
 					}
 				}
 			}
+
+			synchronized (_indexLock) {
+				if (version == _indexVersion) {
+					_usedFilesIndex = index;
+				}
+			}
 		}
 
-		return delta;
+		List<AssetModel> list = index.get(path);
+
+		return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Discard the index of the used files. The assets only report the files
+	 * that exist, so it should be called when files are added or removed.
+	 */
+	public void invalidateUsedFilesIndex() {
+		synchronized (_indexLock) {
+			_indexVersion++;
+			_usedFilesIndex = null;
+		}
 	}
 
 	public List<IStatus> build() {
@@ -139,7 +184,7 @@ public final class AssetPackModel {
 
 	private static JSONObject readJSON(IFile file) throws Exception {
 		try (InputStream contents = file.getContents()) {
-			JSONObject obj = new JSONObject(new JSONTokener(contents));
+			JSONObject obj = JSONObject.read(contents);
 			return obj;
 		}
 	}
@@ -397,6 +442,7 @@ public final class AssetPackModel {
 	public void addSection(int index, AssetSectionModel section, boolean notify) {
 		section.setPack(this);
 		_sections.add(index, section);
+		invalidateIndex();
 		if (notify) {
 			setDirty(true);
 		}
@@ -404,6 +450,7 @@ public final class AssetPackModel {
 
 	public void removeSection(AssetSectionModel section, boolean notify) {
 		_sections.remove(section);
+		invalidateIndex();
 		if (notify) {
 			setDirty(true);
 		}
@@ -413,27 +460,46 @@ public final class AssetPackModel {
 		return Collections.unmodifiableList(_sections);
 	}
 
-	public List<AssetModel> getAssets() {
-		List<AssetModel> list = new ArrayList<>();
-		for (AssetSectionModel section : _sections) {
-			for (AssetModel asset : section.getAssets()) {
-				list.add(asset);
+	/**
+	 * Discard the indexes of the pack. It is called when a section or asset is
+	 * added, removed or modified.
+	 */
+	void invalidateIndex() {
+		synchronized (_indexLock) {
+			_indexVersion++;
+			_index = null;
+			_usedFilesIndex = null;
+		}
+	}
+
+	private AssetPackIndex getIndex() {
+		AssetPackIndex index = _index;
+
+		if (index == null) {
+			int version = _indexVersion;
+
+			index = new AssetPackIndex(_sections);
+
+			synchronized (_indexLock) {
+				// do not publish it if the pack was modified in the meantime
+				if (version == _indexVersion) {
+					_index = index;
+				}
 			}
 		}
-		return list;
+
+		return index;
+	}
+
+	public List<AssetModel> getAssets() {
+		return new ArrayList<>(getIndex().getAssets());
 	}
 
 	public AssetSectionModel findSection(String key) {
 		if (key == null) {
 			return null;
 		}
-		for (AssetSectionModel section : _sections) {
-			String key2 = section.getKey();
-			if (key2 != null && key2.equals(key)) {
-				return section;
-			}
-		}
-		return null;
+		return getIndex().findSection(key);
 	}
 
 	public AssetModel findAsset(String sectionKey, String assetKey) {
@@ -446,6 +512,18 @@ public final class AssetPackModel {
 		return section.findAsset(assetKey);
 	}
 
+	/**
+	 * Find the assets and asset elements (like atlas frames) with the given
+	 * key.
+	 * 
+	 * @param key
+	 *            The key of the asset or the name of the element.
+	 * @return The matching objects, in the pack order.
+	 */
+	public List<Object> findAssetObjects(String key) {
+		return getIndex().findAssetObjects(key);
+	}
+
 	public String createKey(String prefix) {
 		for (int i = 0; i < 200; i++) {
 			String key = prefix + (i == 0 ? "" : new Integer(i));
@@ -468,17 +546,7 @@ public final class AssetPackModel {
 	}
 
 	public boolean hasKey(String key) {
-		for (AssetSectionModel section : _sections) {
-			if (section.getKey().equals(key)) {
-				return true;
-			}
-			for (AssetModel asset : section.getAssets()) {
-				if (asset.getKey().equals(key)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return getIndex().hasKey(key);
 	}
 
 	public void saveState(IMemento memento, Object element) {
@@ -560,11 +628,9 @@ public final class AssetPackModel {
 			}
 
 			if (obj.has("sprite")) {
-				String spriteName = obj.getString("sprite");
-				for (IAssetElementModel elem : asset.getSubElements()) {
-					if (elem.getName().equals(spriteName)) {
-						return elem;
-					}
+				IAssetElementModel elem = asset.findSubElement(obj.getString("sprite"));
+				if (elem != null) {
+					return elem;
 				}
 			}
 
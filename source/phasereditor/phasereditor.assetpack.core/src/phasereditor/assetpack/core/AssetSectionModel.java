@@ -39,6 +39,9 @@ public class AssetSectionModel implements IAdaptable {
 	private List<AssetModel> _assets;
 	private AssetPackModel _pack;
 	private Map<AssetType, AssetGroupModel> _groupMap;
+	private volatile Map<String, AssetModel> _assetMap;
+	private volatile int _assetMapVersion;
+	private final Object _indexLock = new Object();
 
 	public AssetSectionModel(String key, AssetPackModel pack) {
 		_key = key;
@@ -68,9 +71,23 @@ public class AssetSectionModel implements IAdaptable {
 		_pack = pack;
 	}
 
+	/**
+	 * Discard the asset index of this section and the indexes of the pack.
+	 */
+	void invalidateIndex() {
+		synchronized (_indexLock) {
+			_assetMapVersion++;
+			_assetMap = null;
+		}
+		if (_pack != null) {
+			_pack.invalidateIndex();
+		}
+	}
+
 	public void addAsset(int index, AssetModel asset, boolean notify) {
 		asset.setSection(this, notify);
 		_assets.add(index, asset);
+		invalidateIndex();
 		if (notify) {
 			getPack().setDirty(true);
 		}
@@ -90,6 +107,7 @@ public class AssetSectionModel implements IAdaptable {
 
 	public void setKey(String key, boolean notify) {
 		_key = key;
+		invalidateIndex();
 		if (notify) {
 			firePropertyChange("key");
 			getPack().firePropertyChange(AssetPackModel.PROP_ASSET_KEY);
@@ -105,13 +123,31 @@ public class AssetSectionModel implements IAdaptable {
 	}
 
 	public AssetModel findAsset(String key) {
-		for (AssetModel asset : _assets) {
-			String key2 = asset.getKey();
-			if (key2 != null && key2.equals(key)) {
-				return asset;
+		if (key == null) {
+			return null;
+		}
+
+		Map<String, AssetModel> map = _assetMap;
+
+		if (map == null) {
+			int version = _assetMapVersion;
+			map = new HashMap<>();
+			for (AssetModel asset : _assets) {
+				String key2 = asset.getKey();
+				if (key2 != null) {
+					// the first asset wins, like in the linear search
+					map.putIfAbsent(key2, asset);
+				}
+			}
+			synchronized (_indexLock) {
+				// do not publish it if the section was modified in the meantime
+				if (version == _assetMapVersion) {
+					_assetMap = map;
+				}
 			}
 		}
-		return null;
+
+		return map.get(key);
 	}
 
 	public AssetGroupModel getGroup(AssetType type) {
@@ -127,6 +163,7 @@ public class AssetSectionModel implements IAdaptable {
 
 	public void removeAsset(AssetModel asset, boolean notify) {
 		_assets.remove(asset);
+		invalidateIndex();
 		if (notify) {
 			getPack().setDirty(true);
 		}
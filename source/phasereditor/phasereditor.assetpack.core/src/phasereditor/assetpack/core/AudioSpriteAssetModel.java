@@ -37,7 +37,6 @@ import org.eclipse.core.runtime.IStatus;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 public class AudioSpriteAssetModel extends AudioAssetModel {
 
@@ -225,7 +224,7 @@ public class AudioSpriteAssetModel extends AudioAssetModel {
 		} else {
 			// load the json from the file
 			try (InputStream input = file.getContents()) {
-				obj = new JSONObject(new JSONTokener(input));
+				obj = JSONObject.read(input);
 			} catch (IOException | CoreException e) {
 				e.printStackTrace();
 				throw new RuntimeException(e);
@@ -58,12 +58,6 @@ public interface IAssetElementModel extends IAssetKey, IAdaptable {
 			return null;
 		}
 
-		for (IAssetElementModel elem : asset.getSubElements()) {
-			if (elem.getKey().equals(getKey())) {
-				return elem;
-			}
-		}
-
-		return null;
+		return asset.findSubElement(getKey());
 	}
 }
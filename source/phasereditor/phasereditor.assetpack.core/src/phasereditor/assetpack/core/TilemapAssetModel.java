@@ -41,6 +41,7 @@ public class TilemapAssetModel extends AssetModel {
 	private String _data;
 	private String _format;
 	private Tilemap _tilemap;
+	private List<IAssetElementModel> _subElements;
 
 	public TilemapAssetModel(String key, AssetSectionModel section) throws JSONException {
 		super(key, AssetType.tilemap, section);
@@ -200,6 +201,14 @@ public class TilemapAssetModel extends AssetModel {
 				e.printStackTrace();
 			}
 		}
+
+		// the same list is returned until the tilemap is built again, so the
+		// sub-elements index is reused
+		List<IAssetElementModel> subElements = new ArrayList<>();
+		subElements.addAll(tilemap.getLayers());
+		subElements.addAll(tilemap.getTilesets());
+
+		_subElements = subElements;
 		_tilemap = tilemap;
 	}
 
@@ -212,11 +221,8 @@ public class TilemapAssetModel extends AssetModel {
 
 	@Override
 	public List<? extends IAssetElementModel> getSubElements() {
-		List<IAssetElementModel> list = new ArrayList<>();
-		Tilemap tilemap = getTilemap();
-		list.addAll(tilemap.getLayers());
-		list.addAll(tilemap.getTilesets());
-		return list;
+		getTilemap();
+		return _subElements;
 	}
 
 	@Override
@@ -53,6 +53,7 @@ import org.eclipse.swt.widgets.Text;
 import org.eclipse.wb.swt.SWTResourceManager;
 import org.json.JSONException;
 
+import phasereditor.assetpack.core.AssetPackCore;
 import phasereditor.assetpack.core.AssetPackModel;
 import phasereditor.assetpack.core.AtlasAssetModel;
 import phasereditor.assetpack.ui.AssetPackUI;
@@ -238,14 +239,9 @@ public class AtlasAssetEditorComp extends Composite {
 					AtlasAssetModel asset = getModel();
 					asset.setAtlasURL(url);
 					IFile file = asset.getFileFromUrl(url);
-					String format;
-					try {
-						format = AtlasCore.getAtlasFormat(file);
-						if (format != null) {
-							asset.setFormat(format);
-						}
-					} catch (CoreException e) {
-						e.printStackTrace();
+					String format = AssetPackCore.getAtlasFormat(file);
+					if (format != null) {
+						asset.setFormat(format);
 					}
 				}
 			});
@@ -21,6 +21,9 @@
 // USE OR OTHER DEALINGS IN THE SOFTWARE.
 package phasereditor.assetpack.ui.preview;
 
+import static phasereditor.ui.PhaserEditorUI.swtRun;
+
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.eclipse.core.resources.IFile;
@@ -32,10 +35,13 @@ import org.eclipse.swt.widgets.Shell;
 import phasereditor.assetpack.core.VideoAssetModel;
 import phasereditor.assetpack.ui.widgets.ImagePreviewComposite;
 import phasereditor.audio.core.AudioCore;
+import phasereditor.audio.core.MediaMetadataPipeline;
 import phasereditor.ui.info.BaseInformationControl;
 
 public class VideoAssetScreenshotInformationControl extends BaseInformationControl {
 
+	private IFile _file;
+
 	public VideoAssetScreenshotInformationControl(Shell parentShell) {
 		super(parentShell);
 	}
@@ -60,12 +66,33 @@ public class VideoAssetScreenshotInformationControl extends BaseInformationContr
 			label = file.getName();
 		}
 
-		Path snapshot = AudioCore.getVideoSnapshotFile(file);
+		_file = file;
+
+		Path snapshot = AudioCore.getVideoSnapshotFile(file, false);
 		if (snapshot == null) {
 			return;
 		}
 
 		ImagePreviewComposite comp = (ImagePreviewComposite) control;
-		comp.loadImage(snapshot, label);
+
+		if (Files.exists(snapshot)) {
+			comp.loadImage(snapshot, label);
+			return;
+		}
+
+		comp.loadImage(null, label);
+
+		// the snapshot is made in background, show it when ready
+		IFile file2 = file;
+		String label2 = label;
+		MediaMetadataPipeline.submit(file2, () -> swtRun(() -> {
+			if (comp.isDisposed() || _file != file2) {
+				return;
+			}
+
+			if (Files.exists(snapshot)) {
+				comp.loadImage(snapshot, label2);
+			}
+		}));
 	}
 }
@@ -38,7 +38,6 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.ui.dialogs.WizardNewFileCreationPage;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.inspect.core.InspectCore;
 import phasereditor.project.core.ProjectCore;
@@ -148,7 +147,7 @@ public class AssetPackWizardPage extends WizardNewFileCreationPage {
 	protected InputStream getInitialContents() {
 		Path file = InspectCore.getBundleFile(InspectCore.RESOURCES_TEMPLATES_PLUGIN, "templates_newfile/empty-asset-pack.json");
 		try (InputStream input = Files.newInputStream(file);) {
-			JSONObject obj = new JSONObject(new JSONTokener(input));
+			JSONObject obj = JSONObject.read(input);
 			obj.getJSONObject("meta").put("generated", Long.toString(currentTimeMillis()));
 			return new ByteArrayInputStream(obj.toString().getBytes());
 		} catch (IOException e) {
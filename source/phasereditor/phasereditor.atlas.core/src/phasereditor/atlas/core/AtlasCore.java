@@ -31,15 +31,15 @@ import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
-import org.json.JSONTokener;
+import org.json.JSONReader;
+import org.json.JSONReader.Token;
 
 public class AtlasCore {
 	public static final String TEXTURE_ATLAS_JSON_ARRAY = "TEXTURE_ATLAS_JSON_ARRAY";
 	public static final String TEXTURE_ATLAS_JSON_HASH = "TEXTURE_ATLAS_JSON_HASH";
 	public static final String TEXTURE_ATLAS_XML_STARLING = "TEXTURE_ATLAS_XML_STARLING";
+	private static final int XML_SNIFF_LENGTH = 64 * 1024;
 
 	private static final Set<String> IMG_EXTS = new HashSet<>(Arrays.asList("png", "jpg", "gif", "bmp"));
 
@@ -61,13 +61,15 @@ public class AtlasCore {
 	public static String getAtlasJSONFormat(InputStream contents) {
 		try {
 			// try json format
-			JSONTokener tokener = new JSONTokener(new InputStreamReader(contents));
-			JSONObject obj = new JSONObject(tokener);
-			Object frames = obj.get("frames");
-			if (frames instanceof JSONArray) {
-				return TEXTURE_ATLAS_JSON_ARRAY;
+			// just look for the frames, do not read the rest of the content
+			JSONReader reader = new JSONReader(contents);
+			reader.beginObject();
+			if (reader.findName("frames")) {
+				if (reader.peek() == Token.BEGIN_ARRAY) {
+					return TEXTURE_ATLAS_JSON_ARRAY;
+				}
+				return TEXTURE_ATLAS_JSON_HASH;
 			}
-			return TEXTURE_ATLAS_JSON_HASH;
 		} catch (JSONException e) {
 			// no json
 		}
@@ -87,7 +89,11 @@ public class AtlasCore {
 		try {
 			BufferedReader reader = new BufferedReader(new InputStreamReader(contents));
 			String line;
-			while ((line = reader.readLine()) != null) {
+			int read = 0;
+			// the root element should be at the start of the file, there is
+			// no need to read big XML files until the end.
+			while ((line = reader.readLine()) != null && read < XML_SNIFF_LENGTH) {
+				read += line.length();
 				StringBuilder sb = new StringBuilder();
 				for (char c : line.toCharArray()) {
 					if (Character.isLetter(c)) {
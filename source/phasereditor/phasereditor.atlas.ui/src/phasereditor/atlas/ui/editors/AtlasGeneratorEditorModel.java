@@ -39,7 +39,6 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.atlas.core.AtlasFrame;
 import phasereditor.atlas.core.SettingsBean;
@@ -79,7 +78,7 @@ public class AtlasGeneratorEditorModel {
 		_imageFiles.clear();
 		_settings = new SettingsBean();
 		try (InputStream contents = file.getContents()) {
-			JSONObject obj = new JSONObject(new JSONTokener(contents));
+			JSONObject obj = JSONObject.read(contents);
 
 			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
 
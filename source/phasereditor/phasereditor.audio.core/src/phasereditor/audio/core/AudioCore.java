@@ -30,7 +30,11 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -39,7 +43,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -337,6 +344,75 @@ public class AudioCore {
 		}
 	}
 
+	/**
+	 * The sample rate of the PCM data returned by
+	 * {@link #decodeAudioFile(Path, Path, Consumer)}.
+	 */
+	public static final int PCM_SAMPLE_RATE = 44100;
+	public static final int PCM_CHANNELS = 2;
+	/**
+	 * The size of a frame (a sample of each channel) of the PCM data, 16 bits
+	 * per sample.
+	 */
+	public static final int PCM_FRAME_SIZE = PCM_CHANNELS * 2;
+
+	/**
+	 * Decode the audio file to raw PCM data (signed 16 bits little endian,
+	 * {@link #PCM_CHANNELS} channels at {@link #PCM_SAMPLE_RATE}), so the
+	 * duration of the sound is the size of the data divided by
+	 * <code>PCM_SAMPLE_RATE * PCM_FRAME_SIZE</code>.
+	 */
+	public static void decodeAudioFile(Path inFile, Path outFile, Consumer<String> logger) throws Exception {
+		ProcessBuilder pb = createFFMpegProcessBuilder("-v", "warning", "-hide_banner", "-y", "-i",
+				inFile.toAbsolutePath().toString(), "-f", "s16le", "-acodec", "pcm_s16le", "-ac",
+				Integer.toString(PCM_CHANNELS), "-ar", Integer.toString(PCM_SAMPLE_RATE),
+				outFile.toAbsolutePath().toString());
+
+		Process proc = pb.start();
+
+		FileUtils.readStream(proc.getInputStream(), logger);
+		FileUtils.readStream(proc.getErrorStream(), logger);
+
+		int exitValue = proc.waitFor();
+
+		if (exitValue != 0) {
+			throw new IOException("FFMpeg termination exitValue " + exitValue);
+		}
+	}
+
+	/**
+	 * Write the header of a WAV file with the PCM format returned by
+	 * {@link #decodeAudioFile(Path, Path, Consumer)}.
+	 * 
+	 * @param output
+	 *            The stream where to write the header.
+	 * @param dataLength
+	 *            The size of the PCM data that follows the header.
+	 */
+	public static void writeWavHeader(OutputStream output, long dataLength) throws IOException {
+		if (dataLength > 0xffffffffL - 36) {
+			throw new IOException("The audio data is too large for a WAV file.");
+		}
+
+		ByteBuffer buf = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+		buf.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+		buf.putInt((int) (36 + dataLength));
+		buf.put("WAVE".getBytes(StandardCharsets.US_ASCII));
+		buf.put("fmt ".getBytes(StandardCharsets.US_ASCII));
+		buf.putInt(16);
+		// PCM
+		buf.putShort((short) 1);
+		buf.putShort((short) PCM_CHANNELS);
+		buf.putInt(PCM_SAMPLE_RATE);
+		buf.putInt(PCM_SAMPLE_RATE * PCM_FRAME_SIZE);
+		buf.putShort((short) PCM_FRAME_SIZE);
+		buf.putShort((short) 16);
+		buf.put("data".getBytes(StandardCharsets.US_ASCII));
+		buf.putInt((int) dataLength);
+
+		output.write(buf.array());
+	}
+
 	public static double computeAudioDuration(IFile file) {
 		return getSoundDuration(eclipseFileToJavaPath(file));
 	}
@@ -404,27 +480,41 @@ public class AudioCore {
 		}
 	}
 
-	public synchronized static Path getSoundWavesFile(IFile file) {
+	public static Path getSoundWavesFile(IFile file) {
 		return getSoundWavesFile(file, true);
 	}
 
-	public synchronized static Path getSoundWavesFile(IFile file, boolean forceMake) {
+	/**
+	 * Get the waves image of the sound.
+	 * 
+	 * @param forceMake
+	 *            If the image should be made if it does not exist. It waits
+	 *            for the {@link MediaMetadataPipeline}, so do not call it from
+	 *            the UI thread, there use
+	 *            {@link MediaMetadataPipeline#submit(IFile, Runnable)}.
+	 */
+	public static Path getSoundWavesFile(IFile file, boolean forceMake) {
 		try {
-			String filename = file.getPersistentProperty(WAVEFORM_FILENAME_KEY);
-			String home = System.getProperty("user.home");
-			Path dir = Paths.get(home).resolve(".phasereditor/waves");
 			Path path;
-			if (filename == null) {
-				filename = UUID.randomUUID().toString() + ".png";
-				path = dir.resolve(filename);
-				file.setPersistentProperty(WAVEFORM_FILENAME_KEY, filename);
-			} else {
-				path = dir.resolve(filename);
+
+			// the lock is only to assign the name of the file, the waves are
+			// made outside of it.
+			synchronized (WAVEFORM_FILENAME_KEY) {
+				String filename = file.getPersistentProperty(WAVEFORM_FILENAME_KEY);
+				String home = System.getProperty("user.home");
+				Path dir = Paths.get(home).resolve(".phasereditor/waves");
+				if (filename == null) {
+					filename = UUID.randomUUID().toString() + ".png";
+					path = dir.resolve(filename);
+					file.setPersistentProperty(WAVEFORM_FILENAME_KEY, filename);
+				} else {
+					path = dir.resolve(filename);
+				}
 			}
 
 			if (forceMake) {
 				if (!Files.exists(path)) {
-					makeSoundWaves(file, path);
+					MediaMetadataPipeline.buildAndWait(file);
 				}
 			}
 
@@ -434,7 +524,49 @@ public class AudioCore {
 		}
 	}
 
-	private static void makeSoundWaves(IFile file, Path path) throws IOException {
+	/**
+	 * Make the waves image and compute the duration of the sound, in one
+	 * ffmpeg process. It is called by the {@link MediaMetadataPipeline}.
+	 */
+	static void makeSoundMetadata(IFile file) {
+		try {
+			long stamp = file.getModificationStamp();
+
+			Path path = getSoundWavesFile(file, false);
+			boolean hasDuration = file.getPersistentProperty(DURATION_KEY) != null;
+
+			if (Files.exists(path)) {
+				if (!hasDuration) {
+					computeSoundDuration(file);
+				}
+				return;
+			}
+
+			Double duration = makeSoundWaves(file, path);
+
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+
+			if (!hasDuration) {
+				if (duration == null) {
+					computeSoundDuration(file);
+				} else if (stamp == file.getModificationStamp()) {
+					file.setPersistentProperty(DURATION_KEY, duration.toString());
+				}
+			}
+		} catch (Exception e) {
+			logError(e);
+		}
+	}
+
+	/**
+	 * Make the waves image of the sound.
+	 * 
+	 * @return The duration of the sound, as it is reported in the ffmpeg log,
+	 *         or <code>null</code> if it is not reported.
+	 */
+	private static Double makeSoundWaves(IFile file, Path path) throws IOException {
 		out.println("Make waves " + file);
 		Files.createDirectories(path.getParent());
 
@@ -442,10 +574,90 @@ public class AudioCore {
 
 		ProcessBuilder pb = createFFMpegProcessBuilder("-i", soundPath, "-lavfi",
 				"showwavespic=split_channels=1:s=800x600", path.toString());
-		pb.start();
+		Process proc = pb.start();
+
+		Double[] duration = { null };
+
+		// read the log in other thread, so this one can be interrupted while
+		// ffmpeg is running
+
+		Thread logReader = new Thread(() -> {
+			try {
+				FileUtils.readStream(proc.getErrorStream(), line -> {
+					if (duration[0] == null) {
+						duration[0] = parseDuration(line);
+					}
+				});
+			} catch (RuntimeException e) {
+				// the process was destroyed
+			}
+		}, "Phaser ffmpeg log reader");
+		logReader.setDaemon(true);
+		logReader.start();
+
+		// wait for it, so the deferred build listeners are notified when the
+		// image is ready
+
+		if (!waitForProcess(proc, path)) {
+			return null;
+		}
+
+		try {
+			logReader.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+
+		return duration[0];
+	}
+
+	/**
+	 * Wait for the ffmpeg process. If the thread is interrupted (the build was
+	 * cancelled) the process is killed and its incomplete output is deleted.
+	 * 
+	 * @return If the process finished.
+	 */
+	private static boolean waitForProcess(Process proc, Path output) throws IOException {
+		try {
+			proc.waitFor();
+			return true;
+		} catch (InterruptedException e) {
+			proc.destroyForcibly();
+
+			try {
+				proc.waitFor(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e2) {
+				// nothing
+			}
+
+			Files.deleteIfExists(output);
+
+			Thread.currentThread().interrupt();
+
+			return false;
+		}
+	}
+
+	private static final Pattern DURATION_PATTERN = Pattern.compile("Duration: (\\d+):(\\d+):(\\d+(\\.\\d+)?)");
+
+	/**
+	 * Parse the duration of a line of the ffmpeg log, like
+	 * <code>Duration: 00:00:02.51, start: 0.000000, bitrate: 128 kb/s</code>.
+	 */
+	private static Double parseDuration(String line) {
+		Matcher matcher = DURATION_PATTERN.matcher(line);
+		if (matcher.find()) {
+			double h = Double.parseDouble(matcher.group(1));
+			double m = Double.parseDouble(matcher.group(2));
+			double s = Double.parseDouble(matcher.group(3));
+			return Double.valueOf(h * 3600 + m * 60 + s);
+		}
+		return null;
 	}
 
 	public static void makeSoundWavesAndMetadata(IResourceDelta projectDelta) {
+		List<IFile> files = new ArrayList<>();
 		try {
 			projectDelta.accept(new IResourceDeltaVisitor() {
 
@@ -458,8 +670,7 @@ public class AudioCore {
 							if (delta.getKind() == IResourceDelta.CHANGED) {
 								removeSoundProperties(file);
 							}
-							getSoundWavesFile(file);
-							getSoundDuration(file);
+							files.add(file);
 						}
 					}
 					return true;
@@ -468,17 +679,18 @@ public class AudioCore {
 		} catch (CoreException e) {
 			e.printStackTrace();
 		}
+
+		MediaMetadataPipeline.buildAndWait(files);
 	}
 
-	public synchronized static double getSoundDuration(IFile file) {
+	public static double getSoundDuration(IFile file) {
 		try {
 			String value = file.getPersistentProperty(DURATION_KEY);
 
 			if (value == null) {
-				double duration = computeAudioDuration(file);
-				value = Double.toString(duration);
-				file.setPersistentProperty(DURATION_KEY, value);
-				return duration;
+				// ffprobe only reads the header, so it does not wait for the
+				// pipeline (it is called from the UI)
+				return computeSoundDuration(file);
 			}
 
 			return Double.parseDouble(value);
@@ -489,6 +701,12 @@ public class AudioCore {
 		}
 	}
 
+	private static double computeSoundDuration(IFile file) throws CoreException {
+		double duration = computeAudioDuration(file);
+		file.setPersistentProperty(DURATION_KEY, Double.toString(duration));
+		return duration;
+	}
+
 	protected static void removeVideoProperties(IFile file) {
 		try {
 			file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, null);
@@ -497,39 +715,64 @@ public class AudioCore {
 		}
 	}
 
-	public synchronized static Path getVideoSnapshotFile(IFile file) {
+	public static Path getVideoSnapshotFile(IFile file) {
 		return getVideoSnapshotFile(file, true);
 	}
 
-	public synchronized static Path getVideoSnapshotFile(IFile file, boolean forceMake) {
+	/**
+	 * Get the snapshot of the video.
+	 * 
+	 * @param forceMake
+	 *            If the snapshot should be made if it does not exist. It waits
+	 *            for the {@link MediaMetadataPipeline}, so do not call it from
+	 *            the UI thread.
+	 */
+	public static Path getVideoSnapshotFile(IFile file, boolean forceMake) {
 		if (file == null) {
 			return null;
 		}
 
 		try {
-			String filename = file.getPersistentProperty(SNAPSHOT_FILENAME_KEY);
-			String home = System.getProperty("user.home");
-			Path dir = Paths.get(home).resolve(".phasereditor/snapshots");
 			Path path;
-			if (filename == null) {
-				filename = UUID.randomUUID().toString() + ".jpg";
+
+			synchronized (SNAPSHOT_FILENAME_KEY) {
+				String filename = file.getPersistentProperty(SNAPSHOT_FILENAME_KEY);
+				String home = System.getProperty("user.home");
+				Path dir = Paths.get(home).resolve(".phasereditor/snapshots");
+				if (filename == null) {
+					filename = UUID.randomUUID().toString() + ".jpg";
+					file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, filename);
+				}
+				path = dir.resolve(filename);
 			}
-			path = dir.resolve(filename);
 
 			if (forceMake) {
 				if (!Files.exists(path)) {
-					makeVideoSnapshot(file, path);
+					MediaMetadataPipeline.buildAndWait(file);
 				}
 			}
 
-			file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, filename);
-
 			return path;
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * Make the snapshot of the video. It is called by the
+	 * {@link MediaMetadataPipeline}.
+	 */
+	static void makeVideoMetadata(IFile file) {
+		try {
+			Path path = getVideoSnapshotFile(file, false);
+			if (!Files.exists(path)) {
+				makeVideoSnapshot(file, path);
+			}
+		} catch (Exception e) {
+			logError(e);
+		}
+	}
+
 	private static void makeVideoSnapshot(IFile file, Path path) throws IOException {
 		Files.createDirectories(path.getParent());
 
@@ -538,11 +781,7 @@ public class AudioCore {
 		ProcessBuilder pb = createFFMpegProcessBuilder("-hide_banner", "-loglevel", "0", "-ss", "00:00:01", "-i",
 				videoPath, "-vframes", "1", "-vf", "scale=128:-1", path.toAbsolutePath().toString());
 		Process proc = pb.start();
-		try {
-			proc.waitFor();
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
+		waitForProcess(proc, path);
 	}
 
 	public static void logError(Exception e) {
@@ -1,5 +1,7 @@
 package phasereditor.audio.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
@@ -10,15 +12,30 @@ import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.runtime.CoreException;
 
-import phasereditor.project.core.IProjectBuildParticipant;
+import phasereditor.project.core.DeferredBuildQueue;
+import phasereditor.project.core.IDeferredBuildParticipant;
 
-public class MediaBuildParticipant implements IProjectBuildParticipant {
+/**
+ * Builds the sound waves, durations and video snapshots. The ffmpeg work is
+ * scheduled in the {@link DeferredBuildQueue}, that runs it in the
+ * {@link MediaMetadataPipeline}, the build only resets the properties of the
+ * modified files.
+ */
+public class MediaBuildParticipant implements IDeferredBuildParticipant {
+
+	public static final String DEFERRED_CATEGORY = "phasereditor.audio.core.media";
 
 	public MediaBuildParticipant() {
 	}
 
+	@Override
+	public String getDeferredCategory() {
+		return DEFERRED_CATEGORY;
+	}
+
 	@Override
 	public void build(IProject project, IResourceDelta resDelta, Map<String, Object> env) {
+		List<IFile> files = new ArrayList<>();
 
 		try {
 			resDelta.accept(new IResourceDeltaVisitor() {
@@ -39,8 +56,7 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 									AudioCore.removeSoundProperties(file);
 								}
 
-								AudioCore.getSoundWavesFile(file);
-								AudioCore.getSoundDuration(file);
+								files.add(file);
 
 							} else if (AudioCore.isSupportedVideo(file)) {
 
@@ -48,8 +64,11 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 									AudioCore.removeVideoProperties(file);
 								}
 
-								AudioCore.getVideoSnapshotFile(file);
+								files.add(file);
 							}
+						} else {
+							DeferredBuildQueue.getInstance().cancel(DEFERRED_CATEGORY, file);
+							MediaMetadataPipeline.cancel(file);
 						}
 
 					}
@@ -61,6 +80,20 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 			AudioCore.logError(e);
 		}
 
+		deferBuild(files);
+	}
+
+	/**
+	 * Schedule the metadata of the files in the deferred queue. The work starts
+	 * when the queue runs it (a few at the same time), so if a file is
+	 * deleted or modified before that, the pending work is cancelled or
+	 * replaced.
+	 */
+	private static void deferBuild(List<IFile> files) {
+		for (IFile file : files) {
+			DeferredBuildQueue.getInstance().enqueue(DEFERRED_CATEGORY, file,
+					() -> MediaMetadataPipeline.buildAndWait(file));
+		}
 	}
 
 	@Override
@@ -70,6 +103,7 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 
 	@Override
 	public void clean(IProject project, Map<String, Object> env) {
+
 		try {
 			project.accept(new IResourceVisitor() {
 
@@ -100,6 +134,8 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 
 	@Override
 	public void fullBuild(IProject project, Map<String, Object> env) {
+		List<IFile> files = new ArrayList<>();
+
 		try {
 			project.accept(new IResourceVisitor() {
 
@@ -108,11 +144,8 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 					if (resource instanceof IFile) {
 						IFile file = (IFile) resource;
 						if (resource.exists()) {
-							if (AudioCore.isSupportedVideo(file)) {
-								AudioCore.getVideoSnapshotFile(file);
-							} else if (AudioCore.isSupportedAudio(file)) {
-								AudioCore.getSoundWavesFile(file);
-								AudioCore.getSoundDuration(file);
+							if (AudioCore.isSupportedVideo(file) || AudioCore.isSupportedAudio(file)) {
+								files.add(file);
 							}
 						}
 					}
@@ -122,6 +155,8 @@ public class MediaBuildParticipant implements IProjectBuildParticipant {
 		} catch (CoreException e) {
 			AudioCore.logError(e);
 		}
+
+		deferBuild(files);
 	}
 
 }
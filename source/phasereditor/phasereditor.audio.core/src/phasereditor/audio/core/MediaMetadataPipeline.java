@@ -0,0 +1,224 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.audio.core;
+
+import static java.lang.System.out;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Computes the metadata of the media files (the waveform image and duration of
+ * sounds and the snapshot of videos) in a bounded pool of threads, so many
+ * ffmpeg processes run in parallel.
+ * 
+ * The requests for the same file are merged: if a file is being processed,
+ * the new requests get the same result.
+ * 
+ * @author arian
+ *
+ */
+public class MediaMetadataPipeline {
+
+	private static class Task extends FutureTask<Void> {
+		public long stamp;
+		private List<Runnable> _callbacks = new ArrayList<>();
+
+		public Task(IFile file) {
+			super(() -> {
+				build(file);
+				return null;
+			});
+			this.stamp = file.getModificationStamp();
+		}
+
+		public void whenDone(Runnable callback) {
+			synchronized (this) {
+				if (!isDone()) {
+					_callbacks.add(callback);
+					return;
+				}
+			}
+			callback.run();
+		}
+
+		@Override
+		protected void done() {
+			List<Runnable> callbacks;
+			synchronized (this) {
+				callbacks = new ArrayList<>(_callbacks);
+				_callbacks.clear();
+			}
+
+			for (Runnable callback : callbacks) {
+				try {
+					callback.run();
+				} catch (Exception e) {
+					AudioCore.logError(e);
+				}
+			}
+		}
+	}
+
+	private static ExecutorService _pool;
+	private static Map<IPath, Task> _tasks = new ConcurrentHashMap<>();
+
+	private static synchronized ExecutorService getPool() {
+		if (_pool == null) {
+			int size = Math.max(2, Runtime.getRuntime().availableProcessors());
+			AtomicInteger count = new AtomicInteger();
+			_pool = Executors.newFixedThreadPool(size, r -> {
+				Thread thread = new Thread(r, "Phaser Media Metadata #" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return _pool;
+	}
+
+	/**
+	 * Request the metadata of the file. If the file is being processed (and it
+	 * was not modified since then) it returns the current task.
+	 * 
+	 * @param file
+	 *            A sound or video file.
+	 * @return The future to wait for the metadata.
+	 */
+	public static Future<?> submit(IFile file) {
+		IPath path = file.getFullPath();
+
+		while (true) {
+			Task current = _tasks.get(path);
+
+			if (current != null && current.stamp == file.getModificationStamp()) {
+				return current;
+			}
+
+			Task task = new Task(file);
+
+			boolean added = current == null ? _tasks.putIfAbsent(path, task) == null
+					: _tasks.replace(path, current, task);
+
+			if (added) {
+				getPool().execute(() -> {
+					try {
+						task.run();
+					} finally {
+						_tasks.remove(path, task);
+					}
+				});
+				return task;
+			}
+		}
+	}
+
+	/**
+	 * Request the metadata of the file, the callback is called (in the
+	 * pipeline thread) when it is done. It is used by the UI to show the
+	 * metadata without wait for it.
+	 */
+	public static void submit(IFile file, Runnable onDone) {
+		((Task) submit(file)).whenDone(onDone);
+	}
+
+	/**
+	 * Request the metadata of the files. It returns immediately, the files are
+	 * processed in parallel.
+	 */
+	public static List<Future<?>> submit(Collection<IFile> files) {
+		List<Future<?>> list = new ArrayList<>();
+		for (IFile file : files) {
+			list.add(submit(file));
+		}
+		return list;
+	}
+
+	/**
+	 * Request the metadata of the file and wait for it. If the waiting thread
+	 * is interrupted (like when the deferred build is cancelled), the ffmpeg
+	 * process is stopped.
+	 */
+	public static void buildAndWait(IFile file) {
+		waitFor(submit(file));
+	}
+
+	/**
+	 * Request the metadata of the files and wait for all of them.
+	 */
+	public static void buildAndWait(Collection<IFile> files) {
+		for (Future<?> future : submit(files)) {
+			waitFor(future);
+		}
+	}
+
+	private static void waitFor(Future<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+		} catch (CancellationException e) {
+			// nothing
+		} catch (ExecutionException e) {
+			AudioCore.logError(e);
+		}
+	}
+
+	/**
+	 * Stop the work of the file, if it is running.
+	 */
+	public static void cancel(IFile file) {
+		Task task = _tasks.remove(file.getFullPath());
+		if (task != null) {
+			task.cancel(true);
+		}
+	}
+
+	static void build(IFile file) {
+		if (!file.exists()) {
+			return;
+		}
+
+		long t = System.currentTimeMillis();
+
+		if (AudioCore.isSupportedAudio(file)) {
+			AudioCore.makeSoundMetadata(file);
+		} else if (AudioCore.isSupportedVideo(file)) {
+			AudioCore.makeVideoMetadata(file);
+		}
+
+		out.println("MediaMetadataPipeline: " + file + " done in " + (System.currentTimeMillis() - t) + "ms");
+	}
+}
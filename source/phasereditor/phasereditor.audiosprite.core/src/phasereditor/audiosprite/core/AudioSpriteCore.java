@@ -26,16 +26,24 @@ import static phasereditor.ui.PhaserEditorUI.eclipseFileToJavaPath;
 import static phasereditor.ui.PhaserEditorUI.getNameFromFilename;
 import static phasereditor.ui.PhaserEditorUI.pickFileWithoutExtension;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.eclipse.core.resources.IContainer;
@@ -49,9 +57,10 @@ import org.eclipse.core.runtime.content.IContentDescription;
 import org.eclipse.core.runtime.content.IContentType;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
+import org.json.JSONReader;
 
 import phasereditor.audio.core.AudioCore;
+import phasereditor.audio.core.MediaMetadataPipeline;
 import phasereditor.ui.PhaserEditorUI;
 
 public class AudioSpriteCore {
@@ -70,8 +79,7 @@ public class AudioSpriteCore {
 	 */
 	public static String isAudioSpriteJSONContent(InputStream contents, boolean deepTest) {
 		try {
-			JSONTokener tokener = new JSONTokener(new InputStreamReader(contents));
-			JSONObject obj = new JSONObject(tokener);
+			JSONObject obj = JSONReader.readValues(contents, "spritemap");
 			JSONObject spritemap = obj.getJSONObject("spritemap");
 			if (deepTest) {
 				Iterator<String> keys = spritemap.keys();
@@ -152,111 +160,107 @@ public class AudioSpriteCore {
 				}
 			}
 
-			java.nio.file.Path silence = AudioCore.getSilenceAudioFile();
-
 			// get the right audio file name
 
 			String audioSpritesFileName = audioSpritesName + ".json";
 
 			// prepare monitor task
 			{
+				// +1 write the wav file
 				// +2 convert to mp3 and ogg
 				// +6 update cache for resulting files
-				int totalWork = concatFiles.size() + 2 + 6;
+				int totalWork = concatFiles.size() + 1 + 2 + 6;
 				monitor.beginTask("Creating audio sprites '" + audioSpritesFileName + "'", totalWork);
 			}
 
 			IFile dstAudioFile = dstDir.getFile(new Path(audioSpritesName + ".wav"));
 
 			{
-				int i = 0;
-				java.nio.file.Path join = null;
-				boolean isUpdate = !model.getSprites().isEmpty();
-				for (IFile file : concatFiles) {
-
-					if (monitor.isCanceled()) {
-						if (join != null) {
-							cancelFiles.add(join);
-						}
-						throw new CancellationException();
-					}
-
-					java.nio.file.Path current = eclipseFileToJavaPath(file);
-
-					monitor.subTask("Processing " + file.getName() + "...");
-
-					String spritename = PhaserEditorUI.getNameFromFilename(file.getName());
-					AudioSprite sprite = new AudioSprite();
-					sprite.setName(spritename);
+				// decode all the files in parallel, the size of the PCM data
+				// gives the exact duration of each sound
 
-					if (!isUpdate || i > 0) {
-						model.addSprite(sprite);
-					}
+				monitor.subTask("Decoding " + concatFiles.size() + " files...");
 
-					if (join == null) {
-						// the first file
-
-						join = current;
+				List<java.nio.file.Path> pcmFiles = new ArrayList<>();
+				for (int i = 0; i < concatFiles.size(); i++) {
+					java.nio.file.Path pcm = Files.createTempFile("sprite-" + i + "-", ".pcm");
+					temporalFiles.add(pcm);
+					pcmFiles.add(pcm);
+				}
 
-						double start = 0;
-						double end = AudioCore.getSoundDuration(join);
+				List<Callable<Object>> decodeTasks = new ArrayList<>();
+				for (int i = 0; i < concatFiles.size(); i++) {
+					java.nio.file.Path current = eclipseFileToJavaPath(concatFiles.get(i));
+					java.nio.file.Path pcm = pcmFiles.get(i);
+					decodeTasks.add(() -> {
+						AudioCore.decodeAudioFile(current, pcm, logger);
+						return null;
+					});
+				}
 
-						logger.accept(file.getFullPath().toPortableString() + " [" + start + ", " + end + "]");
+				runInParallel(decodeTasks, monitor);
 
-						sprite.setStart(start);
-						sprite.setEnd(end);
+				// compute the sprites, with a silence between them
 
-					} else {
-						// concatenate the silence file
+				long silenceLength = Math.round(AudioCore.getSilenceAudioFileDuration() * AudioCore.PCM_SAMPLE_RATE)
+						* AudioCore.PCM_FRAME_SIZE;
+				double bytesPerSecond = AudioCore.PCM_SAMPLE_RATE * AudioCore.PCM_FRAME_SIZE;
 
-						List<java.nio.file.Path> concat = Arrays.asList(join, silence);
+				long dataLength = 0;
+				boolean isUpdate = !model.getSprites().isEmpty();
 
-						java.nio.file.Path newJoin = Files.createTempFile("join-" + i + "-with-silence", ".wav");
-						temporalFiles.add(newJoin);
+				for (int i = 0; i < concatFiles.size(); i++) {
+					IFile file = concatFiles.get(i);
 
-						AudioCore.concatAudioFiles(concat, newJoin, logger);
+					if (i > 0) {
+						dataLength += silenceLength;
+					}
 
-						// concatenate the sound file
+					long size = Files.size(pcmFiles.get(i));
 
-						join = newJoin;
+					double start = dataLength / bytesPerSecond;
+					dataLength += size;
+					double end = dataLength / bytesPerSecond;
 
-						concat = Arrays.asList(join, current);
+					logger.accept(file.getFullPath().toPortableString() + " [" + start + ", " + end + "]");
 
-						newJoin = Files.createTempFile("join-" + i + "-", ".wav");
-						temporalFiles.add(newJoin);
+					if (!isUpdate || i > 0) {
+						AudioSprite sprite = new AudioSprite();
+						sprite.setName(PhaserEditorUI.getNameFromFilename(file.getName()));
+						sprite.setStart(start);
+						sprite.setEnd(end);
+						model.addSprite(sprite);
+					}
+				}
 
-						AudioCore.concatAudioFiles(concat, newJoin, logger);
+				// write the resulting audio-sprite sound file to the workspace
 
-						// add the sprite data
+				if (!concatFiles.isEmpty()) {
 
-						double start = AudioCore.getSoundDuration(join);
-						double end = AudioCore.getSoundDuration(newJoin);
+					if (monitor.isCanceled()) {
+						throw new CancellationException();
+					}
 
-						logger.accept(file.getFullPath().toPortableString() + " [" + start + ", " + end + "]");
+					java.nio.file.Path dstPath = eclipseFileToJavaPath(dstAudioFile);
 
-						join = newJoin;
+					monitor.subTask("Writing " + dstPath.getFileName() + "...");
 
-						sprite.setStart(start);
-						sprite.setEnd(end);
-					}
-					i++;
-					monitor.worked(1);
-				}
+					cancelFiles.add(dstPath);
 
-				// move resulting audio-sprite sound file to the workspace
+					byte[] silenceData = new byte[(int) silenceLength];
 
-				if (join != null) {
-					java.nio.file.Path dstPath = eclipseFileToJavaPath(dstAudioFile);
+					try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(dstPath))) {
+						AudioCore.writeWavHeader(output, dataLength);
 
-					// the join var is pointing to the original file
-					if (join.getFileName().toString().toLowerCase().endsWith(".wav")) {
-						Files.copy(join, dstPath, StandardCopyOption.REPLACE_EXISTING);
-					} else {
-						AudioCore.convertAudioFile(join, dstPath, logger);
+						for (int i = 0; i < pcmFiles.size(); i++) {
+							if (i > 0) {
+								output.write(silenceData);
+							}
+							Files.copy(pcmFiles.get(i), output);
+						}
 					}
 
-					cancelFiles.add(dstPath);
-					cancelFiles.add(join);
+					monitor.worked(1);
 				}
 
 				// save audio sprites model
@@ -295,32 +299,33 @@ public class AudioSpriteCore {
 
 				java.nio.file.Path spriteAudioFile = eclipseFileToJavaPath(dstAudioFile);
 
-				for (String codec : new String[] { "ogg", "mp3" }) {
+				monitor.subTask("Generating ogg and mp3 files...");
 
-					if (monitor.isCanceled()) {
-						throw new CancellationException();
-					}
+				List<Callable<Object>> convertTasks = new ArrayList<>();
 
+				for (String codec : new String[] { "ogg", "mp3" }) {
 					java.nio.file.Path otherFile = spriteAudioFile.resolveSibling(audioSpritesName + "." + codec);
-
-					monitor.subTask("Generating " + otherFile.getFileName() + "...");
-
-					Files.deleteIfExists(otherFile);
-					AudioCore.convertAudioFile(spriteAudioFile, otherFile, logger);
 					cancelFiles.add(otherFile);
-
-					monitor.worked(1);
+					convertTasks.add(() -> {
+						Files.deleteIfExists(otherFile);
+						AudioCore.convertAudioFile(spriteAudioFile, otherFile, logger);
+						return null;
+					});
 				}
 
-				if (monitor.isCanceled()) {
-					throw new CancellationException();
-				}
+				runInParallel(convertTasks, monitor);
 			}
 
 			for (IFile file : model.getResources()) {
-				monitor.subTask("Making waves of " + file.getName() + "...");
 				file.refreshLocal(IResource.DEPTH_ONE, monitor);
 				AudioCore.removeSoundProperties(file);
+			}
+
+			// make the waves of all the resources at the same time
+			MediaMetadataPipeline.submit(model.getResources());
+
+			for (IFile file : model.getResources()) {
+				monitor.subTask("Making waves of " + file.getName() + "...");
 				AudioCore.getSoundWavesFile(file);
 				monitor.worked(1);
 				AudioCore.getSoundDuration(file);
@@ -346,6 +351,46 @@ public class AudioSpriteCore {
 
 	}
 
+	/**
+	 * Run the tasks in a pool of threads, and wait for all of them. Each task
+	 * done is a unit of work in the monitor.
+	 * 
+	 * @throws CancellationException
+	 *             If the monitor is canceled.
+	 */
+	private static void runInParallel(List<Callable<Object>> tasks, IProgressMonitor monitor) throws Exception {
+		int size = Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService pool = Executors.newFixedThreadPool(size);
+		try {
+			CompletionService<Object> service = new ExecutorCompletionService<>(pool);
+			for (Callable<Object> task : tasks) {
+				service.submit(task);
+			}
+
+			int pending = tasks.size();
+			while (pending > 0) {
+				if (monitor.isCanceled()) {
+					throw new CancellationException();
+				}
+
+				Future<Object> future = service.poll(200, TimeUnit.MILLISECONDS);
+
+				if (future != null) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause();
+						throw cause instanceof Exception ? (Exception) cause : e;
+					}
+					pending--;
+					monitor.worked(1);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
 	public static double[][] createTimePartition(List<? extends AudioSprite> sprites) {
 		double[][] partition = new double[sprites.size()][];
 		for (int i = 0; i < sprites.size(); i++) {
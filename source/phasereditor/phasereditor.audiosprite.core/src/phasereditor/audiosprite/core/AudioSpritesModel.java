@@ -32,7 +32,6 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.Path;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 public class AudioSpritesModel {
 
@@ -50,7 +49,7 @@ public class AudioSpritesModel {
 		_modelFile = modelFile;
 
 		try (InputStream contents = modelFile.getContents()) {
-			JSONObject obj = new JSONObject(new JSONTokener(contents));
+			JSONObject obj = JSONObject.read(contents);
 
 			List<AudioSprite> list = new ArrayList<>();
 			JSONObject spritemap = obj.optJSONObject("spritemap");
@@ -60,6 +60,7 @@ import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.util.Duration;
 import phasereditor.audio.core.AudioCore;
+import phasereditor.audio.core.MediaMetadataPipeline;
 
 /*
  * It works, but support few formats (libgdx supports more). Maybe JavaFX will support more formats in the future, so we keep this. 
@@ -318,7 +319,7 @@ public class FxMusicControl extends Composite implements DisposeListener, MouseM
 		AudioCore.addMusicUpdateAction(this::updateProgress);
 
 		if (file != null) {
-			loadWavsImage(3);
+			loadWavsImage();
 			_duration = AudioCore.getSoundDuration(file) * 1000;
 			_canvas.redraw();
 		}
@@ -326,12 +327,12 @@ public class FxMusicControl extends Composite implements DisposeListener, MouseM
 		updateButton();
 	}
 
-	protected void loadWavsImage(int n) {
+	protected void loadWavsImage() {
 		if (_file == null) {
 			return;
 		}
 
-		Path soundPath = AudioCore.getSoundWavesFile(_file);
+		Path soundPath = AudioCore.getSoundWavesFile(_file, false);
 		if (Files.exists(soundPath)) {
 			ImageLoader loader = new ImageLoader();
 			try {
@@ -342,21 +343,19 @@ public class FxMusicControl extends Composite implements DisposeListener, MouseM
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
-		} else if (n >= 0) {
-			// try later
-			new Thread(new Runnable() {
+		} else {
+			// the waves are made in background, load them when ready
+			IFile file = _file;
+			MediaMetadataPipeline.submit(file, () -> swtRun(() -> {
+				if (_canvas.isDisposed() || _file != file) {
+					return;
+				}
 
-				@Override
-				public void run() {
-					try {
-						Thread.sleep(2000);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-					loadWavsImage(n - 1);
-					swtRun(_canvas::redraw);
+				if (Files.exists(AudioCore.getSoundWavesFile(file, false))) {
+					loadWavsImage();
+					_canvas.redraw();
 				}
-			}).start();
+			}));
 		}
 	}
 
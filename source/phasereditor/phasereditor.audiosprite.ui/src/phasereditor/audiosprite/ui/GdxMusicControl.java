@@ -59,6 +59,7 @@ import com.badlogic.gdx.audio.Music;
 import com.badlogic.gdx.audio.Music.OnCompletionListener;
 
 import phasereditor.audio.core.AudioCore;
+import phasereditor.audio.core.MediaMetadataPipeline;
 
 public class GdxMusicControl extends Composite implements DisposeListener, MouseMoveListener, MouseTrackListener {
 	private Music _music;
@@ -332,7 +333,7 @@ public class GdxMusicControl extends Composite implements DisposeListener, Mouse
 		AudioCore.addMusicUpdateAction(this::updateProgress);
 
 		if (file != null) {
-			loadWavsImage(3);
+			loadWavsImage();
 			_duration = AudioCore.getSoundDuration(file);
 			_canvas.redraw();
 		}
@@ -340,12 +341,12 @@ public class GdxMusicControl extends Composite implements DisposeListener, Mouse
 		updateButton();
 	}
 
-	protected void loadWavsImage(int n) {
+	protected void loadWavsImage() {
 		if (_file == null) {
 			return;
 		}
 
-		Path soundPath = AudioCore.getSoundWavesFile(_file);
+		Path soundPath = AudioCore.getSoundWavesFile(_file, false);
 		if (Files.exists(soundPath)) {
 			ImageLoader loader = new ImageLoader();
 			try {
@@ -356,21 +357,19 @@ public class GdxMusicControl extends Composite implements DisposeListener, Mouse
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
-		} else if (n >= 0) {
-			// try later
-			new Thread(new Runnable() {
-
-				@Override
-				public void run() {
-					try {
-						Thread.sleep(2000);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-					loadWavsImage(n - 1);
-					swtRun(_canvas::redraw);
+		} else {
+			// the waves are made in background, load them when ready
+			IFile file = _file;
+			MediaMetadataPipeline.submit(file, () -> swtRun(() -> {
+				if (_canvas.isDisposed() || _file != file) {
+					return;
+				}
+
+				if (Files.exists(AudioCore.getSoundWavesFile(file, false))) {
+					loadWavsImage();
+					_canvas.redraw();
 				}
-			}).start();
+			}));
 		}
 	}
 
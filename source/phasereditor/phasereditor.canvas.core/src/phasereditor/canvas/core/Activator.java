@@ -40,6 +40,8 @@ public class Activator extends AbstractUIPlugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		CanvasCore.getCanvasFileCache().saveSnapshots();
+		CanvasCore.getCanvasDependencyGraph().saveSnapshots();
 		plugin = null;
 		super.stop(context);
 	}
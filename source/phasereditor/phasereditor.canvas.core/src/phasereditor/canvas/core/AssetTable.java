@@ -25,12 +25,18 @@ import static java.lang.System.out;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.json.JSONObject;
 
+import phasereditor.assetpack.core.AssetKeyIdentity;
 import phasereditor.assetpack.core.AssetPackCore;
+import phasereditor.assetpack.core.AssetPackModel;
+import phasereditor.assetpack.core.IAssetElementModel;
 import phasereditor.assetpack.core.IAssetKey;
 
 /**
@@ -43,6 +49,7 @@ public class AssetTable {
 	private int _counter;
 	private final Map<String, IAssetKey> _map;
 	private final Map<String, JSONObject> _refMap;
+	private final Map<RefKey, String> _idMap;
 
 	private static class Entry {
 
@@ -55,31 +62,64 @@ public class AssetTable {
 		public IAssetKey asset;
 	}
 
+	/**
+	 * The identity of the JSON reference of an asset key. An element (like a
+	 * frame) and its asset may have the same {@link AssetKeyIdentity} (like in
+	 * image assets), but they have different references.
+	 */
+	private static final class RefKey {
+		private final AssetKeyIdentity _identity;
+		private final boolean _element;
+
+		public RefKey(IAssetKey key) {
+			_identity = AssetKeyIdentity.of(key);
+			_element = key instanceof IAssetElementModel;
+		}
+
+		@Override
+		public int hashCode() {
+			return _identity.hashCode() * 31 + (_element ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof RefKey)) {
+				return false;
+			}
+			RefKey other = (RefKey) obj;
+			return _element == other._element && _identity.equals(other._identity);
+		}
+	}
+
 	public AssetTable(WorldModel worldModel) {
 		_worldModel = worldModel;
 		_entries = new ArrayList<>();
 		_map = new HashMap<>();
 		_refMap = new HashMap<>();
+		_idMap = new HashMap<>();
 	}
 
 	public String postAsset(IAssetKey key) {
-		String key1 = AssetPackCore.getAssetStringReference(key);
-		
-		for (Entry entry : _entries) {
-			String key2 = AssetPackCore.getAssetStringReference(entry.asset);
+		RefKey refKey = new RefKey(key);
 
-			if (key1.equals(key2)) {
-				return entry.id;
-			}
+		String id = _idMap.get(refKey);
+
+		if (id != null) {
+			return id;
 		}
 
-		String id = Integer.toString(_counter++);
-		_entries.add(new Entry(id, key));
-		_map.put(id, key);
+		id = Integer.toString(_counter++);
+		addEntry(id, key, refKey);
 
 		return id;
 	}
 
+	private void addEntry(String id, IAssetKey key, RefKey refKey) {
+		_entries.add(new Entry(id, key));
+		_map.put(id, key);
+		_idMap.putIfAbsent(refKey, id);
+	}
+
 	public JSONObject toJSON() {
 		JSONObject obj = new JSONObject();
 		for (Entry entry : _entries) {
@@ -93,24 +133,57 @@ public class AssetTable {
 			return;
 		}
 
+		IProject project = _worldModel.getProject();
+
+		// group the references by pack file, so each pack is resolved once
+
+		Map<String, List<String>> fileIds = new LinkedHashMap<>();
 
 		for (String id : obj.keySet()) {
 			JSONObject refObj = obj.getJSONObject(id);
 			_refMap.put(id, refObj);
-			Object asset = AssetPackCore.findAssetElement(_worldModel.getProject(), refObj);
-			if (asset instanceof IAssetKey) {
-				IAssetKey assetKey = (IAssetKey) asset;
-				_entries.add(new Entry(id, assetKey));
-				_map.put(id, assetKey);
-			} else {
-				out.println("Cannot find " + refObj.toString());
-				String msg = "section=" + refObj.optString("section") + ", key=" + refObj.optString("asset")
-						+ ", frame=" + refObj.optString("sprite", "");
-				AssetPackCore.logError("Not found: " + msg);
+			fileIds.computeIfAbsent(refObj.optString("file"), k -> new ArrayList<>()).add(id);
+		}
+
+		for (Map.Entry<String, List<String>> fileEntry : fileIds.entrySet()) {
+			AssetPackModel pack = getAssetPackModel(project, fileEntry.getKey());
+
+			for (String id : fileEntry.getValue()) {
+				JSONObject refObj = _refMap.get(id);
+				Object asset = pack == null ? null : pack.getElementFromJSONReference(refObj);
+
+				if (asset instanceof IAssetKey) {
+					IAssetKey assetKey = (IAssetKey) asset;
+					addEntry(id, assetKey, new RefKey(assetKey));
+				} else {
+					out.println("Cannot find " + refObj.toString());
+					String msg = "section=" + refObj.optString("section") + ", key=" + refObj.optString("asset")
+							+ ", frame=" + refObj.optString("sprite", "");
+					AssetPackCore.logError("Not found: " + msg);
+				}
 			}
 		}
 	}
 
+	private static AssetPackModel getAssetPackModel(IProject project, String filename) {
+		if (project == null || filename.length() == 0) {
+			return null;
+		}
+
+		IFile file = project.getFile(filename);
+
+		if (!file.exists()) {
+			return null;
+		}
+
+		try {
+			return AssetPackCore.getAssetPackModel(file);
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
 	public IAssetKey lookup(String id) {
 		return _map.get(id);
 	}
@@ -21,6 +21,12 @@
 // USE OR OTHER DEALINGS IN THE SOFTWARE.
 package phasereditor.canvas.core;
 
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+
 import phasereditor.project.core.FileDataCache;
 import phasereditor.project.core.FileDataCacheBuilderParticipant;
 
@@ -34,4 +40,33 @@ public class CanvasCacheBuilderParticipant extends FileDataCacheBuilderParticipa
 	public FileDataCache<CanvasFile> getFileDataCache() {
 		return CanvasCore.getCanvasFileCache();
 	}
+
+	@Override
+	public void build(IProject project, IResourceDelta delta, Map<String, Object> env) {
+		super.build(project, delta, env);
+
+		try {
+			CanvasCore.getPrefabTemplateCache().buildDelta(project, delta);
+		} catch (CoreException e) {
+			CanvasCore.logError(e);
+		}
+	}
+
+	@Override
+	public void fullBuild(IProject project, Map<String, Object> env) {
+		super.fullBuild(project, env);
+		CanvasCore.getPrefabTemplateCache().clear(project);
+	}
+
+	@Override
+	public void clean(IProject project, Map<String, Object> env) {
+		super.clean(project, env);
+		CanvasCore.getPrefabTemplateCache().clear(project);
+	}
+
+	@Override
+	public void projectDeleted(IProject project, Map<String, Object> env) {
+		super.projectDeleted(project, env);
+		CanvasCore.getPrefabTemplateCache().clear(project);
+	}
 }
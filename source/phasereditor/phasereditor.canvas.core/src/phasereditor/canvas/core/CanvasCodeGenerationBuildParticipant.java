@@ -0,0 +1,122 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.core;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import phasereditor.assetpack.core.AssetPackBuildParticipant;
+import phasereditor.assetpack.core.AssetPackCore.PackDelta;
+import phasereditor.canvas.core.codegen.CanvasCodeGenerationBatch;
+import phasereditor.project.core.IProjectBuildParticipant;
+import phasereditor.project.core.IResourceDeltaVisitor2;
+import phasereditor.project.core.ProjectCore;
+
+/**
+ * Generates again the code of the canvas files (with the "generate on save"
+ * setting) affected by the changes in the assets and prefabs they use. The
+ * generation runs in a workspace job after the build, and only the files with
+ * a different code are written.
+ * 
+ * @author arian
+ *
+ */
+public class CanvasCodeGenerationBuildParticipant implements IProjectBuildParticipant {
+
+	@Override
+	public void startupOnInitialize(IProject project, Map<String, Object> env) {
+		// nothing
+	}
+
+	@Override
+	public void clean(IProject project, Map<String, Object> env) {
+		// nothing
+	}
+
+	@Override
+	public void build(IProject project, IResourceDelta delta, Map<String, Object> env) {
+		Set<IFile> canvasFiles = new LinkedHashSet<>();
+		Set<IPath> changedPaths = new LinkedHashSet<>();
+
+		try {
+			delta.accept(new IResourceDeltaVisitor2() {
+
+				@Override
+				public void fileAdded(IFile file) {
+					changedPaths.add(file.getFullPath());
+				}
+
+				@Override
+				public void fileRemoved(IFile file) {
+					changedPaths.add(file.getFullPath());
+				}
+
+				@Override
+				public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+					changedPaths.add(movedFromPath);
+					changedPaths.add(movedToPath);
+				}
+
+				@Override
+				public void fileChanged(IFile file) {
+					changedPaths.add(file.getFullPath());
+				}
+
+				@Override
+				public boolean fileVisited(IFile file) {
+					if (file.exists() && ProjectCore.isWebContentFile(file) && CanvasCore.isCanvasFile(file)) {
+						canvasFiles.add(file);
+					}
+					return true;
+				}
+			});
+		} catch (CoreException e) {
+			CanvasCore.logError(e);
+		}
+
+		PackDelta packDelta = AssetPackBuildParticipant.getData(env);
+
+		canvasFiles.addAll(CanvasCore.getCanvasDependencyGraph().getDependents(project, packDelta, changedPaths));
+
+		// the canvas files just saved by the editor are up to date, the
+		// fingerprint of the generated code makes them cheap to skip
+
+		CanvasCodeGenerationBatch.schedule(project, canvasFiles, true);
+	}
+
+	@Override
+	public void fullBuild(IProject project, Map<String, Object> env) {
+		CanvasCodeGenerationBatch.schedule(project, CanvasCodeGenerationBatch.getCanvasFiles(project), true);
+	}
+
+	@Override
+	public void projectDeleted(IProject project, Map<String, Object> env) {
+		// nothing
+	}
+}
@@ -41,13 +41,15 @@ import org.eclipse.ui.ide.IDE;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
+import org.json.JSONReader;
 
 import phasereditor.assetpack.core.AssetModel;
 import phasereditor.assetpack.core.AssetPackCore;
 import phasereditor.assetpack.core.IAssetKey;
 import phasereditor.assetpack.core.IAssetReference;
 import phasereditor.assetpack.core.ImageAssetModel;
+import phasereditor.canvas.core.CanvasReferenceIndex.ObjectReference;
+import phasereditor.project.core.FileKindCache;
 
 /**
  * @author arian
@@ -60,6 +62,9 @@ public class CanvasCore {
 	public static final String GROUP_CONTENT_TYPE_ID = "phasereditor.canvas.core.groupContentType";
 	public static final String STATE_CONTENT_TYPE_ID = "phasereditor.canvas.core.stateContentType";
 	private static final CanvasFileDataCache _fileDataCache = new CanvasFileDataCache();
+	private static final CanvasDependencyGraph _dependencyGraph = new CanvasDependencyGraph();
+	private static final CanvasReferenceIndex _referenceIndex = new CanvasReferenceIndex();
+	private static final PrefabTemplateCache _prefabTemplateCache = new PrefabTemplateCache();
 	public static final String GOTO_MARKER_OBJECT_ID_ATTR = "phasereditor.canvas.core.marker.objectId";
 	public static final String CANVAS_OBJECT_REF_MARKER_ID = "phasereditor.canvas.core.objectref";
 
@@ -107,6 +112,10 @@ public class CanvasCore {
 	 * @return The canvas type or <code>null</code> if it is not a canvas file.
 	 */
 	public static CanvasType getCanvasType(IFile file) {
+		return FileKindCache.get(file, "canvasType", CanvasCore::getCanvasType_contentType);
+	}
+
+	private static CanvasType getCanvasType_contentType(IFile file) {
 		IContentDescription desc;
 		try {
 			desc = file.getContentDescription();
@@ -140,11 +149,37 @@ public class CanvasCore {
 	}
 
 	public static CanvasType getCanvasType(InputStream contents) {
-		JSONObject data = new JSONObject(new JSONTokener(contents));
-		if (data.has("settings") && data.has("world")) {
+		// read only the names of the top-level values, the world is skipped
+		JSONReader reader = new JSONReader(contents);
+		reader.beginObject();
+
+		boolean settings = false;
+		boolean world = false;
+		String typeName = null;
+
+		while (!(settings && world && typeName != null) && reader.hasNext()) {
+			switch (reader.nextName()) {
+			case "settings":
+				settings = true;
+				reader.skipValue();
+				break;
+			case "world":
+				world = true;
+				reader.skipValue();
+				break;
+			case "type":
+				typeName = reader.nextString();
+				break;
+			default:
+				reader.skipValue();
+				break;
+			}
+		}
+
+		if (settings && world) {
 			// use the GROUP type as default, for backward compatibility with
 			// v1.3.0 and bellow
-			String name = data.optString("type", CanvasType.GROUP.name());
+			String name = typeName == null ? CanvasType.GROUP.name() : typeName;
 			CanvasType type = CanvasType.valueOf(name);
 			return type;
 		}
@@ -176,15 +211,14 @@ public class CanvasCore {
 		}
 	}
 
-	public static List<PrefabReference> findPrefabReferencesInFileContent(Prefab prefab, IFile file) {
-		CanvasModel canvasModel = new CanvasModel(file);
-		try (InputStream contents = file.getContents()) {
-			canvasModel.read(new JSONObject(new JSONTokener(contents)));
-			return findPrefabReferenceInModelContent(prefab, canvasModel.getWorld());
-		} catch (Exception e) {
-			logError(e);
-			throw new RuntimeException(e);
+	public static List<PrefabReference> findPrefabReferencesInFiles(Prefab prefab) {
+		List<PrefabReference> list = new ArrayList<>();
+
+		for (ObjectReference ref : _referenceIndex.findPrefabReferences(prefab.getFile())) {
+			list.add(new PrefabReference(ref.getFile(), ref.getObjectName(), ref.getObjectId()));
 		}
+
+		return list;
 	}
 
 	public static List<PrefabReference> findPrefabReferenceInModelContent(Prefab prefab, WorldModel world) {
@@ -216,6 +250,17 @@ public class CanvasCore {
 			_model = model;
 		}
 
+		public AssetInCanvasReference(IFile file, String objectId, String objectName, IAssetKey assetKey) {
+			_objectId = objectId;
+			_objectName = objectName;
+			_file = file;
+			_assetKey = assetKey;
+		}
+
+		/**
+		 * The model of the object, or <code>null</code> if the reference was
+		 * found in the {@link CanvasReferenceIndex}.
+		 */
 		public AssetSpriteModel<IAssetKey> getModel() {
 			return _model;
 		}
@@ -259,15 +304,16 @@ public class CanvasCore {
 		}
 	}
 
-	public static List<IAssetReference> findAssetKeyReferencesInFileContent(IAssetKey assetKey, IFile file) {
-		CanvasModel canvasModel = new CanvasModel(file);
-		try (InputStream contents = file.getContents()) {
-			canvasModel.read(new JSONObject(new JSONTokener(contents)));
-			return findAssetKeyReferenceInModelContent(assetKey, canvasModel.getWorld());
-		} catch (Exception e) {
-			logError(e);
-			throw new RuntimeException(e);
+	public static List<IAssetReference> findAssetKeyReferencesInFiles(IAssetKey assetKey) {
+		IAssetKey assetKey2 = assetKey instanceof ImageAssetModel.Frame ? assetKey.getAsset() : assetKey;
+
+		List<IAssetReference> list = new ArrayList<>();
+
+		for (ObjectReference ref : _referenceIndex.findAssetKeyReferences(assetKey2)) {
+			list.add(new AssetInCanvasReference(ref.getFile(), ref.getObjectId(), ref.getObjectName(), assetKey2));
 		}
+
+		return list;
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
@@ -316,15 +362,14 @@ public class CanvasCore {
 		return list;
 	}
 
-	public static List<IAssetReference> findAssetReferencesInFileContent(AssetModel asset, IFile file) {
-		CanvasModel canvasModel = new CanvasModel(file);
-		try (InputStream contents = file.getContents()) {
-			canvasModel.read(new JSONObject(new JSONTokener(contents)));
-			return findAssetReferenceInModelContent(asset, canvasModel.getWorld());
-		} catch (Exception e) {
-			logError(e);
-			throw new RuntimeException(e);
+	public static List<IAssetReference> findAssetReferencesInFiles(AssetModel asset) {
+		List<IAssetReference> list = new ArrayList<>();
+
+		for (ObjectReference ref : _referenceIndex.findAssetReferences(asset)) {
+			list.add(new AssetInCanvasReference(ref.getFile(), ref.getObjectId(), ref.getObjectName(), asset));
 		}
+
+		return list;
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
@@ -365,7 +410,7 @@ public class CanvasCore {
 		CanvasModel model = new CanvasModel(canvasFile);
 		SourceLang lang;
 		try (InputStream contents = canvasFile.getContents()) {
-			model.read(new JSONObject(new JSONTokener(contents)));
+			model.read(JSONObject.read(contents));
 			lang = model.getSettings().getLang();
 		} catch (IOException | CoreException e) {
 			logError(e);
@@ -386,6 +431,18 @@ public class CanvasCore {
 		return _fileDataCache;
 	}
 
+	public static CanvasDependencyGraph getCanvasDependencyGraph() {
+		return _dependencyGraph;
+	}
+
+	public static CanvasReferenceIndex getCanvasReferenceIndex() {
+		return _referenceIndex;
+	}
+
+	public static PrefabTemplateCache getPrefabTemplateCache() {
+		return _prefabTemplateCache;
+	}
+
 	public static String getDefaultClassName(IFile file) {
 		if (file == null) {
 			return "CanvasClass";
@@ -0,0 +1,369 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.core;
+
+import static java.lang.System.out;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.json.JSONObject;
+
+import phasereditor.assetpack.core.AssetModel;
+import phasereditor.assetpack.core.AssetPackCore.PackDelta;
+import phasereditor.assetpack.core.AssetPackModel;
+import phasereditor.project.core.FileSnapshot;
+import phasereditor.project.core.FileSnapshot.Item;
+
+/**
+ * The reverse dependencies of the canvas files: the canvas files (and prefabs)
+ * that reference an asset, an asset pack or a prefab. It is maintained by the
+ * canvas validation build participant, so when an asset changes only the
+ * canvas files downstream of it are validated again.
+ * 
+ * The graph is saved in a {@link FileSnapshot} when the plugin is stopped.
+ * 
+ * @author arian
+ *
+ */
+public class CanvasDependencyGraph {
+	private static final String SNAPSHOT_NAME = "phasereditor.canvas.core.canvasDependencies";
+	private static final int SNAPSHOT_VERSION = 1;
+	// FileSnapshot writes the data as modified UTF-8, limited to 64K bytes
+	private static final int MAX_SNAPSHOT_DATA_LENGTH = 20_000;
+
+	private static class Dependencies {
+		public long stamp;
+		public Set<String> assets = new HashSet<>();
+		public Set<IPath> packs = new HashSet<>();
+		public Set<IPath> prefabs = new HashSet<>();
+
+		public Dependencies(long stamp) {
+			this.stamp = stamp;
+		}
+
+		public String encode() {
+			StringBuilder sb = new StringBuilder();
+			for (String asset : assets) {
+				sb.append("a\t").append(asset).append("\n");
+			}
+			for (IPath pack : packs) {
+				sb.append("p\t").append(pack.toPortableString()).append("\n");
+			}
+			for (IPath prefab : prefabs) {
+				sb.append("f\t").append(prefab.toPortableString()).append("\n");
+			}
+			return sb.toString();
+		}
+
+		public static Dependencies decode(long stamp, String data) {
+			Dependencies deps = new Dependencies(stamp);
+			for (String line : data.split("\n")) {
+				if (line.length() < 2) {
+					continue;
+				}
+				String value = line.substring(2);
+				switch (line.charAt(0)) {
+				case 'a':
+					deps.assets.add(value);
+					break;
+				case 'p':
+					deps.packs.add(Path.fromPortableString(value));
+					break;
+				case 'f':
+					deps.prefabs.add(Path.fromPortableString(value));
+					break;
+				default:
+					break;
+				}
+			}
+			return deps;
+		}
+	}
+
+	private static class ProjectGraph {
+		public Map<IFile, Dependencies> canvasMap = new HashMap<>();
+		public Map<String, Set<IFile>> assetMap = new HashMap<>();
+		public Map<IPath, Set<IFile>> packMap = new HashMap<>();
+		public Map<IPath, Set<IFile>> prefabMap = new HashMap<>();
+
+		public void put(IFile canvas, Dependencies deps) {
+			remove(canvas);
+
+			canvasMap.put(canvas, deps);
+
+			for (String asset : deps.assets) {
+				assetMap.computeIfAbsent(asset, k -> new HashSet<>()).add(canvas);
+			}
+
+			for (IPath pack : deps.packs) {
+				packMap.computeIfAbsent(pack, k -> new HashSet<>()).add(canvas);
+			}
+
+			for (IPath prefab : deps.prefabs) {
+				prefabMap.computeIfAbsent(prefab, k -> new HashSet<>()).add(canvas);
+			}
+		}
+
+		public void remove(IFile canvas) {
+			Dependencies deps = canvasMap.remove(canvas);
+
+			if (deps == null) {
+				return;
+			}
+
+			for (String asset : deps.assets) {
+				removeFrom(assetMap, asset, canvas);
+			}
+
+			for (IPath pack : deps.packs) {
+				removeFrom(packMap, pack, canvas);
+			}
+
+			for (IPath prefab : deps.prefabs) {
+				removeFrom(prefabMap, prefab, canvas);
+			}
+		}
+
+		private static <T> void removeFrom(Map<T, Set<IFile>> map, T key, IFile canvas) {
+			Set<IFile> set = map.get(key);
+			if (set != null) {
+				set.remove(canvas);
+				if (set.isEmpty()) {
+					map.remove(key);
+				}
+			}
+		}
+	}
+
+	private Map<IProject, ProjectGraph> _projectMap;
+
+	public CanvasDependencyGraph() {
+		_projectMap = new HashMap<>();
+	}
+
+	public static String getAssetId(IPath packPath, String sectionKey, String assetKey) {
+		return packPath.toPortableString() + "$" + sectionKey + "$" + assetKey;
+	}
+
+	public static String getAssetId(AssetModel asset) {
+		return getAssetId(asset.getPack().getFile().getFullPath(), asset.getSection().getKey(), asset.getKey());
+	}
+
+	private ProjectGraph getProjectGraph(IProject project) {
+		ProjectGraph graph = _projectMap.get(project);
+
+		if (graph == null) {
+			graph = new ProjectGraph();
+			_projectMap.put(project, graph);
+			loadSnapshot(project, graph);
+		}
+
+		return graph;
+	}
+
+	private static void loadSnapshot(IProject project, ProjectGraph graph) {
+		FileSnapshot snapshot = FileSnapshot.read(project, SNAPSHOT_NAME, SNAPSHOT_VERSION);
+
+		if (snapshot.size() == 0) {
+			return;
+		}
+
+		for (CanvasFile cfile : CanvasCore.getCanvasFileCache().getProjectData(project)) {
+			IFile file = cfile.getFile();
+			Item item = snapshot.getValid(file);
+			if (item != null && item.data != null) {
+				graph.put(file, Dependencies.decode(item.stamp, item.data));
+			}
+		}
+
+		out.println("CanvasDependencyGraph: " + graph.canvasMap.size() + " canvas files restored in " + project);
+	}
+
+	/**
+	 * Set the assets and prefabs referenced by the canvas file.
+	 * 
+	 * @param canvas
+	 *            The canvas file.
+	 * @param assetRefs
+	 *            The JSON references to the assets, like in the canvas
+	 *            asset-table.
+	 * @param prefabs
+	 *            The prefab files. They could not exist.
+	 */
+	public synchronized void setDependencies(IFile canvas, Collection<JSONObject> assetRefs,
+			Collection<IFile> prefabs) {
+		IProject project = canvas.getProject();
+
+		Dependencies deps = new Dependencies(canvas.getModificationStamp());
+
+		for (JSONObject ref : assetRefs) {
+			String filename = ref.optString("file", null);
+			if (filename == null) {
+				continue;
+			}
+
+			IPath packPath = project.getFile(filename).getFullPath();
+			deps.packs.add(packPath);
+
+			if (ref.has("section") && ref.has("asset")) {
+				deps.assets.add(getAssetId(packPath, ref.optString("section"), ref.optString("asset")));
+			}
+		}
+
+		for (IFile prefab : prefabs) {
+			deps.prefabs.add(prefab.getFullPath());
+		}
+
+		getProjectGraph(project).put(canvas, deps);
+	}
+
+	public synchronized void removeDependencies(IFile canvas) {
+		getProjectGraph(canvas.getProject()).remove(canvas);
+	}
+
+	public synchronized void clear(IProject project) {
+		_projectMap.put(project, new ProjectGraph());
+	}
+
+	/**
+	 * Get the canvas files affected by the changes, directly or through the
+	 * prefabs.
+	 * 
+	 * @param project
+	 *            The project.
+	 * @param packDelta
+	 *            The assets and packs modified by the build.
+	 * @param changedPaths
+	 *            The paths of the files added, removed or modified (like
+	 *            prefab files).
+	 * @return The canvas files to process again.
+	 */
+	public synchronized Set<IFile> getDependents(IProject project, PackDelta packDelta,
+			Collection<IPath> changedPaths) {
+		ProjectGraph graph = getProjectGraph(project);
+
+		Set<IFile> result = new LinkedHashSet<>();
+
+		for (AssetModel asset : packDelta.getAssets()) {
+			IFile packFile = asset.getPack().getFile();
+			if (packFile != null) {
+				addAll(result, graph.assetMap.get(getAssetId(asset)));
+			}
+		}
+
+		for (AssetPackModel pack : packDelta.getPacks()) {
+			IFile packFile = pack.getFile();
+			if (packFile != null) {
+				addAll(result, graph.packMap.get(packFile.getFullPath()));
+			}
+		}
+
+		for (IFile packFile : packDelta.getProblemsChangedFiles()) {
+			addAll(result, graph.packMap.get(packFile.getFullPath()));
+		}
+
+		for (IPath path : changedPaths) {
+			addAll(result, graph.packMap.get(path));
+			addAll(result, graph.prefabMap.get(path));
+		}
+
+		// the canvas files that use the affected prefabs
+
+		List<IFile> queue = new ArrayList<>(result);
+		while (!queue.isEmpty()) {
+			IFile prefab = queue.remove(queue.size() - 1);
+			Set<IFile> users = graph.prefabMap.get(prefab.getFullPath());
+			if (users != null) {
+				for (IFile user : users) {
+					if (result.add(user)) {
+						queue.add(user);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	private static void addAll(Set<IFile> result, Set<IFile> files) {
+		if (files != null) {
+			result.addAll(files);
+		}
+	}
+
+	/**
+	 * Get the canvas files of the project that are not in the graph, because
+	 * they were not processed in this session and they were modified after the
+	 * last snapshot.
+	 */
+	public synchronized Set<IFile> getUnknownCanvasFiles(IProject project) {
+		ProjectGraph graph = getProjectGraph(project);
+
+		Set<IFile> result = new LinkedHashSet<>();
+
+		for (CanvasFile cfile : CanvasCore.getCanvasFileCache().getProjectData(project)) {
+			IFile file = cfile.getFile();
+			if (!graph.canvasMap.containsKey(file)) {
+				result.add(file);
+			}
+		}
+
+		return result;
+	}
+
+	public synchronized void saveSnapshots() {
+		for (Entry<IProject, ProjectGraph> entry : _projectMap.entrySet()) {
+			IProject project = entry.getKey();
+			FileSnapshot snapshot = new FileSnapshot(SNAPSHOT_VERSION);
+
+			for (Entry<IFile, Dependencies> entry2 : entry.getValue().canvasMap.entrySet()) {
+				String data = entry2.getValue().encode();
+				if (data.length() < MAX_SNAPSHOT_DATA_LENGTH) {
+					snapshot.put(entry2.getKey().getFullPath(), entry2.getValue().stamp, data);
+				}
+			}
+
+			snapshot.write(project, SNAPSHOT_NAME);
+		}
+	}
+
+	public synchronized void removeSnapshot(IProject project) {
+		_projectMap.remove(project);
+		FileSnapshot.delete(project, SNAPSHOT_NAME);
+	}
+
+	public synchronized void projectDeleted(IProject project) {
+		_projectMap.remove(project);
+	}
+}
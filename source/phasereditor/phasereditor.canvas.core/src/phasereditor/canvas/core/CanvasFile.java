@@ -25,7 +25,6 @@ import java.io.InputStream;
 
 import org.eclipse.core.resources.IFile;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 /**
  * @author arian
@@ -103,7 +102,7 @@ public class CanvasFile {
 
 	public JSONObject newInstance() throws Exception {
 		try (InputStream contents = _file.getContents()) {
-			return new JSONObject(new JSONTokener(contents));
+			return JSONObject.read(contents);
 		}
 	}
 
@@ -46,6 +46,27 @@ public class CanvasFileDataCache extends FileDataCache<CanvasFile> {
 		return new CanvasFile(file, type);
 	}
 
+	@Override
+	protected String getSnapshotName() {
+		return "phasereditor.canvas.core.canvasFiles";
+	}
+
+	@Override
+	protected String getSnapshotData(CanvasFile data) {
+		return data.getType().name();
+	}
+
+	@Override
+	protected CanvasFile createDataFromSnapshot(IFile file, String snapshotData) {
+		CanvasType type = CanvasType.valueOf(snapshotData);
+
+		if (type.isPrefab()) {
+			return new Prefab(file, type);
+		}
+
+		return new CanvasFile(file, type);
+	}
+
 	@Override
 	protected void updateDataWithMove(CanvasFile data, IFile file, IPath movedFromPath, IPath movedToPath) {
 		data.setFile(file);
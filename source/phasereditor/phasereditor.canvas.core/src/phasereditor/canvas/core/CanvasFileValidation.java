@@ -37,7 +37,6 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.assetpack.core.AssetPackCore;
 import phasereditor.assetpack.core.IAssetKey;
@@ -59,15 +58,19 @@ public class CanvasFileValidation {
 	private HashMap<String, IFile> _prefabTable;
 	private JSONObject _data;
 	private Set<String> _used;
+	private List<JSONObject> _assetRefs;
+	private Set<IFile> _prefabFiles;
 
 	public CanvasFileValidation(IFile file) throws Exception {
 		super();
 		_file = file;
 		_problems = new ArrayList<>();
 		try (InputStream contents = file.getContents()) {
-			_data = new JSONObject(new JSONTokener(contents));
+			_data = JSONObject.read(contents);
 		}
 		_used = new HashSet<>();
+		_assetRefs = new ArrayList<>();
+		_prefabFiles = new HashSet<>();
 	}
 
 	public List<IStatus> validate() {
@@ -81,6 +84,27 @@ public class CanvasFileValidation {
 		return _problems;
 	}
 
+	/**
+	 * The content of the validated file.
+	 */
+	public JSONObject getData() {
+		return _data;
+	}
+
+	/**
+	 * The references to the assets found in the last validation.
+	 */
+	public List<JSONObject> getAssetReferences() {
+		return _assetRefs;
+	}
+
+	/**
+	 * The prefab files (they could not exist) found in the last validation.
+	 */
+	public Set<IFile> getPrefabFiles() {
+		return _prefabFiles;
+	}
+
 	private void validateVersion() {
 		if (_data.optInt("canvas-version", 1) != CanvasModel.CURRENT_VERSION) {
 			_problems.add(
@@ -131,6 +155,9 @@ public class CanvasFileValidation {
 		} else {
 			file = _prefabTable.get(obj.getString("prefab"));
 		}
+		if (file != null) {
+			_prefabFiles.add(file);
+		}
 		if (file == null || !file.exists()) {
 			JSONObject info = obj.getJSONObject("info");
 			String name = info.optString("editorName", "?");
@@ -139,6 +166,8 @@ public class CanvasFileValidation {
 	}
 
 	private void validateRef(String spriteId, JSONObject ref) {
+		_assetRefs.add(ref);
+
 		Object asset = AssetPackCore.findAssetElement(_file.getProject(), ref);
 
 		boolean problem = false;
@@ -196,6 +225,7 @@ public class CanvasFileValidation {
 
 		for (String id : tableData.keySet()) {
 			JSONObject refObj = tableData.getJSONObject(id);
+			_assetRefs.add(refObj);
 			Object asset = AssetPackCore.findAssetElement(project, refObj);
 			if (asset != null && asset instanceof IAssetKey) {
 				IAssetKey assetKey = (IAssetKey) asset;
@@ -220,6 +250,8 @@ public class CanvasFileValidation {
 			String filepath = tableData.getString(id);
 			IFile file = project.getFile(filepath);
 
+			_prefabFiles.add(file);
+
 			if (!file.exists()) {
 				_assetTable.put(id, null);
 				_problems.add(
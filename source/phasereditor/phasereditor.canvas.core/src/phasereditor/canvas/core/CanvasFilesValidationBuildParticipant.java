@@ -2,21 +2,23 @@ package phasereditor.canvas.core;
 
 import static java.lang.System.out;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
-import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 
 import phasereditor.assetpack.core.AssetPackBuildParticipant;
 import phasereditor.assetpack.core.AssetPackCore.PackDelta;
 import phasereditor.project.core.IProjectBuildParticipant;
 import phasereditor.project.core.IResourceDeltaVisitor2;
+import phasereditor.project.core.MarkerBatch;
 import phasereditor.project.core.ProjectCore;
 
 public class CanvasFilesValidationBuildParticipant implements IProjectBuildParticipant {
@@ -32,110 +34,117 @@ public class CanvasFilesValidationBuildParticipant implements IProjectBuildParti
 	@Override
 	public void clean(IProject project, Map<String, Object> env) {
 		ProjectCore.deleteResourceMarkers(project, CanvasCore.CANVAS_PROBLEM_MARKER_ID);
+		CanvasCore.getCanvasDependencyGraph().removeSnapshot(project);
+		CanvasCore.getCanvasReferenceIndex().clear(project);
 	}
 
 	@Override
 	public void projectDeleted(IProject project, Map<String, Object> env) {
-		// nothing
+		CanvasCore.getCanvasDependencyGraph().projectDeleted(project);
+		CanvasCore.getCanvasReferenceIndex().clear(project);
 	}
 
 	@Override
 	public void fullBuild(IProject project, Map<String, Object> env) {
-		ProjectCore.deleteResourceMarkers(project, CanvasCore.CANVAS_PROBLEM_MARKER_ID);
+		// the markers of the files that are not canvas files anymore are
+		// deleted
+		MarkerBatch markers = new MarkerBatch(CanvasCore.CANVAS_PROBLEM_MARKER_ID, project);
+
+		CanvasCore.getCanvasDependencyGraph().clear(project);
+		CanvasCore.getCanvasReferenceIndex().clear(project);
 
 		List<CanvasFile> cfiles = CanvasCore.getCanvasFileCache().getProjectData(project);
 		cfiles.forEach(cfile -> {
-			validateCanvasFile(cfile.getFile());
+			validateCanvasFile(cfile.getFile(), markers);
 		});
+
+		markers.apply();
 	}
 
 	@Override
 	public void build(IProject project, IResourceDelta delta, Map<String, Object> env) {
-		if (isModifiedAPrefab(delta)) {
-			fullBuild(project, env);
-			return;
-		}
-
-		PackDelta packDelta = AssetPackBuildParticipant.getData(env);
-		if (packDelta.isEmpty()) {
-			// if no assets was modified, then validate only the modified canvas
-			// files.
-			try {
-				validateModifiedCanvasFiles(delta);
-			} catch (CoreException e) {
-				CanvasCore.logError(e);
-			}
-		} else {
-			// if any asset was modified then we prefer to do a full validation
-			fullBuild(project, env);
-		}
+		CanvasDependencyGraph graph = CanvasCore.getCanvasDependencyGraph();
+		CanvasReferenceIndex index = CanvasCore.getCanvasReferenceIndex();
 
-	}
+		Set<IFile> toValidate = new LinkedHashSet<>();
+		Set<IPath> changedPaths = new LinkedHashSet<>();
 
-	private static boolean isModifiedAPrefab(IResourceDelta delta) {
 		try {
-			boolean[] found = { false };
 			delta.accept(new IResourceDeltaVisitor2() {
+
 				@Override
-				public boolean fileVisited(IFile file) {
-					CanvasFile data = CanvasCore.getCanvasFileCache().getFileData(file);
+				public void fileAdded(IFile file) {
+					changedPaths.add(file.getFullPath());
+				}
 
-					if (data != null && data.getType().isPrefab()) {
-						found[0] = true;
-					}
+				@Override
+				public void fileRemoved(IFile file) {
+					changedPaths.add(file.getFullPath());
+					graph.removeDependencies(file);
+					index.remove(file);
+				}
+
+				@Override
+				public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+					changedPaths.add(movedFromPath);
+					changedPaths.add(movedToPath);
+					IFile fromFile = file.getWorkspace().getRoot().getFile(movedFromPath);
+					graph.removeDependencies(fromFile);
+					index.remove(fromFile);
+				}
+
+				@Override
+				public void fileChanged(IFile file) {
+					changedPaths.add(file.getFullPath());
+				}
 
-					return !found[0];
+				@Override
+				public boolean fileVisited(IFile file) {
+					if (file.exists() && ProjectCore.isWebContentFile(file) && CanvasCore.isCanvasFile(file)) {
+						toValidate.add(file);
+					}
+					return true;
 				}
 			});
-			return found[0];
 		} catch (CoreException e) {
-			e.printStackTrace();
+			CanvasCore.logError(e);
 		}
-		return false;
-	}
-
-	private static void validateModifiedCanvasFiles(IResourceDelta delta) throws CoreException {
 
-		delta.accept(new IResourceDeltaVisitor() {
+		// validate the canvas files downstream of the modified assets, packs
+		// and prefabs
 
-			@SuppressWarnings("synthetic-access")
-			@Override
-			public boolean visit(IResourceDelta delta2) throws CoreException {
-				IResource resource = delta2.getResource();
+		PackDelta packDelta = AssetPackBuildParticipant.getData(env);
 
-				if (resource == null) {
-					return true;
-				}
+		Set<IFile> dependents = graph.getDependents(project, packDelta, changedPaths);
 
-				if (delta2.getKind() == IResourceDelta.REMOVED) {
-					return true;
-				}
+		toValidate.addAll(dependents);
 
-				if (!(resource instanceof IFile)) {
-					return true;
-				}
+		if (!dependents.isEmpty() || !packDelta.isEmpty()) {
+			// the canvas files we do not know the dependencies
+			toValidate.addAll(graph.getUnknownCanvasFiles(project));
+		}
 
-				IFile file = (IFile) resource;
-				if (ProjectCore.isWebContentFile(file) && CanvasCore.isCanvasFile(file)) {
-					validateCanvasFile(file);
-				}
+		MarkerBatch markers = new MarkerBatch(CanvasCore.CANVAS_PROBLEM_MARKER_ID);
 
-				return true;
+		for (IFile file : toValidate) {
+			if (file.exists()) {
+				validateCanvasFile(file, markers);
 			}
-		});
+		}
 
+		markers.apply();
 	}
 
-	private static void validateCanvasFile(IFile file) {
+	private static void validateCanvasFile(IFile file, MarkerBatch markers) {
 		out.println("Validate canvas file " + file);
 
 		try {
-			ProjectCore.deleteResourceMarkers(file, CanvasCore.CANVAS_PROBLEM_MARKER_ID);
 			CanvasFileValidation validation = new CanvasFileValidation(file);
 			List<IStatus> problems = validation.validate();
-			for (IStatus problem : problems) {
-				ProjectCore.createErrorMarker(CanvasCore.CANVAS_PROBLEM_MARKER_ID, problem, file);
-			}
+			markers.setProblems(file, problems);
+			CanvasCore.getCanvasDependencyGraph().setDependencies(file, validation.getAssetReferences(),
+					validation.getPrefabFiles());
+			CanvasCore.getCanvasReferenceIndex().update(file, validation.getData());
 		} catch (Exception e) {
 			CanvasCore.logError(e);
 		}
@@ -0,0 +1,448 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import phasereditor.assetpack.core.AssetModel;
+import phasereditor.assetpack.core.AssetPackCore;
+import phasereditor.assetpack.core.IAssetKey;
+import phasereditor.assetpack.core.ImageAssetModel;
+
+/**
+ * An index of the references of the canvas objects to assets, asset elements
+ * and prefabs. It is built from the JSON content of the canvas files, so the
+ * searches and refactorings do not need to read the canvas models.
+ * 
+ * The build updates the index with the validated files. Before a query, the
+ * files modified after they were indexed are indexed again.
+ * 
+ * @author arian
+ *
+ */
+public class CanvasReferenceIndex {
+
+	/**
+	 * A reference of a canvas object.
+	 */
+	public static class ObjectReference {
+		private IFile _file;
+		private String _objectId;
+		private String _objectName;
+
+		public ObjectReference(IFile file, String objectId, String objectName) {
+			super();
+			_file = file;
+			_objectId = objectId;
+			_objectName = objectName;
+		}
+
+		public IFile getFile() {
+			return _file;
+		}
+
+		public String getObjectId() {
+			return _objectId;
+		}
+
+		public String getObjectName() {
+			return _objectName;
+		}
+	}
+
+	private static class FileEntry {
+		public long stamp;
+		public Set<String> keyIds = new HashSet<>();
+		public Set<String> assetIds = new HashSet<>();
+		public Set<String> sectionIds = new HashSet<>();
+		public Set<IPath> prefabs = new HashSet<>();
+
+		public FileEntry(long stamp) {
+			this.stamp = stamp;
+		}
+	}
+
+	private static class ProjectIndex {
+		public Map<IFile, FileEntry> fileMap = new HashMap<>();
+
+		// object references
+		public Map<String, List<ObjectReference>> keyRefsMap = new HashMap<>();
+		public Map<String, List<ObjectReference>> assetRefsMap = new HashMap<>();
+		public Map<IPath, List<ObjectReference>> prefabRefsMap = new HashMap<>();
+
+		// file references, including the entries of the asset and prefab
+		// tables
+		public Map<String, Set<IFile>> assetFilesMap = new HashMap<>();
+		public Map<String, Set<IFile>> sectionFilesMap = new HashMap<>();
+		public Map<IPath, Set<IFile>> prefabFilesMap = new HashMap<>();
+
+		public void remove(IFile file) {
+			FileEntry entry = fileMap.remove(file);
+
+			if (entry == null) {
+				return;
+			}
+
+			for (String id : entry.keyIds) {
+				removeRefs(keyRefsMap, id, file);
+			}
+
+			for (String id : entry.assetIds) {
+				removeRefs(assetRefsMap, id, file);
+				removeFile(assetFilesMap, id, file);
+			}
+
+			for (String id : entry.sectionIds) {
+				removeFile(sectionFilesMap, id, file);
+			}
+
+			for (IPath path : entry.prefabs) {
+				removeRefs(prefabRefsMap, path, file);
+				removeFile(prefabFilesMap, path, file);
+			}
+		}
+
+		private static <T> void removeRefs(Map<T, List<ObjectReference>> map, T key, IFile file) {
+			List<ObjectReference> list = map.get(key);
+			if (list != null) {
+				list.removeIf(ref -> ref.getFile().equals(file));
+				if (list.isEmpty()) {
+					map.remove(key);
+				}
+			}
+		}
+
+		private static <T> void removeFile(Map<T, Set<IFile>> map, T key, IFile file) {
+			Set<IFile> set = map.get(key);
+			if (set != null) {
+				set.remove(file);
+				if (set.isEmpty()) {
+					map.remove(key);
+				}
+			}
+		}
+
+		public void put(IFile file, JSONObject data) {
+			remove(file);
+
+			FileEntry entry = new FileEntry(file.getModificationStamp());
+			fileMap.put(file, entry);
+
+			IProject project = file.getProject();
+
+			JSONObject assetTable = data.optJSONObject("asset-table");
+			JSONObject prefabTable = data.optJSONObject("prefab-table");
+
+			if (assetTable != null) {
+				for (String id : assetTable.keySet()) {
+					addAssetFile(entry, file, assetTable.getJSONObject(id));
+				}
+			}
+
+			if (prefabTable != null) {
+				for (String id : prefabTable.keySet()) {
+					IPath path = project.getFile(prefabTable.getString(id)).getFullPath();
+					entry.prefabs.add(path);
+					prefabFilesMap.computeIfAbsent(path, k -> new LinkedHashSet<>()).add(file);
+				}
+			}
+
+			JSONObject world = data.optJSONObject("world");
+
+			if (world != null) {
+				putObject(entry, file, world, assetTable, prefabTable);
+			}
+		}
+
+		private void addAssetFile(FileEntry entry, IFile file, JSONObject ref) {
+			String assetId = getAssetId(file.getProject(), ref);
+			if (assetId != null) {
+				entry.assetIds.add(assetId);
+				assetFilesMap.computeIfAbsent(assetId, k -> new LinkedHashSet<>()).add(file);
+
+				String sectionId = getSectionId(file.getProject(), ref);
+				entry.sectionIds.add(sectionId);
+				sectionFilesMap.computeIfAbsent(sectionId, k -> new LinkedHashSet<>()).add(file);
+			}
+		}
+
+		private void putObject(FileEntry entry, IFile file, JSONObject obj, JSONObject assetTable,
+				JSONObject prefabTable) {
+			String type = obj.optString("type");
+			JSONObject info = obj.optJSONObject("info");
+
+			if (info == null) {
+				return;
+			}
+
+			if (type.equals(GroupModel.TYPE_NAME)) {
+				JSONArray children = info.optJSONArray("children");
+				if (children != null) {
+					for (int i = 0; i < children.length(); i++) {
+						putObject(entry, file, children.getJSONObject(i), assetTable, prefabTable);
+					}
+				}
+				return;
+			}
+
+			ObjectReference objRef = new ObjectReference(file, obj.optString("id"), info.optString("editorName"));
+
+			boolean prefab = type.equals("prefab");
+
+			if (prefab) {
+				String filename = null;
+
+				if (obj.has("prefabFile")) {
+					filename = obj.getString("prefabFile");
+				} else if (prefabTable != null) {
+					filename = prefabTable.optString(obj.optString("prefab"), null);
+				}
+
+				if (filename != null) {
+					IPath path = file.getProject().getFile(filename).getFullPath();
+					entry.prefabs.add(path);
+					prefabRefsMap.computeIfAbsent(path, k -> new ArrayList<>()).add(objRef);
+					prefabFilesMap.computeIfAbsent(path, k -> new LinkedHashSet<>()).add(file);
+				}
+			}
+
+			JSONObject assetRef = null;
+
+			if (obj.has("asset")) {
+				if (assetTable != null) {
+					assetRef = assetTable.optJSONObject(obj.getString("asset"));
+				}
+			} else {
+				assetRef = obj.optJSONObject("asset-ref");
+			}
+
+			if (assetRef == null) {
+				return;
+			}
+
+			addAssetFile(entry, file, assetRef);
+
+			if (prefab && !isOverridingTexture(info)) {
+				// like in the models, skip prefab instances that cannot change
+				// the texture
+				return;
+			}
+
+			String assetId = getAssetId(file.getProject(), assetRef);
+
+			if (assetId != null) {
+				assetRefsMap.computeIfAbsent(assetId, k -> new ArrayList<>()).add(objRef);
+
+				String keyId = getKeyId(assetRef, assetId);
+				entry.keyIds.add(keyId);
+				keyRefsMap.computeIfAbsent(keyId, k -> new ArrayList<>()).add(objRef);
+			}
+		}
+
+		private static boolean isOverridingTexture(JSONObject info) {
+			JSONArray array = info.optJSONArray("prefabOverride");
+			if (array != null) {
+				for (int i = 0; i < array.length(); i++) {
+					if (BaseSpriteModel.PROPSET_TEXTURE.equals(array.optString(i))) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+
+	private Map<IProject, ProjectIndex> _projectMap;
+
+	public CanvasReferenceIndex() {
+		_projectMap = new HashMap<>();
+	}
+
+	private static String getAssetId(IProject project, JSONObject ref) {
+		String filename = ref.optString("file", null);
+
+		if (filename == null || !ref.has("section") || !ref.has("asset")) {
+			return null;
+		}
+
+		return CanvasDependencyGraph.getAssetId(project.getFile(filename).getFullPath(), ref.optString("section"),
+				ref.optString("asset"));
+	}
+
+	private static String getSectionId(IProject project, JSONObject ref) {
+		return getSectionId(project.getFile(ref.optString("file")).getFullPath(), ref.optString("section"));
+	}
+
+	private static String getSectionId(IPath packPath, String sectionKey) {
+		return packPath.toPortableString() + "$" + sectionKey;
+	}
+
+	private static String getKeyId(IProject project, IAssetKey assetKey) {
+		IAssetKey key = assetKey instanceof ImageAssetModel.Frame ? assetKey.getAsset() : assetKey;
+		// use the same JSON reference stored in the canvas files
+		JSONObject ref = AssetPackCore.getAssetJSONReference(key);
+		if (ref == null) {
+			return null;
+		}
+		return getKeyId(ref, getAssetId(project, ref));
+	}
+
+	private static String getKeyId(JSONObject ref, String assetId) {
+		return assetId + "$" + ref.optString("sprite", ref.optString("asset"));
+	}
+
+	/**
+	 * Update the index with the content of the canvas file.
+	 */
+	public synchronized void update(IFile file, JSONObject data) {
+		getProjectIndex(file.getProject()).put(file, data);
+	}
+
+	public synchronized void remove(IFile file) {
+		ProjectIndex index = _projectMap.get(file.getProject());
+		if (index != null) {
+			index.remove(file);
+		}
+	}
+
+	public synchronized void clear(IProject project) {
+		_projectMap.remove(project);
+	}
+
+	private ProjectIndex getProjectIndex(IProject project) {
+		return _projectMap.computeIfAbsent(project, k -> new ProjectIndex());
+	}
+
+	/**
+	 * Get the index of the project, after index the canvas files that were
+	 * added or modified since the last time.
+	 */
+	private ProjectIndex getUpdatedProjectIndex(IProject project) {
+		ProjectIndex index = getProjectIndex(project);
+
+		Set<IFile> files = new HashSet<>();
+
+		for (CanvasFile cfile : CanvasCore.getCanvasFileCache().getProjectData(project)) {
+			IFile file = cfile.getFile();
+
+			files.add(file);
+
+			FileEntry entry = index.fileMap.get(file);
+
+			if (entry == null || entry.stamp != file.getModificationStamp()) {
+				try {
+					index.put(file, cfile.newInstance());
+				} catch (Exception e) {
+					CanvasCore.logError(e);
+					index.remove(file);
+				}
+			}
+		}
+
+		for (IFile file : new ArrayList<>(index.fileMap.keySet())) {
+			if (!files.contains(file)) {
+				index.remove(file);
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * Find the canvas objects that use the given asset key (an asset or an
+	 * asset element like an atlas frame).
+	 */
+	public synchronized List<ObjectReference> findAssetKeyReferences(IAssetKey assetKey) {
+		IProject project = getProject(assetKey);
+		ProjectIndex index = getUpdatedProjectIndex(project);
+		return copy(index.keyRefsMap.get(getKeyId(project, assetKey)));
+	}
+
+	/**
+	 * Find the canvas objects that use the asset or any of its elements.
+	 */
+	public synchronized List<ObjectReference> findAssetReferences(AssetModel asset) {
+		ProjectIndex index = getUpdatedProjectIndex(getProject(asset));
+		return copy(index.assetRefsMap.get(CanvasDependencyGraph.getAssetId(asset)));
+	}
+
+	/**
+	 * Find the canvas objects that are instances of the prefab.
+	 */
+	public synchronized List<ObjectReference> findPrefabReferences(IFile prefabFile) {
+		ProjectIndex index = getUpdatedProjectIndex(prefabFile.getProject());
+		return copy(index.prefabRefsMap.get(prefabFile.getFullPath()));
+	}
+
+	/**
+	 * Find the canvas files that reference the asset, in the objects or in the
+	 * asset table.
+	 */
+	public synchronized Set<IFile> findFilesReferencingAsset(IFile packFile, String sectionKey, String assetKey) {
+		ProjectIndex index = getUpdatedProjectIndex(packFile.getProject());
+		return copy(index.assetFilesMap
+				.get(CanvasDependencyGraph.getAssetId(packFile.getFullPath(), sectionKey, assetKey)));
+	}
+
+	/**
+	 * Find the canvas files that reference any asset of the section, in the
+	 * objects or in the asset table.
+	 */
+	public synchronized Set<IFile> findFilesReferencingSection(IFile packFile, String sectionKey) {
+		ProjectIndex index = getUpdatedProjectIndex(packFile.getProject());
+		return copy(index.sectionFilesMap.get(getSectionId(packFile.getFullPath(), sectionKey)));
+	}
+
+	/**
+	 * Find the canvas files that reference the prefab, in the objects or in
+	 * the prefab table.
+	 */
+	public synchronized Set<IFile> findFilesReferencingPrefab(IFile prefabFile) {
+		ProjectIndex index = getUpdatedProjectIndex(prefabFile.getProject());
+		return copy(index.prefabFilesMap.get(prefabFile.getFullPath()));
+	}
+
+	private static IProject getProject(IAssetKey assetKey) {
+		return assetKey.getAsset().getPack().getFile().getProject();
+	}
+
+	private static List<ObjectReference> copy(List<ObjectReference> list) {
+		return list == null ? Collections.emptyList() : new ArrayList<>(list);
+	}
+
+	private static Set<IFile> copy(Set<IFile> set) {
+		return set == null ? Collections.emptySet() : new LinkedHashSet<>(set);
+	}
+}
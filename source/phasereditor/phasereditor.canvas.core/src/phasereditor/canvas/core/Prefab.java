@@ -23,11 +23,9 @@ package phasereditor.canvas.core;
 
 import java.io.InputStream;
 import java.security.InvalidParameterException;
-import java.util.UUID;
 
 import org.eclipse.core.resources.IFile;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 /**
  * @author arian
@@ -64,10 +62,18 @@ public class Prefab extends CanvasFile{
 	 * @return
 	 */
 	public JSONObject newInstance(JSONObject initInfo) {
+		return CanvasCore.getPrefabTemplateCache().newInstance(this, initInfo);
+	}
+
+	/**
+	 * Read the prefab file and write the data of the prefab root. It is used
+	 * by the {@link PrefabTemplateCache}.
+	 */
+	JSONObject readTemplate() {
 		IFile file = getFile();
 		CanvasModel model = new CanvasModel(file);
 		try (InputStream contents = file.getContents()) {
-			JSONObject data = new JSONObject(new JSONTokener(contents));
+			JSONObject data = JSONObject.read(contents);
 
 			model.read(data);
 			BaseObjectModel objModel;
@@ -81,12 +87,7 @@ public class Prefab extends CanvasFile{
 				objModel = model.getWorld().findGroupPrefabRoot();
 			}
 
-			if (initInfo != null) {
-				applyInfo(objModel, initInfo);
-			}
-
 			JSONObject newData = new JSONObject();
-			objModel.setId(UUID.randomUUID().toString());
 			//objModel.setEditorName(model.getSettings().getClassName());
 			objModel.write(newData, false);
 
@@ -96,20 +97,4 @@ public class Prefab extends CanvasFile{
 			throw new RuntimeException(e);
 		}
 	}
-
-	private static void applyInfo(BaseObjectModel objModel, JSONObject info) {
-		JSONObject prefabData = new JSONObject();
-		objModel.write(prefabData, false);
-		JSONObject prefabInfo = prefabData.getJSONObject("info");
-		for (String k : info.keySet()) {
-			
-			// never override children
-			if (k.equals("children")) {
-				continue;
-			}
-			
-			prefabInfo.put(k, info.get(k));
-		}
-		objModel.readInfo(prefabInfo);
-	}
 }
@@ -22,6 +22,7 @@
 package phasereditor.canvas.core;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
@@ -32,25 +33,29 @@ import org.json.JSONObject;
  *
  */
 public class PrefabTable {
-	private Map<Object, Object> _map;
+	private Map<String, Prefab> _idMap;
+	private Map<IFile, String> _fileMap;
 	int _counter;
 	private WorldModel _worldModel;
 
 	public PrefabTable(WorldModel worldModel) {
 		_worldModel = worldModel;
-		_map = new HashMap<>();
+		_idMap = new LinkedHashMap<>();
+		_fileMap = new HashMap<>();
 		_counter = 0;
 	}
 
 	public String postPrefab(Prefab prefab) {
-		if (_map.containsKey(prefab)) {
-			return (String) _map.get(prefab);
+		String id = _fileMap.get(prefab.getFile());
+
+		if (id != null) {
+			return id;
 		}
 
-		String id = Integer.toString(_counter);
+		id = Integer.toString(_counter);
 
-		_map.put(id, prefab);
-		_map.put(prefab, id);
+		_idMap.put(id, prefab);
+		_fileMap.put(prefab.getFile(), id);
 
 		_counter++;
 
@@ -58,16 +63,13 @@ public class PrefabTable {
 	}
 
 	public Prefab lookup(String id) {
-		return (Prefab) _map.get(id);
+		return _idMap.get(id);
 	}
 
 	public JSONObject toJSON() {
 		JSONObject obj = new JSONObject();
-		for (Object value : _map.values()) {
-			if (value instanceof Prefab) {
-				String id = (String) _map.get(value);
-				obj.put(id, ((Prefab) value).getFile().getProjectRelativePath().toPortableString());
-			}
+		for (Map.Entry<String, Prefab> entry : _idMap.entrySet()) {
+			obj.put(entry.getKey(), entry.getValue().getFile().getProjectRelativePath().toPortableString());
 		}
 		return obj;
 	}
@@ -81,8 +83,8 @@ public class PrefabTable {
 			String filepath = data.getString(id);
 			IFile file = _worldModel.getFile().getProject().getFile(filepath);
 			Prefab prefab = new Prefab(file);
-			_map.put(id, prefab);
-			_map.put(prefab, id);
+			_idMap.put(id, prefab);
+			_fileMap.put(file, id);
 		}
 	}
 
@@ -0,0 +1,238 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.core;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import phasereditor.assetpack.core.AssetPackCore;
+import phasereditor.project.core.IResourceDeltaVisitor2;
+
+/**
+ * Keeps the data of the root object of the prefabs, so the instances are
+ * created with a copy of that data, and not reading the prefab file and
+ * building its model each time.
+ * 
+ * A template is valid while the prefab file, and the prefab files it nests,
+ * are not modified.
+ * 
+ * @author arian
+ *
+ */
+public class PrefabTemplateCache {
+
+	private static class Template {
+		public long stamp;
+		public JSONObject data;
+		/**
+		 * The nested prefab files (at any level) and their modification
+		 * stamps.
+		 */
+		public Map<IFile, Long> dependencies;
+
+		public Template(long stamp, JSONObject data, Map<IFile, Long> dependencies) {
+			super();
+			this.stamp = stamp;
+			this.data = data;
+			this.dependencies = dependencies;
+		}
+
+		public boolean isValid(IFile file) {
+			if (file.getModificationStamp() != stamp) {
+				return false;
+			}
+
+			for (Entry<IFile, Long> entry : dependencies.entrySet()) {
+				if (entry.getKey().getModificationStamp() != entry.getValue().longValue()) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	private Map<IPath, Template> _templates;
+
+	/**
+	 * The dependencies of the templates being built in the current thread.
+	 * Prefabs nested in a prefab are instantiated while the template of the
+	 * parent is built.
+	 */
+	private ThreadLocal<Deque<Map<IFile, Long>>> _building;
+
+	public PrefabTemplateCache() {
+		_templates = new ConcurrentHashMap<>();
+		_building = ThreadLocal.withInitial(ArrayDeque::new);
+	}
+
+	/**
+	 * Make an instance of the prefab.
+	 * 
+	 * @param prefab
+	 *            The prefab.
+	 * @param initInfo
+	 *            The info to overwrite, it can be <code>null</code>.
+	 * @return The data of the new object, with a new id.
+	 */
+	public JSONObject newInstance(Prefab prefab, JSONObject initInfo) {
+		Template template = getTemplate(prefab);
+
+		JSONObject data = (JSONObject) copy(template.data);
+
+		if (initInfo != null) {
+			JSONObject info = data.getJSONObject("info");
+			for (String k : initInfo.keySet()) {
+
+				// never override children
+				if (k.equals("children")) {
+					continue;
+				}
+
+				info.put(k, copy(initInfo.get(k)));
+			}
+		}
+
+		data.put("id", UUID.randomUUID().toString());
+
+		return data;
+	}
+
+	private Template getTemplate(Prefab prefab) {
+		IFile file = prefab.getFile();
+		IPath path = file.getFullPath();
+
+		Template template = _templates.get(path);
+
+		if (template == null || !template.isValid(file)) {
+			template = buildTemplate(prefab);
+			_templates.put(path, template);
+		}
+
+		// the parent template (if any) depends on this template
+
+		Map<IFile, Long> parentDependencies = _building.get().peek();
+		if (parentDependencies != null) {
+			parentDependencies.put(file, Long.valueOf(template.stamp));
+			parentDependencies.putAll(template.dependencies);
+		}
+
+		return template;
+	}
+
+	private Template buildTemplate(Prefab prefab) {
+		long stamp = prefab.getFile().getModificationStamp();
+
+		Deque<Map<IFile, Long>> stack = _building.get();
+		Map<IFile, Long> dependencies = new HashMap<>();
+
+		stack.push(dependencies);
+		try {
+			JSONObject data = prefab.readTemplate();
+			return new Template(stamp, data, dependencies);
+		} finally {
+			stack.pop();
+		}
+	}
+
+	private static Object copy(Object value) {
+		if (value instanceof JSONObject) {
+			JSONObject obj = (JSONObject) value;
+			JSONObject copy = new JSONObject();
+			for (String k : obj.keySet()) {
+				copy.put(k, copy(obj.get(k)));
+			}
+			return copy;
+		}
+
+		if (value instanceof JSONArray) {
+			JSONArray array = (JSONArray) value;
+			JSONArray copy = new JSONArray();
+			for (int i = 0; i < array.length(); i++) {
+				copy.put(copy(array.get(i)));
+			}
+			return copy;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Remove the templates of the files in the delta. If an asset pack is
+	 * modified, all the templates of the project are removed, since they may
+	 * reference the modified assets.
+	 */
+	public void buildDelta(IProject project, IResourceDelta delta) throws CoreException {
+		boolean[] packChanged = { false };
+
+		delta.accept(new IResourceDeltaVisitor2() {
+
+			@Override
+			public void fileAdded(IFile file) {
+				if (AssetPackCore.isAssetPackFile(file)) {
+					packChanged[0] = true;
+				}
+			}
+
+			@Override
+			public void fileRemoved(IFile file) {
+				_templates.remove(file.getFullPath());
+			}
+
+			@Override
+			public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+				_templates.remove(movedFromPath);
+			}
+
+			@Override
+			public void fileChanged(IFile file) {
+				_templates.remove(file.getFullPath());
+
+				if (AssetPackCore.isAssetPackFile(file)) {
+					packChanged[0] = true;
+				}
+			}
+
+		});
+
+		if (packChanged[0]) {
+			clear(project);
+		}
+	}
+
+	public void clear(IProject project) {
+		_templates.keySet().removeIf(path -> path.segment(0).equals(project.getName()));
+	}
+}
@@ -0,0 +1,221 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.core.codegen;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.json.JSONObject;
+
+import phasereditor.canvas.core.CanvasCore;
+import phasereditor.canvas.core.CanvasFile;
+import phasereditor.canvas.core.CanvasModel;
+
+/**
+ * Generates the code of many canvas files, without open them in an editor. The
+ * models are read and the code is generated in parallel, one generator per
+ * file, and then the files that changed are written in the calling thread.
+ * 
+ * @author arian
+ *
+ */
+public class CanvasCodeGenerationBatch {
+	private final List<IFile> _canvasFiles;
+	private final boolean _onlyGenerateOnSave;
+	private int _written;
+	private int _skipped;
+	private int _failed;
+	private Set<IFile> _filesWithErrors;
+
+	/**
+	 * @param canvasFiles
+	 *            The canvas files to generate.
+	 * @param onlyGenerateOnSave
+	 *            If only the canvas files with the "generate on save" setting
+	 *            are generated.
+	 */
+	public CanvasCodeGenerationBatch(Collection<IFile> canvasFiles, boolean onlyGenerateOnSave) {
+		_canvasFiles = new ArrayList<>(canvasFiles);
+		_onlyGenerateOnSave = onlyGenerateOnSave;
+	}
+
+	public static List<IFile> getCanvasFiles(IProject project) {
+		List<IFile> list = new ArrayList<>();
+		for (CanvasFile cfile : CanvasCore.getCanvasFileCache().getProjectData(project)) {
+			list.add(cfile.getFile());
+		}
+		return list;
+	}
+
+	/**
+	 * Generate the code. It requires the scheduling rule of the generated
+	 * files.
+	 * 
+	 * @return A status with a warning for each canvas file that is not
+	 *         generated because it has errors, and an error for each file
+	 *         that failed.
+	 */
+	public IStatus run(IProgressMonitor monitor) {
+		_written = 0;
+		_skipped = 0;
+		_failed = 0;
+		_filesWithErrors = ConcurrentHashMap.newKeySet();
+
+		MultiStatus status = new MultiStatus(CanvasCore.PLUGIN_ID, 0, "Generating canvas code", null);
+
+		monitor.beginTask("Generating canvas code", _canvasFiles.size() * 2);
+
+		int size = Math.max(1, Math.min(_canvasFiles.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService pool = Executors.newFixedThreadPool(size);
+
+		try {
+			List<Future<CanvasCodeWriter>> futures = new ArrayList<>();
+
+			for (IFile file : _canvasFiles) {
+				futures.add(pool.submit(() -> prepare(file)));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				IFile file = _canvasFiles.get(i);
+
+				monitor.subTask(file.getName());
+
+				if (monitor.isCanceled()) {
+					break;
+				}
+
+				try {
+					CanvasCodeWriter writer = futures.get(i).get();
+
+					monitor.worked(1);
+
+					if (writer == null) {
+						_skipped++;
+
+						if (_filesWithErrors.contains(file)) {
+							status.add(new Status(IStatus.WARNING, CanvasCore.PLUGIN_ID,
+									"The code of " + file.getFullPath() + " is not generated, it has errors."));
+						}
+					} else {
+						writer.commit(monitor);
+						_written++;
+					}
+				} catch (Exception e) {
+					_failed++;
+
+					Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+					status.add(new Status(IStatus.ERROR, CanvasCore.PLUGIN_ID,
+							"Cannot generate the code of " + file.getFullPath() + ": " + cause.getMessage(), cause));
+				}
+
+				monitor.worked(1);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		monitor.done();
+
+		return status;
+	}
+
+	/**
+	 * Read the model and generate the code.
+	 * 
+	 * @return The writer with the code to commit, or null if the file should
+	 *         not be written.
+	 */
+	private CanvasCodeWriter prepare(IFile canvasFile) throws Exception {
+		if (!canvasFile.exists()) {
+			return null;
+		}
+
+		CanvasModel model = new CanvasModel(canvasFile);
+
+		try (InputStream contents = canvasFile.getContents()) {
+			model.read(JSONObject.read(contents));
+		}
+
+		if (_onlyGenerateOnSave && !model.getSettings().isGenerateOnSave()) {
+			return null;
+		}
+
+		if (model.getWorld().hasErrors()) {
+			_filesWithErrors.add(canvasFile);
+			return null;
+		}
+
+		IFile file = CanvasCodeWriter.getFileToGenerate(canvasFile, model.getSettings().getLang());
+
+		CanvasCodeWriter writer = new CanvasCodeWriter(model, file);
+
+		return writer.prepare() ? writer : null;
+	}
+
+	public int getWrittenCount() {
+		return _written;
+	}
+
+	public int getSkippedCount() {
+		return _skipped;
+	}
+
+	public int getFailedCount() {
+		return _failed;
+	}
+
+	/**
+	 * Run the batch in a workspace job, with the project as scheduling rule.
+	 */
+	public static void schedule(IProject project, Collection<IFile> canvasFiles, boolean onlyGenerateOnSave) {
+		if (canvasFiles.isEmpty()) {
+			return;
+		}
+
+		WorkspaceJob job = new WorkspaceJob("Generating canvas code") {
+
+			@Override
+			public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
+				IStatus status = new CanvasCodeGenerationBatch(canvasFiles, onlyGenerateOnSave).run(monitor);
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : status;
+			}
+		};
+		job.setRule(project);
+		job.schedule();
+	}
+}
@@ -0,0 +1,244 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.core.codegen;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.QualifiedName;
+import org.json.JSONObject;
+
+import phasereditor.canvas.core.CanvasCore;
+import phasereditor.canvas.core.CanvasModel;
+import phasereditor.canvas.core.SourceLang;
+import phasereditor.inspect.core.InspectCore;
+import phasereditor.lic.LicCore;
+
+/**
+ * Writes the code generated for a canvas, but only if it changed. The state
+ * of the model that affects the generated code is summarized in a fingerprint
+ * stored in the generated file, so saving a canvas without changes in the
+ * objects does not even read the generated file. When the model changed but
+ * the output is the same (like when the user moved a guide), the file is not
+ * touched, so the JavaScript tools and the builders are not triggered.
+ * 
+ * @author arian
+ *
+ */
+public class CanvasCodeWriter {
+	private static final QualifiedName FINGERPRINT_KEY = new QualifiedName(CanvasCore.PLUGIN_ID,
+			"codegen.fingerprint");
+
+	// editor settings that do not affect the generated code
+	private static final String[] EDITOR_ONLY_SETTINGS = { "generateOnSave", "enableStepping", "stepWidth",
+			"stepHeight", "backgroundColor", "gridColor", "showGrid" };
+
+	private final CanvasModel _model;
+	private final IFile _file;
+	private String _fingerprint;
+	private String _content;
+
+	public CanvasCodeWriter(CanvasModel model, IFile file) {
+		_model = model;
+		_file = file;
+	}
+
+	/**
+	 * Generate the code and write it in the file if it changed.
+	 * 
+	 * @return If the file was written.
+	 */
+	public boolean write(IProgressMonitor monitor) throws CoreException, IOException {
+		if (prepare()) {
+			commit(monitor);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Generate the code, without modify the workspace, so it can be called
+	 * from any thread.
+	 * 
+	 * @return If the code changed and it should be written with
+	 *         {@link #commit(IProgressMonitor)}.
+	 */
+	public boolean prepare() throws IOException {
+		ICodeGenerator generator = new CanvasCodeGeneratorProvider().getCodeGenerator(_model);
+
+		_fingerprint = computeFingerprint(generator);
+		_content = null;
+
+		String replace = null;
+
+		if (_file.exists()) {
+			if (_fingerprint.equals(getStoredFingerprint())) {
+				return false;
+			}
+
+			replace = readContent();
+		}
+
+		String content = generator.generate(replace);
+
+		if (content.equals(replace)) {
+			storeFingerprint(_fingerprint);
+			return false;
+		}
+
+		_content = content;
+
+		return true;
+	}
+
+	/**
+	 * Write the code computed in {@link #prepare()}. It requires the
+	 * scheduling rule of the file.
+	 */
+	public void commit(IProgressMonitor monitor) throws CoreException {
+		if (_content == null) {
+			return;
+		}
+
+		ByteArrayInputStream stream = new ByteArrayInputStream(_content.getBytes());
+		if (_file.exists()) {
+			_file.setContents(stream, IResource.NONE, monitor);
+		} else {
+			_file.create(stream, false, monitor);
+		}
+		_file.refreshLocal(1, monitor);
+
+		storeFingerprint(_fingerprint);
+
+		_content = null;
+	}
+
+	public IFile getFile() {
+		return _file;
+	}
+
+	/**
+	 * The file where the code of the canvas is generated: a file with the same
+	 * name of the canvas file but with the extension of the language.
+	 */
+	public static IFile getFileToGenerate(IFile canvasFile, SourceLang lang) {
+		String fname = canvasFile.getFullPath().removeFileExtension().addFileExtension(lang.getExtension())
+				.lastSegment();
+
+		return canvasFile.getParent().getFile(new Path(fname));
+	}
+
+	private String readContent() throws IOException {
+		byte[] bytes = Files.readAllBytes(_file.getLocation().makeAbsolute().toFile().toPath());
+		return new String(bytes);
+	}
+
+	/**
+	 * The fingerprint is valid only while the generated file is not modified
+	 * by other hand, so it is stored together with the modification stamp of
+	 * the file.
+	 */
+	private String getStoredFingerprint() {
+		try {
+			String value = _file.getPersistentProperty(FINGERPRINT_KEY);
+			if (value == null) {
+				return null;
+			}
+
+			int i = value.lastIndexOf('@');
+			if (i == -1 || !value.substring(i + 1).equals(Long.toString(_file.getModificationStamp()))) {
+				return null;
+			}
+
+			return value.substring(0, i);
+		} catch (CoreException e) {
+			CanvasCore.logError(e);
+			return null;
+		}
+	}
+
+	private void storeFingerprint(String fingerprint) {
+		try {
+			_file.setPersistentProperty(FINGERPRINT_KEY, fingerprint + "@" + _file.getModificationStamp());
+		} catch (CoreException e) {
+			CanvasCore.logError(e);
+		}
+	}
+
+	/**
+	 * Compute a hash of the state of the model used by the code generator: the
+	 * objects (with the keys of the assets they reference), the class names of
+	 * the prefabs, the settings that are not about the editor and the version
+	 * of the generator.
+	 */
+	public String computeFingerprint(ICodeGenerator generator) {
+		JSONObject data = new JSONObject();
+
+		_model.write(data, false);
+
+		JSONObject settings = data.getJSONObject("settings");
+		for (String key : EDITOR_ONLY_SETTINGS) {
+			settings.remove(key);
+		}
+
+		// the prefab table is not written when saving is false, but the
+		// generated code uses the class names of the prefabs
+
+		Map<String, String> prefabs = new TreeMap<>();
+		_model.getWorld().walk(obj -> {
+			if (obj.isPrefabInstance()) {
+				IFile file = obj.getPrefab().getFile();
+				prefabs.put(file.getFullPath().toPortableString(), obj.getPrefab().getClassName());
+			}
+		});
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(generator.getClass().getName()).append("\n");
+		sb.append(LicCore.PRODUCT_NAME).append("\n");
+		sb.append(InspectCore.PHASER_VERSION).append("\n");
+		sb.append(prefabs).append("\n");
+		sb.append(data.toString());
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] hash = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder();
+			for (byte b : hash) {
+				hex.append(BaseCodeGenerator.toHexString(b & 0xff));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -29,7 +29,6 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.ui.IEditorPart;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.assetpack.core.FindAssetReferencesResult;
 import phasereditor.assetpack.core.IAssetKey;
@@ -88,7 +87,7 @@ public class CanvasAssetReplacer implements IAssetReplacer {
 			CanvasModel canvasModel = new CanvasModel(file);
 
 			try (InputStream contents = file.getContents()) {
-				canvasModel.read(new JSONObject(new JSONTokener(contents)));
+				canvasModel.read(JSONObject.read(contents));
 			}
 
 			boolean changed = false;
@@ -14,20 +14,40 @@ import org.eclipse.core.runtime.IPath;
 
 import phasereditor.canvas.core.CanvasCore;
 import phasereditor.canvas.core.CanvasFile;
-import phasereditor.project.core.IProjectBuildParticipant;
+import phasereditor.project.core.DeferredBuildQueue;
+import phasereditor.project.core.IDeferredBuildParticipant;
 import phasereditor.project.core.IResourceDeltaVisitor2;
 import phasereditor.project.core.ProjectCore;
 
-public class CanvasScreenshotProjectBuildParticipant implements IProjectBuildParticipant {
+/**
+ * Builds the screenshots of the canvas files. The screenshots are made in the
+ * {@link DeferredBuildQueue}, meanwhile the UI shows the default icons.
+ */
+public class CanvasScreenshotProjectBuildParticipant implements IDeferredBuildParticipant {
+
+	public static final String DEFERRED_CATEGORY = "phasereditor.canvas.ui.screenshot";
 
 	public CanvasScreenshotProjectBuildParticipant() {
 	}
 
+	@Override
+	public String getDeferredCategory() {
+		return DEFERRED_CATEGORY;
+	}
+
+	private static void deferScreenshot(IFile file) {
+		// start to render it right now, in the pool of the renderer, the
+		// deferred work just waits for it
+		CanvasScreenshotRenderer.submit(file);
+		DeferredBuildQueue.getInstance().enqueue(DEFERRED_CATEGORY, file,
+				() -> CanvasScreenshotRenderer.renderAndWait(file));
+	}
+
 	@Override
 	public void startupOnInitialize(IProject project, Map<String, Object> env) {
 		List<CanvasFile> cfiles = CanvasCore.getCanvasFileCache().getProjectData(project);
 		for (CanvasFile cfile : cfiles) {
-			CanvasUI.getCanvasScreenshotFile(cfile.getFile(), true);
+			deferScreenshot(cfile.getFile());
 		}
 	}
 
@@ -68,12 +88,13 @@ public class CanvasScreenshotProjectBuildParticipant implements IProjectBuildPar
 				@Override
 				public void fileAdded(IFile file) {
 					if (CanvasCore.isCanvasFile(file)) {
-						CanvasUI.getCanvasScreenshotFile(file, true);
+						deferScreenshot(file);
 					}
 				}
 
 				@Override
 				public void fileRemoved(IFile file) {
+					DeferredBuildQueue.getInstance().cancel(DEFERRED_CATEGORY, file);
 					if (CanvasCore.isCanvasFile(file)) {
 						CanvasUI.clearCanvasScreenshot(file);
 					}
@@ -83,15 +104,15 @@ public class CanvasScreenshotProjectBuildParticipant implements IProjectBuildPar
 				public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
 					if (CanvasCore.isCanvasFile(file)) {
 						CanvasUI.clearCanvasScreenshot(file);
-						CanvasUI.getCanvasScreenshotFile(file, true);
+						deferScreenshot(file);
 					}
 				}
 
 				@Override
 				public void fileChanged(IFile file) {
+					// the old screenshot is replaced when the new one is ready
 					if (CanvasCore.isCanvasFile(file)) {
-						CanvasUI.clearCanvasScreenshot(file);
-						CanvasUI.getCanvasScreenshotFile(file, true);
+						deferScreenshot(file);
 					}
 				}
 			});
@@ -104,8 +125,9 @@ public class CanvasScreenshotProjectBuildParticipant implements IProjectBuildPar
 	public void fullBuild(IProject project, Map<String, Object> env) {
 		List<CanvasFile> cfiles = CanvasCore.getCanvasFileCache().getProjectData(project);
 		for (CanvasFile cfile : cfiles) {
-			CanvasUI.clearCanvasScreenshot(cfile.getFile());
-			CanvasUI.getCanvasScreenshotFile(cfile.getFile(), true);
+			// the screenshots are made again only if the canvas or its assets
+			// changed
+			deferScreenshot(cfile.getFile());
 		}
 	}
 }
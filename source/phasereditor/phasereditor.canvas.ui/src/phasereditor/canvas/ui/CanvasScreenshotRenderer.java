@@ -0,0 +1,689 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.TexturePaint;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.swt.graphics.Rectangle;
+import org.json.JSONObject;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.WritableImage;
+import phasereditor.assetpack.core.AssetModel;
+import phasereditor.assetpack.core.FrameData;
+import phasereditor.assetpack.core.IAssetFrameModel;
+import phasereditor.assetpack.core.IAssetKey;
+import phasereditor.assetpack.core.ImageAssetModel;
+import phasereditor.canvas.core.AssetSpriteModel;
+import phasereditor.canvas.core.BaseObjectModel;
+import phasereditor.canvas.core.BaseSpriteModel;
+import phasereditor.canvas.core.CanvasModel;
+import phasereditor.canvas.core.GroupModel;
+import phasereditor.canvas.core.SpritesheetSpriteModel;
+import phasereditor.canvas.core.TileSpriteModel;
+import phasereditor.canvas.core.WorldModel;
+import phasereditor.ui.ImageCache;
+
+/**
+ * Makes the screenshots of the canvas files without create the JavaFX scene:
+ * the frames of the sprites are drawn in a {@link BufferedImage}, in a bounded
+ * pool of threads, so the UI thread is not blocked.
+ * 
+ * The screenshot files are named with a hash of the content of the canvas and
+ * the files of the assets and prefabs it uses, so a screenshot is made again
+ * only if something of that changed.
+ * 
+ * @author arian
+ *
+ */
+public class CanvasScreenshotRenderer {
+	// change it when the rendering changes, to invalidate the old screenshots
+	private static final String RENDERER_VERSION = "1";
+
+	private static final QualifiedName SNAPSHOT_FILENAME_KEY = CanvasUI.SNAPSHOT_FILENAME_KEY;
+
+	private static class Task extends FutureTask<Path> {
+		public long stamp;
+		private List<Consumer<Path>> _callbacks = new ArrayList<>();
+
+		public Task(IFile file) {
+			super(() -> build(file));
+			this.stamp = file.getModificationStamp();
+		}
+
+		public void whenDone(Consumer<Path> callback) {
+			synchronized (this) {
+				if (!isDone()) {
+					_callbacks.add(callback);
+					return;
+				}
+			}
+			callback.accept(getResult());
+		}
+
+		@Override
+		protected void done() {
+			List<Consumer<Path>> callbacks;
+			synchronized (this) {
+				callbacks = new ArrayList<>(_callbacks);
+				_callbacks.clear();
+			}
+
+			if (callbacks.isEmpty()) {
+				return;
+			}
+
+			Path result = getResult();
+			for (Consumer<Path> callback : callbacks) {
+				callback.accept(result);
+			}
+		}
+
+		private Path getResult() {
+			if (isCancelled()) {
+				return null;
+			}
+
+			try {
+				return get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				CanvasUI.logError(e);
+			}
+			return null;
+		}
+	}
+
+	private static class Sprite {
+		public BufferedImage image;
+		public FrameData frame;
+		public AffineTransform transform;
+		public float alpha;
+		public TileSpriteModel tile;
+
+		public Sprite(BufferedImage image, FrameData frame, AffineTransform transform, float alpha) {
+			super();
+			this.image = image;
+			this.frame = frame;
+			this.transform = transform;
+			this.alpha = alpha;
+		}
+	}
+
+	private static ExecutorService _pool;
+	private static Map<IPath, Task> _tasks = new ConcurrentHashMap<>();
+
+	// the pixels of the frames used by the sprites (not the whole images),
+	// access order, bounded by FRAMES_BUDGET_FACTOR of the ImageCache budget
+	private static Map<String, BufferedImage> _frameImages = new LinkedHashMap<>(16, 0.75f, true);
+	private static long _frameImagesSize;
+	private static final int FRAMES_BUDGET_FACTOR = 8;
+
+	private static synchronized ExecutorService getPool() {
+		if (_pool == null) {
+			int size = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+			AtomicInteger count = new AtomicInteger();
+			_pool = Executors.newFixedThreadPool(size, r -> {
+				Thread thread = new Thread(r, "Phaser Canvas Screenshot #" + count.incrementAndGet());
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			});
+		}
+		return _pool;
+	}
+
+	/**
+	 * Request the screenshot of the canvas file. If the file is being
+	 * processed (and it was not modified since then) it returns the current
+	 * task.
+	 */
+	public static Future<Path> submit(IFile file) {
+		IPath path = file.getFullPath();
+
+		while (true) {
+			Task current = _tasks.get(path);
+
+			if (current != null && current.stamp == file.getModificationStamp()) {
+				return current;
+			}
+
+			Task task = new Task(file);
+
+			boolean added = current == null ? _tasks.putIfAbsent(path, task) == null
+					: _tasks.replace(path, current, task);
+
+			if (added) {
+				getPool().execute(() -> {
+					try {
+						task.run();
+					} finally {
+						_tasks.remove(path, task);
+					}
+				});
+				return task;
+			}
+		}
+	}
+
+	/**
+	 * Request the screenshot of the file, the callback is called (in the
+	 * screenshot thread) with the screenshot file when it is ready, or with
+	 * <code>null</code> if it failed.
+	 */
+	public static void submit(IFile file, Consumer<Path> onReady) {
+		((Task) submit(file)).whenDone(onReady);
+	}
+
+	/**
+	 * Request the screenshots of the files. It returns immediately, the files
+	 * are processed in parallel.
+	 */
+	public static void submit(Collection<IFile> files) {
+		for (IFile file : files) {
+			submit(file);
+		}
+	}
+
+	/**
+	 * Request the screenshot of the file and wait for it.
+	 * 
+	 * @return The screenshot file.
+	 */
+	public static Path renderAndWait(IFile file) {
+		try {
+			return submit(file).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			CanvasUI.logError(e);
+		}
+		return null;
+	}
+
+	static Path getSnapshotsDir() {
+		String home = System.getProperty("user.home");
+		return Paths.get(home).resolve(".phasereditor/snapshots");
+	}
+
+	private static Path build(IFile file) throws Exception {
+		if (!file.exists()) {
+			return null;
+		}
+
+		byte[] content;
+		try (InputStream input = file.getContents()) {
+			content = readAll(input);
+		}
+
+		CanvasModel model = new CanvasModel(file);
+		model.read(new JSONObject(new String(content, StandardCharsets.UTF_8)));
+
+		String filename = file.getName() + "_" + computeHash(file, content, model) + ".png";
+
+		Path dir = getSnapshotsDir();
+		Path writeTo = dir.resolve(filename);
+
+		String oldFilename = file.getPersistentProperty(SNAPSHOT_FILENAME_KEY);
+
+		if (!Files.exists(writeTo)) {
+			Files.createDirectories(dir);
+
+			BufferedImage image = render(model, CanvasUI.CANVAS_SCREENSHOT_SIZE);
+
+			ImageIO.write(image, "png", writeTo.toFile());
+		}
+
+		if (!filename.equals(oldFilename)) {
+			file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, filename);
+
+			if (oldFilename != null) {
+				Files.deleteIfExists(dir.resolve(oldFilename));
+			}
+		}
+
+		return writeTo;
+	}
+
+	private static byte[] readAll(InputStream input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		byte[] buf = new byte[8 * 1024];
+		int n;
+		while ((n = input.read(buf)) != -1) {
+			output.write(buf, 0, n);
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * A hash of the canvas content and the files used by its assets and
+	 * prefabs (with the modification stamps).
+	 */
+	private static String computeHash(IFile file, byte[] content, CanvasModel model) {
+		Map<String, Long> usedFiles = new TreeMap<>();
+
+		model.getWorld().walk(obj -> {
+			if (obj.isPrefabInstance()) {
+				addUsedFile(usedFiles, obj.getPrefab().getFile());
+			}
+
+			if (obj instanceof AssetSpriteModel) {
+				IAssetKey key = ((AssetSpriteModel<?>) obj).getAssetKey();
+				if (key != null) {
+					AssetModel asset = key.getAsset();
+					addUsedFile(usedFiles, asset.getPack().getFile());
+					for (IFile used : asset.computeUsedFiles()) {
+						addUsedFile(usedFiles, used);
+					}
+				}
+			}
+		});
+
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(RENDERER_VERSION.getBytes(StandardCharsets.UTF_8));
+			digest.update(file.getFullPath().toPortableString().getBytes(StandardCharsets.UTF_8));
+			digest.update(content);
+			digest.update(usedFiles.toString().getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest()) {
+				String s = Integer.toHexString(b & 0xff);
+				sb.append(s.length() == 1 ? "0" : "").append(s);
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static void addUsedFile(Map<String, Long> usedFiles, IFile file) {
+		if (file != null) {
+			usedFiles.put(file.getFullPath().toPortableString(), Long.valueOf(file.getModificationStamp()));
+		}
+	}
+
+	/**
+	 * Draw the objects of the model. The image is scaled to fit the max size.
+	 */
+	public static BufferedImage render(CanvasModel model, int maxSize) {
+		List<Sprite> sprites = new ArrayList<>();
+
+		// the whole images read from the files, only while rendering
+		Map<IFile, BufferedImage> fileImages = new HashMap<>();
+
+		collectSprites(model.getWorld(), new AffineTransform(), 1, sprites, fileImages);
+
+		Rectangle2D bounds = null;
+
+		for (Sprite sprite : sprites) {
+			Rectangle2D b = sprite.transform.createTransformedShape(getSpriteRect(sprite)).getBounds2D();
+			if (bounds == null) {
+				bounds = b;
+			} else {
+				bounds.add(b);
+			}
+		}
+
+		if (bounds == null || bounds.getWidth() < 1 || bounds.getHeight() < 1) {
+			return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+		}
+
+		double f = 1;
+		double max = Math.max(bounds.getWidth(), bounds.getHeight());
+		if (max > maxSize) {
+			f = maxSize / max;
+		}
+
+		int w = Math.max(1, (int) Math.ceil(bounds.getWidth() * f));
+		int h = Math.max(1, (int) Math.ceil(bounds.getHeight() * f));
+
+		BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = image.createGraphics();
+		try {
+			g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+			AffineTransform viewport = new AffineTransform();
+			viewport.scale(f, f);
+			viewport.translate(-bounds.getMinX(), -bounds.getMinY());
+
+			for (Sprite sprite : sprites) {
+				AffineTransform tx = new AffineTransform(viewport);
+				tx.concatenate(sprite.transform);
+				g2.setTransform(tx);
+				g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, sprite.alpha));
+				drawSprite(g2, sprite);
+			}
+		} finally {
+			g2.dispose();
+		}
+
+		return image;
+	}
+
+	private static Rectangle2D getSpriteRect(Sprite sprite) {
+		if (sprite.tile != null) {
+			return new Rectangle2D.Double(0, 0, sprite.tile.getWidth(), sprite.tile.getHeight());
+		}
+		Rectangle dst = sprite.frame.dst;
+		return new Rectangle2D.Double(dst.x, dst.y, dst.width, dst.height);
+	}
+
+	private static void drawSprite(Graphics2D g2, Sprite sprite) {
+		Rectangle src = sprite.frame.src;
+
+		if (src.width <= 0 || src.height <= 0 || src.x + src.width > sprite.image.getWidth()
+				|| src.y + src.height > sprite.image.getHeight()) {
+			return;
+		}
+
+		if (sprite.tile == null) {
+			Rectangle dst = sprite.frame.dst;
+			g2.drawImage(sprite.image, dst.x, dst.y, dst.x + dst.width, dst.y + dst.height, src.x, src.y,
+					src.x + src.width, src.y + src.height, null);
+			return;
+		}
+
+		// the same tiles of the TileSpriteNode
+
+		TileSpriteModel model = sprite.tile;
+		FrameData frame = sprite.frame;
+
+		double xoffs = model.getTilePositionX() % frame.srcSize.x;
+		double yoffs = model.getTilePositionY() % frame.srcSize.y;
+
+		double x1;
+		double y1;
+
+		if (xoffs == 0) {
+			x1 = frame.dst.x * model.getTileScaleX();
+		} else if (xoffs < 0) {
+			x1 = xoffs + frame.dst.x * model.getTileScaleX();
+		} else {
+			x1 = xoffs - (frame.srcSize.x + frame.dst.x) * model.getTileScaleX();
+		}
+
+		if (yoffs == 0) {
+			y1 = frame.dst.y * model.getTileScaleY();
+		} else if (yoffs < 0) {
+			y1 = yoffs + frame.dst.y * model.getTileScaleY();
+		} else {
+			y1 = yoffs - (frame.srcSize.y + frame.dst.y) * model.getTileScaleY();
+		}
+
+		double w1 = frame.srcSize.x * model.getTileScaleX();
+		double h1 = frame.srcSize.y * model.getTileScaleY();
+
+		if (w1 <= 0 || h1 <= 0) {
+			return;
+		}
+
+		double left = Math.max(0, x1);
+		double top = Math.max(0, y1);
+
+		BufferedImage tileImage = sprite.image.getSubimage(src.x, src.y, src.width, src.height);
+		g2.setPaint(new TexturePaint(tileImage, new Rectangle2D.Double(x1, y1, w1, h1)));
+		g2.fill(new Rectangle2D.Double(left, top, Math.max(0, model.getWidth() - left),
+				Math.max(0, model.getHeight() - top)));
+	}
+
+	/**
+	 * Collect the sprites in paint order, with the same transformations of the
+	 * object controls.
+	 */
+	private static void collectSprites(BaseObjectModel obj, AffineTransform parentTx, float parentAlpha,
+			List<Sprite> sprites, Map<IFile, BufferedImage> fileImages) {
+		if (!obj.isEditorShow()) {
+			return;
+		}
+
+		AffineTransform tx = new AffineTransform(parentTx);
+
+		if (!(obj instanceof WorldModel)) {
+			tx.translate(obj.getX(), obj.getY());
+			tx.rotate(Math.toRadians(obj.getAngle()));
+			tx.translate(-obj.getPivotX() * obj.getScaleX(), -obj.getPivotY() * obj.getScaleY());
+			tx.scale(obj.getScaleX(), obj.getScaleY());
+		}
+
+		float alpha = (float) (parentAlpha * Math.max(0, Math.min(1, obj.getAlpha())));
+
+		if (obj instanceof GroupModel) {
+			for (BaseObjectModel child : ((GroupModel) obj).getChildren()) {
+				collectSprites(child, tx, alpha, sprites, fileImages);
+			}
+			return;
+		}
+
+		if (!(obj instanceof AssetSpriteModel)) {
+			// like missing assets
+			return;
+		}
+
+		AssetSpriteModel<?> sprite = (AssetSpriteModel<?>) obj;
+		IAssetKey key = sprite.getAssetKey();
+
+		IFile imageFile;
+		FrameData frame;
+
+		if (key instanceof IAssetFrameModel) {
+			imageFile = ((IAssetFrameModel) key).getImageFile();
+			frame = ((IAssetFrameModel) key).getFrameData();
+		} else if (key instanceof ImageAssetModel) {
+			ImageAssetModel.Frame imageFrame = ((ImageAssetModel) key).getFrame();
+			imageFile = imageFrame.getImageFile();
+			frame = imageFrame.getFrameData();
+		} else {
+			return;
+		}
+
+		if (frame == null) {
+			return;
+		}
+
+		BufferedImage image = getFrameImage(imageFile, frame.src, fileImages);
+
+		if (image == null) {
+			return;
+		}
+
+		// the image is the source region only
+		FrameData frame2 = new FrameData();
+		frame2.src = new Rectangle(0, 0, frame.src.width, frame.src.height);
+		frame2.dst = frame.dst;
+		frame2.srcSize = frame.srcSize;
+		frame = frame2;
+
+		double texWidth;
+		double texHeight;
+
+		if (obj instanceof TileSpriteModel) {
+			texWidth = ((TileSpriteModel) obj).getWidth();
+			texHeight = ((TileSpriteModel) obj).getHeight();
+		} else if (obj instanceof SpritesheetSpriteModel) {
+			texWidth = ((SpritesheetSpriteModel) obj).getAssetKey().getAsset().getFrameWidth();
+			texHeight = ((SpritesheetSpriteModel) obj).getAssetKey().getAsset().getFrameHeight();
+		} else {
+			texWidth = frame.srcSize.x;
+			texHeight = frame.srcSize.y;
+		}
+
+		BaseSpriteModel spriteModel = (BaseSpriteModel) obj;
+		tx.translate(-texWidth * spriteModel.getAnchorX(), -texHeight * spriteModel.getAnchorY());
+
+		Sprite result = new Sprite(image, frame, tx, alpha);
+		if (obj instanceof TileSpriteModel) {
+			result.tile = (TileSpriteModel) obj;
+		}
+		sprites.add(result);
+	}
+
+	/**
+	 * Get the pixels of the source region of the frame. It uses the image
+	 * loaded by the {@link ImageCache}, if available, else it reads the file.
+	 * The regions are cached, bounded by a part of the {@link ImageCache}
+	 * budget.
+	 */
+	private static BufferedImage getFrameImage(IFile file, Rectangle src, Map<IFile, BufferedImage> fileImages) {
+		if (file == null || !file.exists() || src.width <= 0 || src.height <= 0) {
+			return null;
+		}
+
+		String key = file.getFullPath().toPortableString() + "@" + file.getModificationStamp() + "#" + src.x + ","
+				+ src.y + "," + src.width + "," + src.height;
+
+		synchronized (_frameImages) {
+			BufferedImage image = _frameImages.get(key);
+			if (image != null) {
+				return image;
+			}
+		}
+
+		BufferedImage image = readFrameImage(file, src, fileImages);
+
+		if (image != null) {
+			synchronized (_frameImages) {
+				BufferedImage old = _frameImages.put(key, image);
+				if (old != null) {
+					_frameImagesSize -= getMemorySize(old);
+				}
+				_frameImagesSize += getMemorySize(image);
+
+				long budget = ImageCache.getMemoryBudget() / FRAMES_BUDGET_FACTOR;
+				Iterator<BufferedImage> iter = _frameImages.values().iterator();
+				while (_frameImagesSize > budget && _frameImages.size() > 1 && iter.hasNext()) {
+					_frameImagesSize -= getMemorySize(iter.next());
+					iter.remove();
+				}
+			}
+		}
+
+		return image;
+	}
+
+	private static BufferedImage readFrameImage(IFile file, Rectangle src, Map<IFile, BufferedImage> fileImages) {
+		javafx.scene.image.Image fxImage = ImageCache.getLoadedFXImage(file);
+
+		if (fxImage != null) {
+			if (src.x < 0 || src.y < 0 || src.x + src.width > fxImage.getWidth()
+					|| src.y + src.height > fxImage.getHeight()) {
+				return null;
+			}
+
+			WritableImage region = new WritableImage(fxImage.getPixelReader(), src.x, src.y, src.width,
+					src.height);
+			return SwingFXUtils.fromFXImage(region, null);
+		}
+
+		BufferedImage fileImage = fileImages.get(file);
+
+		if (fileImage == null) {
+			try {
+				fileImage = ImageIO.read(file.getLocation().toFile());
+			} catch (IOException e) {
+				CanvasUI.logError(e);
+			}
+
+			if (fileImage == null) {
+				return null;
+			}
+
+			fileImages.put(file, fileImage);
+		}
+
+		if (src.x < 0 || src.y < 0 || src.x + src.width > fileImage.getWidth()
+				|| src.y + src.height > fileImage.getHeight()) {
+			return null;
+		}
+
+		// copy the region, a sub-image keeps the pixels of the whole image
+		BufferedImage image = new BufferedImage(src.width, src.height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2 = image.createGraphics();
+		try {
+			g2.drawImage(fileImage, 0, 0, src.width, src.height, src.x, src.y, src.x + src.width,
+					src.y + src.height, null);
+		} finally {
+			g2.dispose();
+		}
+
+		return image;
+	}
+
+	private static long getMemorySize(BufferedImage image) {
+		return (long) image.getWidth() * (long) image.getHeight() * 4;
+	}
+
+	/**
+	 * Forget the screenshot of the file.
+	 */
+	public static void clear(IFile file) throws CoreException, IOException {
+		Future<Path> task = _tasks.remove(file.getFullPath());
+		if (task != null) {
+			task.cancel(false);
+		}
+
+		String filename = file.getPersistentProperty(SNAPSHOT_FILENAME_KEY);
+		if (filename != null) {
+			Files.deleteIfExists(getSnapshotsDir().resolve(filename));
+			file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, null);
+		}
+	}
+}
@@ -21,17 +21,10 @@
 // USE OR OTHER DEALINGS IN THE SOFTWARE.
 package phasereditor.canvas.ui;
 
-import static java.lang.System.currentTimeMillis;
 import static java.lang.System.out;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
-import java.lang.reflect.Method;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,12 +34,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.BiFunction;
-
-import javax.imageio.ImageIO;
+import java.util.function.Function;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.QualifiedName;
@@ -56,7 +46,6 @@ import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
@@ -65,26 +54,12 @@ import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import com.subshell.snippets.jface.tooltip.tooltipsupport.ICustomInformationControlCreator;
 import com.subshell.snippets.jface.tooltip.tooltipsupport.TableViewerInformationProvider;
 import com.subshell.snippets.jface.tooltip.tooltipsupport.Tooltips;
 import com.subshell.snippets.jface.tooltip.tooltipsupport.TreeViewerInformationProvider;
 
-import javafx.embed.swing.SwingFXUtils;
-import javafx.geometry.Bounds;
-import javafx.geometry.Insets;
-import javafx.geometry.Rectangle2D;
-import javafx.scene.Node;
-import javafx.scene.Scene;
-import javafx.scene.SnapshotParameters;
-import javafx.scene.image.WritableImage;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundFill;
-import javafx.scene.layout.CornerRadii;
-import javafx.scene.paint.Color;
-import javafx.scene.transform.Scale;
 import phasereditor.assetpack.core.AssetModel;
 import phasereditor.assetpack.core.FindAssetReferencesResult;
 import phasereditor.assetpack.core.IAssetFrameModel;
@@ -100,18 +75,14 @@ import phasereditor.canvas.core.BaseSpriteModel;
 import phasereditor.canvas.core.CanvasCore;
 import phasereditor.canvas.core.CanvasCore.PrefabReference;
 import phasereditor.canvas.core.CanvasFile;
-import phasereditor.canvas.core.CanvasModel;
 import phasereditor.canvas.core.CanvasModelFactory;
 import phasereditor.canvas.core.GroupModel;
 import phasereditor.canvas.core.Prefab;
 import phasereditor.canvas.core.WorldModel;
 import phasereditor.canvas.ui.editors.CanvasEditor;
-import phasereditor.canvas.ui.editors.behaviors.SelectionBehavior;
 import phasereditor.canvas.ui.editors.operations.AddNodeOperation;
 import phasereditor.canvas.ui.editors.operations.CompositeOperation;
 import phasereditor.canvas.ui.editors.operations.DeleteNodeOperation;
-import phasereditor.canvas.ui.shapes.GroupControl;
-import phasereditor.canvas.ui.shapes.GroupNode;
 import phasereditor.canvas.ui.shapes.IObjectNode;
 import phasereditor.canvas.ui.shapes.ITextureChangeableControl;
 
@@ -120,14 +91,14 @@ import phasereditor.canvas.ui.shapes.ITextureChangeableControl;
  *
  */
 public class CanvasUI {
-	private static final int CANVAS_SCREENSHOT_SIZE = 256;
+	static final int CANVAS_SCREENSHOT_SIZE = 256;
 	public static final String PLUGIN_ID = "phasereditor.canvas.ui";
 
 	public static void logError(Exception e) {
 		StatusManager.getManager().handle(new Status(IStatus.ERROR, PLUGIN_ID, e.getMessage(), e));
 	}
 
-	private static final QualifiedName SNAPSHOT_FILENAME_KEY = new QualifiedName("phasereditor.canvas.core",
+	static final QualifiedName SNAPSHOT_FILENAME_KEY = new QualifiedName("phasereditor.canvas.core",
 			"snapshot-file");
 
 	public static class FindPrefabReferencesResult {
@@ -201,13 +172,13 @@ public class CanvasUI {
 
 	public static FindAssetReferencesResult findAllKeyAssetReferences(IAssetKey assetKey, IProgressMonitor monitor) {
 		return findAllAssetElementReferences(assetKey, CanvasUI::findAssetKeyReferencesInEditorsContent,
-				CanvasCore::findAssetKeyReferencesInFileContent, monitor);
+				CanvasCore::findAssetKeyReferencesInFiles, monitor);
 	}
 
 	public static FindAssetReferencesResult findAllAssetReferences(AssetModel asset, IProgressMonitor monitor) {
 		return findAllAssetElementReferences(asset,
 				(key, pm) -> CanvasUI.findAssetReferencesInEditorsContent((AssetModel) key, pm),
-				(key, file) -> CanvasCore.findAssetReferencesInFileContent(asset, file), monitor);
+				key -> CanvasCore.findAssetReferencesInFiles(asset), monitor);
 	}
 
 	private static FindAssetReferencesResult findAllAssetElementReferences(
@@ -216,29 +187,22 @@ public class CanvasUI {
 
 			BiFunction<IAssetKey, IProgressMonitor, List<IAssetReference>> findInEditorMethod,
 
-			BiFunction<IAssetKey, IFile, List<IAssetReference>> findInFileMethod,
+			Function<IAssetKey, List<IAssetReference>> findInFilesMethod,
 
 			IProgressMonitor monitor) {
 		FindAssetReferencesResult result = new FindAssetReferencesResult();
 
-		monitor.beginTask("Finding prefab references", CANVAS_SCREENSHOT_SIZE);
-
-		IProject project = assetKey.getAsset().getPack().getFile().getProject();
+		monitor.beginTask("Finding asset references", CANVAS_SCREENSHOT_SIZE);
 
-		List<IAssetReference> refs = findInEditorMethod.apply(assetKey, monitor); // findAssetKeyReferencesInEditorsContent(assetKey,
-																					// monitor);
+		List<IAssetReference> refs = findInEditorMethod.apply(assetKey, monitor);
 		result.addAll(refs);
 
-		List<CanvasFile> cfiles = CanvasCore.getCanvasFileCache().getProjectData(project);
+		// the saved files are searched in the reference index
 
-		monitor.beginTask("Find prefab references in files", cfiles.size());
+		monitor.subTask("Find asset references in files");
 
-		for (CanvasFile cfile : cfiles) {
-			List<IAssetReference> fileRefs = findInFileMethod.apply(assetKey, cfile.getFile()); // CanvasCore.findAssetKeyReferencesInFileContent(assetKey,
-																								// cfile.getFile());
-			result.addAll(fileRefs);
-			monitor.worked(1);
-		}
+		List<IAssetReference> fileRefs = findInFilesMethod.apply(assetKey);
+		result.addAll(fileRefs);
 
 		return result;
 	}
@@ -277,20 +241,15 @@ public class CanvasUI {
 
 		monitor.beginTask("Finding prefab references", CANVAS_SCREENSHOT_SIZE);
 
-		IProject project = prefab.getFile().getProject();
-
 		List<PrefabReference> refs = findPrefabReferencesInEditorsContent(prefab, monitor);
 		result.addAll(refs);
 
-		List<CanvasFile> cfiles = CanvasCore.getCanvasFileCache().getProjectData(project);
+		// the saved files are searched in the reference index
 
-		monitor.beginTask("Find prefab references in files", cfiles.size());
+		monitor.subTask("Find prefab references in files");
 
-		for (CanvasFile cfile : cfiles) {
-			List<PrefabReference> fileRefs = CanvasCore.findPrefabReferencesInFileContent(prefab, cfile.getFile());
-			result.addAll(fileRefs);
-			monitor.worked(1);
-		}
+		List<PrefabReference> fileRefs = CanvasCore.findPrefabReferencesInFiles(prefab);
+		result.addAll(fileRefs);
 
 		return result;
 	}
@@ -390,129 +349,45 @@ public class CanvasUI {
 				return;
 			}
 
-			String fname = file.getPersistentProperty(SNAPSHOT_FILENAME_KEY);
-			if (fname == null) {
-				return;
-			}
-
-			String home = System.getProperty("user.home");
-			Path dir = Paths.get(home).resolve(".phasereditor/snapshots");
-			Path snapshot = dir.resolve(fname);
-			if (Files.exists(snapshot)) {
-				out.println("Removing snapshot from " + file);
-				Files.delete(snapshot);
-			}
-			file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, null);
+			out.println("Removing snapshot from " + file);
+			CanvasScreenshotRenderer.clear(file);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Get the screenshot of the canvas file.
+	 * 
+	 * @param makeIfNotExist
+	 *            If the screenshot should be made (if it is not up to date).
+	 *            It waits for the {@link CanvasScreenshotRenderer}, so do not
+	 *            call it from the UI thread.
+	 */
 	public static Path getCanvasScreenshotFile(IFile file, boolean makeIfNotExist) {
 		if (file == null) {
 			return null;
 		}
 
+		if (makeIfNotExist) {
+			Path path = CanvasScreenshotRenderer.renderAndWait(file);
+			if (path != null) {
+				return path;
+			}
+		}
+
 		try {
 			String filename = file.getPersistentProperty(SNAPSHOT_FILENAME_KEY);
-			String home = System.getProperty("user.home");
-			Path dir = Paths.get(home).resolve(".phasereditor/snapshots");
-			Path writeTo;
 			if (filename == null) {
 				filename = file.getName() + "_" + UUID.randomUUID().toString() + ".png";
+				file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, filename);
 			}
-			writeTo = dir.resolve(filename);
-
-			if (makeIfNotExist) {
-				if (!Files.exists(writeTo)) {
-					makeCanvasScreenshot(file, writeTo);
-				}
-			}
-
-			file.setPersistentProperty(SNAPSHOT_FILENAME_KEY, filename);
-
-			return writeTo;
+			return CanvasScreenshotRenderer.getSnapshotsDir().resolve(filename);
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 
-	public static javafx.scene.image.Image makeCanvasScreenshot_FXImage(IFile file, int maxSize) {
-		javafx.scene.image.Image[] result = new javafx.scene.image.Image[1];
-
-		try (InputStream contents = file.getContents()) {
-			CanvasModel model = new CanvasModel(file);
-			model.read(new JSONObject(new JSONTokener(contents)));
-			GroupControl worldControl = new GroupControl(null, model.getWorld());
-			GroupNode node = worldControl.getNode();
-
-			Scene scene = new Scene(node);
-
-			Display.getDefault().syncExec(new Runnable() {
-
-				@Override
-				public void run() {
-
-					try {
-						Method m = Scene.class.getDeclaredMethod("doCSSLayoutSyncForSnapshot", Node.class);
-						m.setAccessible(true);
-						m.invoke(scene, node);
-					} catch (Exception e1) {
-						e1.printStackTrace();
-					}
-
-					SnapshotParameters params = new SnapshotParameters();
-					params.setFill(Color.TRANSPARENT);
-					node.setBackground(
-							new Background(new BackgroundFill(Color.TRANSPARENT, new CornerRadii(0), new Insets(0))));
-
-					Bounds b = SelectionBehavior.buildSelectionBounds(node.getChildren(), node);
-
-					if (b != null) {
-						// out.println("Bounds: " + b);
-						double f = 1;
-						double x = b.getMinX();
-						double y = b.getMinY();
-						double w = b.getWidth();
-						double h = b.getHeight();
-
-						double max = Math.max(w, h);
-						if (max > maxSize) {
-							f = maxSize / max;
-						}
-
-						params.setTransform(new Scale(f, f, x, y));
-						params.setViewport(new Rectangle2D(x, y, w * f, h * f));
-					}
-
-					WritableImage image = node.snapshot(params, null);
-					result[0] = image;
-				}
-			});
-		} catch (IOException | CoreException e) {
-			e.printStackTrace();
-		}
-
-		return result[0];
-	}
-
-	public static void makeCanvasScreenshot(IFile file, Path writeTo) {
-		long t = currentTimeMillis();
-
-		javafx.scene.image.Image fxImage = makeCanvasScreenshot_FXImage(file, CANVAS_SCREENSHOT_SIZE);
-
-		BufferedImage buff = SwingFXUtils.fromFXImage(fxImage, null);
-
-		try {
-			ImageIO.write(buff, "png", writeTo.toFile());
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-
-		out.println(
-				"Ready canvas snapshot src:" + file + " --> dst:" + writeTo + " " + (currentTimeMillis() - t) + "ms");
-	}
-
 	public static void installCanvasTooltips(TreeViewer viewer) {
 		Tooltips.install(viewer.getControl(), new TreeViewerInformationProvider(viewer), getCanvasTooltipsCreators(),
 				false);
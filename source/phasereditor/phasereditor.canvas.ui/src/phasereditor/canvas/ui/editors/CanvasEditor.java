@@ -24,9 +24,7 @@ package phasereditor.canvas.ui.editors;
 import static phasereditor.ui.PhaserEditorUI.swtRun;
 
 import java.beans.PropertyChangeEvent;
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -34,12 +32,10 @@ import java.util.concurrent.Executors;
 import org.eclipse.core.commands.operations.IUndoContext;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
-import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.action.GroupMarker;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.dialogs.MessageDialog;
@@ -87,15 +83,13 @@ import org.eclipse.ui.texteditor.AbstractTextEditor;
 import org.eclipse.ui.texteditor.ITextEditorActionConstants;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import javafx.geometry.Point2D;
 import phasereditor.canvas.core.CanvasCore;
 import phasereditor.canvas.core.CanvasModel;
 import phasereditor.canvas.core.CanvasType;
 import phasereditor.canvas.core.WorldModel;
-import phasereditor.canvas.core.codegen.CanvasCodeGeneratorProvider;
-import phasereditor.canvas.core.codegen.ICodeGenerator;
+import phasereditor.canvas.core.codegen.CanvasCodeWriter;
 import phasereditor.canvas.ui.editors.behaviors.ZoomBehavior;
 import phasereditor.canvas.ui.editors.config.CanvasSettingsComp;
 import phasereditor.canvas.ui.editors.grid.PGrid;
@@ -267,7 +261,7 @@ public class CanvasEditor extends MultiPageEditorPart implements IPersistableEdi
 		IFileEditorInput fileInput = (IFileEditorInput) input;
 		IFile file = fileInput.getFile();
 		try (InputStream contents = file.getContents();) {
-			JSONObject data = new JSONObject(new JSONTokener(contents));
+			JSONObject data = JSONObject.read(contents);
 			_model = new CanvasModel(file);
 			try {
 				_model.read(data);
@@ -667,12 +661,7 @@ public class CanvasEditor extends MultiPageEditorPart implements IPersistableEdi
 	}
 
 	public IFile getFileToGenerate() {
-		IFile canvasFile = getEditorInputFile();
-
-		String fname = canvasFile.getFullPath().removeFileExtension()
-				.addFileExtension(getCanvas().getSettingsModel().getLang().getExtension()).lastSegment();
-
-		return canvasFile.getParent().getFile(new Path(fname));
+		return CanvasCodeWriter.getFileToGenerate(getEditorInputFile(), getCanvas().getSettingsModel().getLang());
 	}
 
 	public void generateCode() {
@@ -683,26 +672,11 @@ public class CanvasEditor extends MultiPageEditorPart implements IPersistableEdi
 			return;
 		}
 
-		ICodeGenerator generator = new CanvasCodeGeneratorProvider().getCodeGenerator(_model);
-
 		try {
 			IFile file = getFileToGenerate();
-			String replace = null;
 
-			if (file.exists()) {
-				byte[] bytes = Files.readAllBytes(file.getLocation().makeAbsolute().toFile().toPath());
-				replace = new String(bytes);
-			}
-
-			String content = generator.generate(replace);
-
-			ByteArrayInputStream stream = new ByteArrayInputStream(content.getBytes());
-			if (file.exists()) {
-				file.setContents(stream, IResource.NONE, null);
-			} else {
-				file.create(stream, false, null);
-			}
-			file.refreshLocal(1, null);
+			// the file is written only if the generated code changed
+			new CanvasCodeWriter(_model, file).write(null);
 
 			// if the source page is not created yet do it right now!
 			if (getSourceEditor() == null) {
@@ -43,6 +43,7 @@ import phasereditor.canvas.ui.editors.behaviors.CreateBehavior;
 import phasereditor.canvas.ui.editors.behaviors.DragBehavior;
 import phasereditor.canvas.ui.editors.behaviors.HandlerBehavior;
 import phasereditor.canvas.ui.editors.behaviors.MouseBehavior;
+import phasereditor.canvas.ui.editors.behaviors.ObjectSpatialIndex;
 import phasereditor.canvas.ui.editors.behaviors.PaintBehavior;
 import phasereditor.canvas.ui.editors.behaviors.SelectionBehavior;
 import phasereditor.canvas.ui.editors.behaviors.UpdateBehavior;
@@ -81,6 +82,7 @@ public class ObjectCanvas extends FXCanvas {
 	private EditorSettings _settingsModel;
 	private Pane _handlerPane;
 	private HandlerBehavior _handlerBehavior;
+	private final ObjectSpatialIndex _spatialIndex = new ObjectSpatialIndex(this);
 
 	public ObjectCanvas(Composite parent, int style) {
 		super(parent, style);
@@ -163,6 +165,10 @@ public class ObjectCanvas extends FXCanvas {
 		return _selectionBehavior;
 	}
 
+	public ObjectSpatialIndex getSpatialIndex() {
+		return _spatialIndex;
+	}
+
 	public DragBehavior getDragBehavior() {
 		return _dragBehavior;
 	}
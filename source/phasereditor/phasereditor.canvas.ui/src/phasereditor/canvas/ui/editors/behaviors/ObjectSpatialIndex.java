@@ -0,0 +1,281 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.canvas.ui.editors.behaviors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import phasereditor.canvas.ui.editors.ObjectCanvas;
+import phasereditor.canvas.ui.shapes.GroupNode;
+import phasereditor.canvas.ui.shapes.IObjectNode;
+
+/**
+ * A grid of the bounds (in world coordinates) of the objects of the canvas,
+ * to find the objects under a point or inside a box without test all the
+ * objects of the scene.
+ * 
+ * The controls invalidate the index when the bounds of the objects or the
+ * children of the groups change, and it is built again in the next query.
+ * 
+ * @author arian
+ *
+ */
+public class ObjectSpatialIndex {
+	private static final double CELL_SIZE = 256;
+	/**
+	 * Objects covering more cells than this are not put in the grid, they are
+	 * tested in all the queries.
+	 */
+	private static final int MAX_CELLS_PER_ENTRY = 256;
+
+	private static class Entry {
+		public IObjectNode inode;
+		public Bounds bounds;
+		/**
+		 * The paint order of the object, the greater rank is painted on top.
+		 */
+		public int rank;
+
+		public Entry(IObjectNode inode, Bounds bounds, int rank) {
+			super();
+			this.inode = inode;
+			this.bounds = bounds;
+			this.rank = rank;
+		}
+	}
+
+	private static final Comparator<Entry> RANK_ORDER = (a, b) -> Integer.compare(a.rank, b.rank);
+
+	private ObjectCanvas _canvas;
+	private boolean _dirty;
+	private GroupNode _world;
+	private Map<Long, List<Entry>> _cells;
+	private List<Entry> _largeEntries;
+	private Map<String, IObjectNode> _idMap;
+
+	public ObjectSpatialIndex(ObjectCanvas canvas) {
+		_canvas = canvas;
+		_dirty = true;
+	}
+
+	/**
+	 * Mark the index to be built again in the next query.
+	 */
+	public void invalidate() {
+		_dirty = true;
+	}
+
+	private static long cellKey(int cx, int cy) {
+		return ((long) cx << 32) ^ (cy & 0xffffffffL);
+	}
+
+	private static int cell(double v) {
+		return (int) Math.floor(v / CELL_SIZE);
+	}
+
+	private void update() {
+		GroupNode world = _canvas.getWorldNode();
+
+		if (!_dirty && world == _world) {
+			return;
+		}
+
+		_world = world;
+		_cells = new HashMap<>();
+		_largeEntries = new ArrayList<>();
+		_idMap = new HashMap<>();
+
+		int[] rank = { 0 };
+
+		for (Node child : world.getChildren()) {
+			addNode(child, world, rank);
+		}
+
+		_dirty = false;
+	}
+
+	private void addNode(Node node, GroupNode world, int[] rank) {
+		if (!(node instanceof IObjectNode)) {
+			return;
+		}
+
+		IObjectNode inode = (IObjectNode) node;
+
+		_idMap.put(inode.getModel().getId(), inode);
+
+		// get the bounds in parent, so it is validated and the invalidation
+		// listener is called again in the next change
+		Bounds b = SelectionBehavior.localToAncestor(node.getBoundsInParent(), node.getParent(), world);
+
+		Entry entry = new Entry(inode, b, rank[0]++);
+
+		if (!b.isEmpty() && !Double.isNaN(b.getMinX()) && !Double.isNaN(b.getMinY())) {
+			int cx0 = cell(b.getMinX());
+			int cy0 = cell(b.getMinY());
+			int cx1 = cell(b.getMaxX());
+			int cy1 = cell(b.getMaxY());
+
+			if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_CELLS_PER_ENTRY) {
+				_largeEntries.add(entry);
+			} else {
+				for (int cx = cx0; cx <= cx1; cx++) {
+					for (int cy = cy0; cy <= cy1; cy++) {
+						_cells.computeIfAbsent(Long.valueOf(cellKey(cx, cy)), k -> new ArrayList<>()).add(entry);
+					}
+				}
+			}
+		}
+
+		if (node instanceof GroupNode) {
+			for (Node child : ((GroupNode) node).getChildren()) {
+				addNode(child, world, rank);
+			}
+		}
+	}
+
+	/**
+	 * Find the objects with bounds containing the point.
+	 * 
+	 * @param x
+	 *            The x in world coordinates.
+	 * @param y
+	 *            The y in world coordinates.
+	 * @return The objects, the top most object first.
+	 */
+	public List<IObjectNode> findAt(double x, double y) {
+		update();
+
+		List<Entry> result = new ArrayList<>();
+
+		List<Entry> cell = _cells.get(Long.valueOf(cellKey(cell(x), cell(y))));
+
+		if (cell != null) {
+			for (Entry entry : cell) {
+				if (entry.bounds.contains(x, y)) {
+					result.add(entry);
+				}
+			}
+		}
+
+		for (Entry entry : _largeEntries) {
+			if (entry.bounds.contains(x, y)) {
+				result.add(entry);
+			}
+		}
+
+		result.sort(Collections.reverseOrder(RANK_ORDER));
+
+		return toNodes(result);
+	}
+
+	/**
+	 * Find the objects with bounds intersecting the box.
+	 * 
+	 * @param box
+	 *            The box in world coordinates.
+	 * @return The objects, in paint order.
+	 */
+	public List<IObjectNode> findIntersecting(Bounds box) {
+		update();
+
+		Set<Entry> set = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		int cx0 = cell(box.getMinX());
+		int cy0 = cell(box.getMinY());
+		int cx1 = cell(box.getMaxX());
+		int cy1 = cell(box.getMaxY());
+
+		if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > _cells.size()) {
+			// the box is big, it is faster to check all the cells
+			for (List<Entry> cell : _cells.values()) {
+				addIntersecting(cell, box, set);
+			}
+		} else {
+			for (int cx = cx0; cx <= cx1; cx++) {
+				for (int cy = cy0; cy <= cy1; cy++) {
+					List<Entry> cell = _cells.get(Long.valueOf(cellKey(cx, cy)));
+					if (cell != null) {
+						addIntersecting(cell, box, set);
+					}
+				}
+			}
+		}
+
+		addIntersecting(_largeEntries, box, set);
+
+		List<Entry> result = new ArrayList<>(set);
+		result.sort(RANK_ORDER);
+
+		return toNodes(result);
+	}
+
+	private static void addIntersecting(List<Entry> entries, Bounds box, Set<Entry> result) {
+		for (Entry entry : entries) {
+			if (entry.bounds.intersects(box)) {
+				result.add(entry);
+			}
+		}
+	}
+
+	private static List<IObjectNode> toNodes(List<Entry> entries) {
+		List<IObjectNode> list = new ArrayList<>(entries.size());
+		for (Entry entry : entries) {
+			list.add(entry.inode);
+		}
+		return list;
+	}
+
+	/**
+	 * Find the object with the given model id.
+	 * 
+	 * @return The object or <code>null</code> if it is not found.
+	 */
+	public IObjectNode findById(String id) {
+		boolean built = _dirty || _world != _canvas.getWorldNode();
+
+		update();
+
+		IObjectNode inode = _idMap.get(id);
+
+		if (inode != null && inode.getModel().getId().equals(id)) {
+			return inode;
+		}
+
+		if (built) {
+			return null;
+		}
+
+		// maybe the id of a model changed, build it again
+		_dirty = true;
+		update();
+
+		return _idMap.get(id);
+	}
+}
@@ -23,8 +23,10 @@ package phasereditor.canvas.ui.editors.behaviors;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,7 +40,6 @@ import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 
-import javafx.collections.ObservableList;
 import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
@@ -50,7 +51,6 @@ import phasereditor.canvas.core.BaseObjectModel;
 import phasereditor.canvas.ui.editors.ObjectCanvas;
 import phasereditor.canvas.ui.editors.SelectionBoxNode;
 import phasereditor.canvas.ui.editors.SelectionNode;
-import phasereditor.canvas.ui.shapes.BaseObjectControl;
 import phasereditor.canvas.ui.shapes.GroupNode;
 import phasereditor.canvas.ui.shapes.IObjectNode;
 import phasereditor.canvas.ui.shapes.ISpriteNode;
@@ -65,6 +65,7 @@ public class SelectionBehavior implements ISelectionProvider {
 	private ListenerList<ISelectionChangedListener> _listenerList;
 	private IStructuredSelection _selection;
 	private List<IObjectNode> _selectedNodes;
+	private Set<Object> _selectedSet;
 	private SelectionBoxNode _selectionBox;
 	private Point2D _boxStart;
 
@@ -73,6 +74,7 @@ public class SelectionBehavior implements ISelectionProvider {
 		_canvas = canvas;
 		_selection = StructuredSelection.EMPTY;
 		_selectedNodes = new ArrayList<>();
+		_selectedSet = Collections.newSetFromMap(new IdentityHashMap<>());
 		_listenerList = new ListenerList<>(ListenerList.IDENTITY);
 
 		_canvas.getOutline().addSelectionChangedListener(new ISelectionChangedListener() {
@@ -91,32 +93,67 @@ public class SelectionBehavior implements ISelectionProvider {
 		});
 	}
 
-	private Node pickNode(Node test, double sceneX, double sceneY) {
-		if (test instanceof IObjectNode) {
-			BaseObjectModel model = ((IObjectNode) test).getModel();
-			if (!model.isEditorPick()) {
-				return null;
+	/**
+	 * Find the top most object under the point. Only the objects with bounds
+	 * containing the point (given by the spatial index) are tested.
+	 */
+	private Node pickNode(double sceneX, double sceneY) {
+		GroupNode world = _canvas.getWorldNode();
+		Point2D worldPoint = world.sceneToLocal(sceneX, sceneY);
+
+		for (IObjectNode inode : _canvas.getSpatialIndex().findAt(worldPoint.getX(), worldPoint.getY())) {
+			if (!isPickable(inode)) {
+				continue;
+			}
+
+			Node node = inode.getNode();
+			Point2D p = node.sceneToLocal(sceneX, sceneY);
+
+			if (node.contains(p)) {
+				return node;
 			}
 		}
 
-		if (test instanceof GroupNode) {
-			ObservableList<Node> list = ((GroupNode) test).getChildren();
-			for (int i = list.size() - 1; i >= 0; i--) {
-				Node child = list.get(i);
-				Node result = pickNode(child, sceneX, sceneY);
-				if (result != null) {
-					return result;
-				}
+		return null;
+	}
+
+	/**
+	 * An object is pickable if it and all its ancestors are pickable.
+	 */
+	private boolean isPickable(IObjectNode inode) {
+		Node world = _canvas.getWorldNode();
+		Node node = inode.getNode();
+
+		while (node instanceof IObjectNode) {
+			if (!((IObjectNode) node).getModel().isEditorPick()) {
+				return false;
 			}
+
+			if (node == world) {
+				break;
+			}
+
+			node = node.getParent();
 		}
 
-		Point2D p = test.sceneToLocal(sceneX, sceneY);
+		return true;
+	}
+
+	/**
+	 * If the object is inside a closed group.
+	 */
+	private boolean isInsideClosedGroup(IObjectNode inode) {
+		Node world = _canvas.getWorldNode();
+		Node parent = inode.getNode().getParent();
 
-		if (test.contains(p)) {
-			return test;
+		while (parent instanceof GroupNode && parent != world) {
+			if (((GroupNode) parent).getModel().isEditorClosed()) {
+				return true;
+			}
+			parent = parent.getParent();
 		}
 
-		return null;
+		return false;
 	}
 
 	void handleMouseReleased(MouseEvent e) {
@@ -127,7 +164,7 @@ public class SelectionBehavior implements ISelectionProvider {
 			return;
 		}
 
-		Node userPicked = pickNode(_canvas.getWorldNode(), e.getSceneX(), e.getSceneY());
+		Node userPicked = pickNode(e.getSceneX(), e.getSceneY());
 
 		Node picked = findBestToPick(userPicked);
 
@@ -182,15 +219,21 @@ public class SelectionBehavior implements ISelectionProvider {
 	private void selectBox(SelectionBoxNode selectionBox) {
 		List<Object> list = new ArrayList<>();
 		Bounds selBounds = selectionBox.localToScene(selectionBox.getBoundsInLocal());
+		Bounds worldBounds = _canvas.getWorldNode().sceneToLocal(selBounds);
 
-		_canvas.getWorldNode().walkTree(inode -> {
+		for (IObjectNode inode : _canvas.getSpatialIndex().findIntersecting(worldBounds)) {
 			if (!inode.getModel().isEditorPick()) {
-				return;
+				continue;
 			}
 
 			if (inode instanceof GroupNode && !((GroupNode) inode).getModel().isEditorClosed()) {
 				// do not select open groups, else the children of the group
-				return;
+				continue;
+			}
+
+			if (isInsideClosedGroup(inode)) {
+				// the closed group is selected, not its children
+				continue;
 			}
 
 			Node node = inode.getNode();
@@ -198,7 +241,7 @@ public class SelectionBehavior implements ISelectionProvider {
 			if (selBounds.contains(b)) {
 				list.add(inode);
 			}
-		}, false);
+		}
 
 		setSelection(new StructuredSelection(list));
 	}
@@ -255,17 +298,7 @@ public class SelectionBehavior implements ISelectionProvider {
 	}
 
 	public boolean isSelected(Object node) {
-		if (_selection == null) {
-			return false;
-		}
-
-		for (Object e : _selection.toArray()) {
-			if (e == node) {
-				return true;
-			}
-		}
-
-		return false;
+		return _selectedSet.contains(node);
 	}
 
 	@Override
@@ -295,16 +328,16 @@ public class SelectionBehavior implements ISelectionProvider {
 	public void setSelection(List<String> nodeIds) {
 		List<Object> selection = new ArrayList<>();
 		for (String id : nodeIds) {
-			BaseObjectControl<?> control = _canvas.getWorldNode().getControl().findById(id);
-			if (control != null) {
-				selection.add(control.getNode());
+			IObjectNode inode = _canvas.getSpatialIndex().findById(id);
+			if (inode != null) {
+				selection.add(inode.getNode());
 			}
 		}
 		setSelection(new StructuredSelection(selection));
 	}
 
 	public boolean containsInSelection(Node node) {
-		return _selection != null && _selection.toList().contains(node);
+		return _selectedSet.contains(node);
 	}
 
 	@Override
@@ -340,6 +373,10 @@ public class SelectionBehavior implements ISelectionProvider {
 				list.add((IObjectNode) obj);
 			}
 			_selectedNodes = list;
+
+			Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>());
+			set.addAll(list);
+			_selectedSet = set;
 		}
 
 		{
@@ -370,12 +407,11 @@ public class SelectionBehavior implements ISelectionProvider {
 				if (inode.getNode().getParent() == null) {
 					// is possible the node was detached because a rebuild or
 					// morphings, etc...
-					BaseObjectControl<?> control = _canvas.getWorldNode().getControl()
-							.findById(inode.getModel().getId());
-					if (control == null) {
+					IObjectNode found = _canvas.getSpatialIndex().findById(inode.getModel().getId());
+					if (found == null) {
 						continue;
 					}
-					inode = control.getIObjectNode();
+					inode = found;
 				}
 
 				Node node = inode.getNode();
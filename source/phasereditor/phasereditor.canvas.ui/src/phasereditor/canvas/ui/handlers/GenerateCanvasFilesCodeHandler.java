@@ -0,0 +1,71 @@
+package phasereditor.canvas.ui.handlers;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.ui.handlers.HandlerUtil;
+
+import phasereditor.canvas.core.CanvasCore;
+import phasereditor.canvas.core.codegen.CanvasCodeGenerationBatch;
+
+/**
+ * Generates the code of all the canvas files in the selected resources.
+ * 
+ * @author arian
+ *
+ */
+public class GenerateCanvasFilesCodeHandler extends AbstractHandler {
+
+	@Override
+	public Object execute(ExecutionEvent event) throws ExecutionException {
+		ISelection selection = HandlerUtil.getCurrentSelection(event);
+
+		Map<IProject, Set<IFile>> map = new LinkedHashMap<>();
+
+		if (selection instanceof IStructuredSelection) {
+			for (Object elem : ((IStructuredSelection) selection).toArray()) {
+				IResource root = Platform.getAdapterManager().getAdapter(elem, IResource.class);
+				if (root != null) {
+					try {
+						root.accept(resource -> {
+							if (resource instanceof IFile && CanvasCore.isCanvasFile((IFile) resource)) {
+								map.computeIfAbsent(resource.getProject(), k -> new LinkedHashSet<>())
+										.add((IFile) resource);
+							}
+							return true;
+						});
+					} catch (CoreException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			}
+		}
+
+		if (map.isEmpty()) {
+			MessageDialog.openInformation(HandlerUtil.getActiveShell(event), "Generate Code",
+					"No canvas files selected.");
+			return null;
+		}
+
+		for (Entry<IProject, Set<IFile>> entry : map.entrySet()) {
+			CanvasCodeGenerationBatch.schedule(entry.getKey(), entry.getValue(), false);
+		}
+
+		return null;
+	}
+
+}
@@ -23,10 +23,9 @@ package phasereditor.canvas.ui.refactoring;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -39,7 +38,6 @@ import phasereditor.assetpack.core.AssetModel;
 import phasereditor.assetpack.core.AssetSectionModel;
 import phasereditor.assetpack.core.IAssetElementModel;
 import phasereditor.canvas.core.CanvasCore;
-import phasereditor.canvas.core.CanvasFile;
 import phasereditor.canvas.core.CanvasModel;
 import phasereditor.canvas.core.WorldModel;
 import phasereditor.canvas.ui.editors.CanvasEditor;
@@ -80,14 +78,13 @@ public class RenameAssetSectionInCanvasChange extends Change {
 	@Override
 	public Change perform(IProgressMonitor pm) throws CoreException {
 
-		IProject project = _file.getProject();
-		List<CanvasFile> cfiles = CanvasCore.getCanvasFileCache().getProjectData(project);
+		// update files, only those referencing the section
 
-		// update files
+		Set<IFile> files = CanvasCore.getCanvasReferenceIndex().findFilesReferencingSection(_file, _initialName);
 
-		for (CanvasFile cfile : cfiles) {
+		for (IFile file : files) {
 			try {
-				renameInFile(cfile.getFile(), pm);
+				renameInFile(file, pm);
 			} catch (Exception e) {
 				throw new RuntimeException(e);
 			}
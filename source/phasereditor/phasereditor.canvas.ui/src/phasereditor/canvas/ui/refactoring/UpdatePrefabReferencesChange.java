@@ -40,7 +40,6 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.ltk.core.refactoring.Change;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import javafx.scene.Node;
 import phasereditor.canvas.core.BaseObjectModel;
@@ -62,7 +61,7 @@ public class UpdatePrefabReferencesChange extends Change {
 	private IPath _dstPath;
 	private IProject _project;
 	private List<CanvasEditor> _affectedEditors;
-	private List<CanvasFile> _affectedFiles;
+	private List<IFile> _affectedFiles;
 
 	public UpdatePrefabReferencesChange(IProject project, IPath srcPath, IPath dstPath) {
 		super();
@@ -100,14 +99,17 @@ public class UpdatePrefabReferencesChange extends Change {
 			});
 		}
 
-		for (CanvasFile cfile : cfiles) {
-			IFile file = cfile.getFile();
+		// only the saved files referencing the prefab need to be updated
 
+		Set<IFile> files = CanvasCore.getCanvasReferenceIndex()
+				.findFilesReferencingPrefab(_project.getFile(_srcPath));
+
+		for (IFile file : files) {
 			if (skip.contains(file.getProjectRelativePath())) {
 				continue;
 			}
 
-			_affectedFiles.add(cfile);
+			_affectedFiles.add(file);
 		}
 
 	}
@@ -141,10 +143,9 @@ public class UpdatePrefabReferencesChange extends Change {
 		String srcFileName = _srcPath.toPortableString();
 		String dstFileName = _dstPath.toPortableString();
 
-		for (CanvasFile cfile : _affectedFiles) {
-			IFile file = cfile.getFile();
+		for (IFile file : _affectedFiles) {
 			try (InputStream contents = file.getContents()) {
-				JSONObject data = new JSONObject(new JSONTokener(contents));
+				JSONObject data = JSONObject.read(contents);
 
 				boolean modified = false;
 
@@ -1,5 +1,8 @@
 package phasereditor.canvas.ui.refactoring;
 
+import static phasereditor.ui.PhaserEditorUI.swtRun;
+
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.eclipse.core.resources.IFile;
@@ -9,12 +12,14 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 
+import phasereditor.canvas.ui.CanvasScreenshotRenderer;
 import phasereditor.canvas.ui.CanvasUI;
 import phasereditor.ui.ImageCanvas;
 
 public class UsingPrefabStatusContextViewer implements IStatusContextViewer {
 
 	private ImageCanvas _control;
+	private IFile _file;
 
 	@Override
 	public void createControl(Composite parent) {
@@ -30,8 +35,24 @@ public class UsingPrefabStatusContextViewer implements IStatusContextViewer {
 	public void setInput(RefactoringStatusContext input) {
 		CanvasFileRefactoringStatusContext context = (CanvasFileRefactoringStatusContext) input;
 		IFile clientFile = context.getCorrespondingElement();
-		Path screenshot = CanvasUI.getCanvasScreenshotFile(clientFile, true);
-		_control.setImageFile(screenshot.toFile().getAbsolutePath());
+		_file = clientFile;
+
+		// show the current screenshot and update it when the renderer is done
+		Path screenshot = CanvasUI.getCanvasScreenshotFile(clientFile, false);
+		_control.setImageFile(Files.exists(screenshot) ? screenshot.toFile().getAbsolutePath() : null);
+
+		CanvasScreenshotRenderer.submit(clientFile, path -> {
+			if (path == null) {
+				return;
+			}
+
+			swtRun(() -> {
+				if (_control.isDisposed() || _file != clientFile) {
+					return;
+				}
+				_control.setImageFile(path.toFile().getAbsolutePath());
+			});
+		});
 	}
 
 }
@@ -80,6 +80,10 @@ public abstract class BaseObjectControl<T extends BaseObjectModel> {
 		_node = _inode.getNode();
 		_propModel = new PGridModel();
 
+		if (_canvas != null) {
+			_node.boundsInParentProperty().addListener(o -> _canvas.getSpatialIndex().invalidate());
+		}
+
 		initPGridModel(_propModel);
 
 		updateFromModel();
@@ -26,6 +26,7 @@ import java.util.List;
 
 import org.json.JSONObject;
 
+import javafx.beans.InvalidationListener;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import phasereditor.canvas.core.BaseObjectModel;
@@ -79,6 +80,12 @@ public class GroupControl extends BaseObjectControl<GroupModel> {
 			BaseObjectControl<?> control = CanvasObjectFactory.createObjectControl(getCanvas(), child);
 			group.getChildren().add(control.getNode());
 		}
+
+		ObjectCanvas canvas = getCanvas();
+		if (canvas != null) {
+			group.getChildren().addListener((InvalidationListener) o -> canvas.getSpatialIndex().invalidate());
+		}
+
 		return group;
 	}
 
@@ -24,12 +24,13 @@ package phasereditor.canvas.ui.shapes;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 
-import javafx.geometry.Point2D;
-import javafx.geometry.Rectangle2D;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.scene.Node;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
 import javafx.scene.layout.Pane;
+import javafx.scene.paint.ImagePattern;
 import phasereditor.assetpack.core.FrameData;
 import phasereditor.assetpack.core.IAssetFrameModel;
 import phasereditor.assetpack.core.IAssetKey;
@@ -38,6 +39,10 @@ import phasereditor.canvas.core.TileSpriteModel;
 import phasereditor.ui.ImageCache;
 
 /**
+ * Renders the tiles with a single rectangle filled with an image pattern. The
+ * image of the tile (the frame) is created only when the frame changes, the
+ * other properties just update the pattern.
+ * 
  * @author arian
  *
  */
@@ -45,48 +50,39 @@ public class TileSpriteNode extends Pane implements ISpriteNode {
 
 	private FrameData _frame;
 	private TileSpriteControl _control;
+	private javafx.scene.shape.Rectangle _shape;
+	private Image _tileImage;
+	private Image _tileImageSource;
+	private Rectangle _tileImageRect;
+	private Image _pendingImage;
 
 	public TileSpriteNode(TileSpriteControl control) {
 		_control = control;
 
+		_shape = new javafx.scene.shape.Rectangle();
+		getChildren().add(_shape);
+
 		updateFromModel();
 	}
 
 	@Override
 	public boolean contains(double localX, double localY) {
-		if (!getClip().contains(localX, localY)) {
-			return false;
-		}
-
-		for (Node node : getChildren()) {
-			Point2D point = node.parentToLocal(localX, localY);
-			if (node.contains(point)) {
-				return true;
-			}
-		}
-
-		return false;
+		double x = _shape.getX();
+		double y = _shape.getY();
+		return localX >= x && localY >= y && localX < x + _shape.getWidth() && localY < y + _shape.getHeight();
 	}
 
 	public void updateFromModel() {
 		IAssetKey assetKey = _control.getModel().getAssetKey();
 
 		Image image;
-		
+
 		if (assetKey instanceof ImageAssetModel) {
 			image = ImageCache.getFXImage(((ImageAssetModel) assetKey).getUrlFile());
-			Rectangle rect = new Rectangle(0, 0, (int) image.getWidth(), (int) image.getHeight());
-			_frame = new FrameData();
-			_frame.src = rect;
-			_frame.dst = rect;
-			_frame.srcSize = new Point(rect.width, rect.height);
 		} else {
-			IAssetFrameModel frameModel = (IAssetFrameModel) assetKey;
-			image = ImageCache.getFXImage(frameModel.getImageFile());
-			_frame = frameModel.getFrameData();
+			image = ImageCache.getFXImage(((IAssetFrameModel) assetKey).getImageFile());
 		}
 
-
 		TileSpriteModel model = _control.getModel();
 
 		double width = model.getWidth();
@@ -95,17 +91,32 @@ public class TileSpriteNode extends Pane implements ISpriteNode {
 		setWidth(width);
 		setHeight(height);
 
-		// GraphicsContext g2 = getGraphicsContext2D();
-		// g2.clearRect(0, 0, width, height);
+		// the cache loads the images in background, the pixels (and the size)
+		// are not available until it is done
+
+		if (image == null || image.isError() || image.getProgress() < 1) {
+			_shape.setFill(null);
+
+			if (image != null && !image.isError()) {
+				updateWhenLoaded(image);
+			}
+
+			return;
+		}
+
+		if (assetKey instanceof ImageAssetModel) {
+			Rectangle rect = new Rectangle(0, 0, (int) image.getWidth(), (int) image.getHeight());
+			_frame = new FrameData();
+			_frame.src = rect;
+			_frame.dst = rect;
+			_frame.srcSize = new Point(rect.width, rect.height);
+		} else {
+			_frame = ((IAssetFrameModel) assetKey).getFrameData();
+		}
 
 		double xoffs = model.getTilePositionX() % _frame.srcSize.x;
 		double yoffs = model.getTilePositionY() % _frame.srcSize.y;
 
-		double x0 = _frame.src.x;
-		double y0 = _frame.src.y;
-		double w0 = _frame.src.width;
-		double h0 = _frame.src.height;
-
 		double x1;
 		double y1;
 
@@ -128,20 +139,83 @@ public class TileSpriteNode extends Pane implements ISpriteNode {
 		double w1 = _frame.srcSize.x * model.getTileScaleX();
 		double h1 = _frame.srcSize.y * model.getTileScaleY();
 
-		getChildren().clear();
+		// the tiles start at (x1, y1), that could be inside the sprite bounds
+
+		double left = Math.max(0, x1);
+		double top = Math.max(0, y1);
+
+		_shape.setX(left);
+		_shape.setY(top);
+		_shape.setWidth(Math.max(0, width - left));
+		_shape.setHeight(Math.max(0, height - top));
+
+		Image tileImage = getTileImage(image, _frame.src);
+
+		if (tileImage == null || w1 <= 0 || h1 <= 0) {
+			_shape.setFill(null);
+		} else {
+			// each tile is the source region of the frame, stretched to the
+			// scaled source size
+			_shape.setFill(new ImagePattern(tileImage, x1, y1, w1, h1, false));
+		}
+	}
+
+	/**
+	 * Update the node when the image is loaded.
+	 */
+	private void updateWhenLoaded(Image image) {
+		if (_pendingImage == image) {
+			return;
+		}
+
+		_pendingImage = image;
 
-		for (double x = x1; x < getWidth(); x += w1) {
-			for (double y = y1; y < getHeight(); y += h1) {
-				ImageView img = new ImageView(image);
-				img.setViewport(new Rectangle2D(x0, y0, w0, h0));
-				img.relocate(x, y);
-				img.setFitWidth(w1);
-				img.setFitHeight(h1);
-				getChildren().add(img);
+		image.progressProperty().addListener(new ChangeListener<Number>() {
+
+			@Override
+			public void changed(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
+				if (newValue.doubleValue() < 1) {
+					return;
+				}
+
+				observable.removeListener(this);
+
+				if (_pendingImage == image) {
+					_pendingImage = null;
+					updateFromModel();
+				}
 			}
+		});
+	}
+
+	/**
+	 * Get the image of the source region of the frame. It is created only if
+	 * the image or the region changed since the last call.
+	 */
+	private Image getTileImage(Image image, Rectangle src) {
+		if (image == null || src.width <= 0 || src.height <= 0 || src.x + src.width > image.getWidth()
+				|| src.y + src.height > image.getHeight()) {
+			return null;
+		}
+
+		if (image == _tileImageSource && src.equals(_tileImageRect)) {
+			return _tileImage;
+		}
+
+		Image tileImage;
+
+		if (src.x == 0 && src.y == 0 && src.width == (int) image.getWidth()
+				&& src.height == (int) image.getHeight()) {
+			tileImage = image;
+		} else {
+			tileImage = new WritableImage(image.getPixelReader(), src.x, src.y, src.width, src.height);
 		}
 
-		setClip(new javafx.scene.shape.Rectangle(0, 0, width, height));
+		_tileImage = tileImage;
+		_tileImageSource = image;
+		_tileImageRect = new Rectangle(src.x, src.y, src.width, src.height);
+
+		return tileImage;
 	}
 
 	@Override
@@ -27,8 +27,6 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import phasereditor.inspect.core.InspectCore;
 import phasereditor.inspect.core.examples.ExampleCategoryModel;
@@ -46,6 +44,9 @@ public class ChainsModel {
 	private List<String> _examplesFiles;
 	private List<Line> _examplesLines;
 	private PhaserJSDoc _jsdoc;
+	private SearchIndex<ChainItem> _chainsIndex;
+	private SearchIndex<String> _examplesFilesIndex;
+	private SearchIndex<Line> _examplesLinesIndex;
 
 	public ChainsModel() {
 		_jsdoc = PhaserJSDoc.getInstance();
@@ -137,106 +138,44 @@ public class ChainsModel {
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
+
+		// the search indexes
+
+		_chainsIndex = new SearchIndex<>(_chains, ChainItem::getDisplay);
+		_examplesFilesIndex = new SearchIndex<>(_examplesFiles, f -> f);
+		_examplesLinesIndex = new SearchIndex<>(_examplesLines, line -> line.text);
 	}
 
 	public List<Match> searchChains(String aQuery, int limit) {
 		String query = aQuery.toLowerCase();
-		boolean showall = query.trim().length() == 0;
 
 		if (query.startsWith("this.")) {
 			query = "state." + query.substring(5);
 		}
 
 		List<Match> matches = new ArrayList<>();
-		query = quote(query);
-		Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
-
-		for (ChainItem item : _chains) {
-			Matcher matcher = pattern.matcher(item.getDisplay());
-			if (showall || matcher.matches()) {
-				Match match = new Match();
-				match.item = item;
-				if (showall) {
-					match.start = 0;
-					match.length = 0;
-				} else {
-					match.start = matcher.start(1);
-					match.length = matcher.end(1) - match.start;
-				}
-				matches.add(match);
-				if (matches.size() >= limit) {
-					break;
-				}
-			}
-		}
+		_chainsIndex.search(query, limit, matches);
 		return matches;
 	}
 
-	private static String quote(String query) {
-		String patternStart = query.startsWith("*") ? "" : ".*";
-		String patternEnd = query.endsWith("*") ? "" : ".*";
-
-		String pattern = query.replace(".", "\\.").replace("*", ".*").replace("(", "\\(").replace(")", "\\)")
-				.replace(":", "\\:");
-
-		return patternStart + "(" + pattern + ")" + patternEnd;
-	}
-
 	public List<Match> searchExamples(String aQuery, int limit) {
 		String query = aQuery.toLowerCase();
 		boolean showall = query.trim().length() == 0;
 		List<Match> matches = new ArrayList<>();
 		if (query.length() > 2 || showall) {
-			query = quote(query);
-			Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
-
 			// search of file names
 
-			for (String filename : _examplesFiles) {
-				Matcher matcher = pattern.matcher(filename);
-				if (showall || matcher.matches()) {
-					Match match = new Match();
-					match.item = filename;
-					if (showall) {
-						match.start = 0;
-						match.length = 0;
-					} else {
-						match.start = matcher.start(1);
-						match.length = matcher.end(1) - match.start;
-					}
-					matches.add(match);
-					if (matches.size() >= limit) {
-						break;
-					}
-				}
-			}
+			_examplesFilesIndex.search(query, limit, matches);
 
 			// search on lines
 
-			for (Line line : _examplesLines) {
-				if (matches.size() >= limit) {
-					break;
-				}
-				Matcher matcher = pattern.matcher(line.text);
-				if (showall || matcher.matches()) {
-					Match match = new Match();
-					match.item = line;
-					if (showall) {
-						match.start = 0;
-						match.length = 0;
-					} else {
-						match.start = matcher.start(1);
-						match.length = matcher.end(1) - match.start;
-					}
-					matches.add(match);
-				}
-			}
+			_examplesLinesIndex.search(query, limit, matches);
 		}
 		return matches;
 	}
 
 	public boolean isPhaserType(String typeName) {
-		return _jsdoc.getTypesMap().containsKey(typeName);
+		return _jsdoc.getType(typeName) != null;
 	}
 
 	static int countDots(String s) {
@@ -266,26 +205,28 @@ public class ChainsModel {
 		if (!_usedTypes.contains(className)) {
 			// class
 			{
-				String chain = "class " + className + (unit.getExtends().isEmpty() ? "" : " extends");
+				StringBuilder chain = new StringBuilder();
+				chain.append("class ").append(className).append(unit.getExtends().isEmpty() ? "" : " extends");
 				int i = 0;
 				for (String e : unit.getExtends()) {
-					chain += (i == 0 ? " " : "|") + e;
+					chain.append(i == 0 ? " " : "|").append(e);
 					i++;
 				}
-				_chains.add(new ChainItem(unit, chain, className, 0));
+				_chains.add(new ChainItem(unit, chain.toString(), className, 0));
 			}
 
 			// constructor
 			{
-				String chain = "new " + className + "(";
+				StringBuilder chain = new StringBuilder();
+				chain.append("new ").append(className).append("(");
 				int i = 0;
 				for (PhaserMethodArg arg : unit.getConstructorArgs()) {
-					chain += (i > 0 ? "," : "") + arg.getName();
+					chain.append(i > 0 ? "," : "").append(arg.getName());
 					i++;
 				}
-				chain += ")";
+				chain.append(")");
 
-				_chains.add(new ChainItem(unit, chain, className, 0));
+				_chains.add(new ChainItem(unit, chain.toString(), className, 0));
 			}
 			_usedTypes.add(className);
 		}
@@ -321,19 +262,21 @@ public class ChainsModel {
 				methodTypes = new String[] { "void" };
 			}
 
-			for (String type : methodTypes) {
-				String name = method.getName();
-				String chain = prefix + "." + name + "(";
-				int i = 0;
-				for (PhaserVariable param : method.getArgs()) {
-					if (i > 0) {
-						chain += ", ";
-					}
-					chain += param.getName();
-					i++;
+			// the same chain for all the return types
+			StringBuilder sb = new StringBuilder();
+			sb.append(prefix).append(".").append(method.getName()).append("(");
+			int i = 0;
+			for (PhaserVariable param : method.getArgs()) {
+				if (i > 0) {
+					sb.append(", ");
 				}
-				chain += ")";
+				sb.append(param.getName());
+				i++;
+			}
+			sb.append(")");
+			String chain = sb.toString();
 
+			for (String type : methodTypes) {
 				chains.add(new ChainItem(method, chain, type, currentDepth));
 			}
 		}
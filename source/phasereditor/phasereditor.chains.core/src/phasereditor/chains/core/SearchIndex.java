@@ -0,0 +1,222 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.chains.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A trigram index of the text of a list of items, to search them with the
+ * query syntax of the Chains view: the query is a literal text, where
+ * <code>*</code> matches any text. The results are returned in the order of
+ * the items, so the items should be sorted by relevance.
+ * 
+ * @author arian
+ *
+ */
+public class SearchIndex<T> {
+
+	private static class Postings {
+		public int[] data = new int[4];
+		public int size;
+
+		public void add(int id) {
+			if (size > 0 && data[size - 1] == id) {
+				return;
+			}
+
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+
+			data[size++] = id;
+		}
+
+		public boolean contains(int id) {
+			return Arrays.binarySearch(data, 0, size, id) >= 0;
+		}
+	}
+
+	private List<T> _items;
+	private String[] _texts;
+	private Map<Long, Postings> _index;
+
+	public SearchIndex(List<T> items, Function<T, String> getText) {
+		_items = new ArrayList<>(items);
+		_texts = new String[_items.size()];
+		_index = new HashMap<>();
+
+		for (int i = 0; i < _texts.length; i++) {
+			String text = getText.apply(_items.get(i)).toLowerCase(Locale.ENGLISH);
+			_texts[i] = text;
+			for (int j = 0; j + 3 <= text.length(); j++) {
+				_index.computeIfAbsent(Long.valueOf(trigram(text, j)), k -> new Postings()).add(i);
+			}
+		}
+	}
+
+	private static long trigram(String text, int i) {
+		return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+	}
+
+	public int size() {
+		return _items.size();
+	}
+
+	/**
+	 * Search the items.
+	 * 
+	 * @param query
+	 *            The query. An empty query matches all the items.
+	 * @param limit
+	 *            The maximum number of matches to add.
+	 * @param matches
+	 *            The list where the matches are added.
+	 */
+	public void search(String query, int limit, List<Match> matches) {
+		if (query.trim().length() == 0) {
+			for (int i = 0; i < _items.size() && matches.size() < limit; i++) {
+				Match match = new Match();
+				match.item = _items.get(i);
+				matches.add(match);
+			}
+			return;
+		}
+
+		String lowerQuery = query.toLowerCase(Locale.ENGLISH);
+		boolean anyStart = lowerQuery.startsWith("*");
+		boolean anyEnd = lowerQuery.endsWith("*");
+
+		List<String> segments = new ArrayList<>();
+		for (String segment : lowerQuery.split("\\*")) {
+			if (segment.length() > 0) {
+				segments.add(segment);
+			}
+		}
+
+		// collect the postings of the trigrams of the query, only the items
+		// in all of them can match
+
+		List<Postings> postings = new ArrayList<>();
+		for (String segment : segments) {
+			for (int j = 0; j + 3 <= segment.length(); j++) {
+				Postings p = _index.get(Long.valueOf(trigram(segment, j)));
+				if (p == null) {
+					return;
+				}
+				postings.add(p);
+			}
+		}
+
+		postings.sort((a, b) -> a.size - b.size);
+
+		if (postings.isEmpty()) {
+			for (int i = 0; i < _texts.length && matches.size() < limit; i++) {
+				match(i, segments, anyStart, anyEnd, matches);
+			}
+		} else {
+			Postings first = postings.get(0);
+			for (int k = 0; k < first.size && matches.size() < limit; k++) {
+				int i = first.data[k];
+				if (containsAll(postings, i)) {
+					match(i, segments, anyStart, anyEnd, matches);
+				}
+			}
+		}
+	}
+
+	private static boolean containsAll(List<Postings> postings, int id) {
+		for (int i = 1; i < postings.size(); i++) {
+			if (!postings.get(i).contains(id)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Test the item and add the match. The matched range is the same of the
+	 * old regular expression <code>.*(seg1.*seg2).*</code>: the last
+	 * occurrence of the first segment that is followed by the others, until
+	 * the last occurrence of the last segment.
+	 */
+	private void match(int id, List<String> segments, boolean anyStart, boolean anyEnd, List<Match> matches) {
+		String text = _texts[id];
+
+		int start;
+		int end;
+
+		if (segments.isEmpty()) {
+			start = 0;
+			end = text.length();
+		} else {
+			String firstSegment = segments.get(0);
+			start = text.lastIndexOf(firstSegment);
+			while (start != -1 && !matchesRest(text, start + firstSegment.length(), segments)) {
+				start = start == 0 ? -1 : text.lastIndexOf(firstSegment, start - 1);
+			}
+
+			if (start == -1) {
+				return;
+			}
+
+			if (segments.size() == 1) {
+				end = start + firstSegment.length();
+			} else {
+				String lastSegment = segments.get(segments.size() - 1);
+				end = text.lastIndexOf(lastSegment) + lastSegment.length();
+			}
+
+			if (anyStart) {
+				start = 0;
+			}
+
+			if (anyEnd) {
+				end = text.length();
+			}
+		}
+
+		Match match = new Match();
+		match.item = _items.get(id);
+		match.start = start;
+		match.length = end - start;
+		matches.add(match);
+	}
+
+	private static boolean matchesRest(String text, int from, List<String> segments) {
+		int pos = from;
+		for (int i = 1; i < segments.size(); i++) {
+			String segment = segments.get(i);
+			int j = text.indexOf(segment, pos);
+			if (j == -1) {
+				return false;
+			}
+			pos = j + segment.length();
+		}
+		return true;
+	}
+}
@@ -24,6 +24,7 @@ package phasereditor.chains.ui.views;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
@@ -97,6 +98,8 @@ public class ChainsView extends ViewPart {
 	protected Text _queryText;
 	private TableViewer _chainsViewer;
 	protected ChainsModel _chainsModel;
+	private static final int SEARCH_LIMIT = 100;
+	private Job _searchJob;
 	private TableColumn _chainTableColumn;
 	private TableViewer _examplesViewer;
 	private TableColumn _examplesTableColumn;
@@ -488,20 +491,64 @@ public class ChainsView extends ViewPart {
 		}
 
 		String query = _queryText.getText();
-		int chainsSize = 0;
-		int examplesSize = 0;
-		int chainsLimit = 100;
-
-		if (_chainsModel != null) {
-			List<Match> list = _chainsModel.searchChains(query, chainsLimit);
-			_chainsViewer.setInput(list);
-			chainsSize = list.size();
-
-			list = _chainsModel.searchExamples(query, chainsLimit);
-			_examplesViewer.setInput(list);
-			examplesSize = list.size();
+
+		if (_searchJob != null) {
+			_searchJob.cancel();
+		}
+
+		ChainsModel chainsModel = _chainsModel;
+
+		if (chainsModel == null) {
+			showSearchResults(Collections.emptyList(), Collections.emptyList());
+			return;
 		}
 
+		// search in a job, so typing is not blocked by the search. The results
+		// are shown only if the query is the same.
+
+		_searchJob = new Job("Searching chains...") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				List<Match> chains = chainsModel.searchChains(query, SEARCH_LIMIT);
+
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+
+				List<Match> examples = chainsModel.searchExamples(query, SEARCH_LIMIT);
+
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+
+				Display.getDefault().asyncExec(new Runnable() {
+
+					@Override
+					public void run() {
+						if (_queryText.isDisposed() || !query.equals(_queryText.getText())) {
+							return;
+						}
+						showSearchResults(chains, examples);
+					}
+				});
+
+				return Status.OK_STATUS;
+			}
+		};
+		_searchJob.setSystem(true);
+		_searchJob.schedule();
+	}
+
+	void showSearchResults(List<Match> chains, List<Match> examples) {
+		int chainsLimit = SEARCH_LIMIT;
+
+		_chainsViewer.setInput(chains);
+		int chainsSize = chains.size();
+
+		_examplesViewer.setInput(examples);
+		int examplesSize = examples.size();
+
 		_chainTableColumn.setText(
 				"Chains (" + (chainsSize == chainsLimit ? chainsSize + "+" : Integer.valueOf(chainsSize)) + ")");
 
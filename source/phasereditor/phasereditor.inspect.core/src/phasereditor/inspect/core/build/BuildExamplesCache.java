@@ -35,8 +35,9 @@ class BuildExamplesCache {
 		Path wsPath = Paths.get(".").toAbsolutePath().getParent().getParent();
 		Path projectPath = wsPath.resolve(InspectCore.RESOURCES_EXAMPLES_PLUGIN);
 		ExamplesModel model = new ExamplesModel(projectPath);
-		model.build(new NullProgressMonitor());
 		Path cache = projectPath.resolve("phaser-custom/examples/examples-cache.json");
+		// only the examples modified since the last build are indexed
+		model.build(new NullProgressMonitor(), cache);
 		model.saveCache(cache);
 
 		// verify
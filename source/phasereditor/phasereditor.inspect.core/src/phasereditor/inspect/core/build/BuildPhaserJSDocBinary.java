@@ -0,0 +1,61 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.inspect.core.build;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.out;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import phasereditor.inspect.core.InspectCore;
+import phasereditor.inspect.core.jsdoc.PhaserJSDoc;
+import phasereditor.inspect.core.jsdoc.PhaserJSDocWriter;
+
+/**
+ * Generates the binary form of the Phaser JSDoc model (docs.bin), next to the
+ * docs.json file. Run it every time the docs.json file is updated.
+ * 
+ * @author arian
+ *
+ */
+public class BuildPhaserJSDocBinary {
+	public static void main(String[] args) throws IOException {
+		Path wsPath = Paths.get(".").toAbsolutePath().getParent().getParent();
+		Path sourceProjectPath = wsPath.resolve(InspectCore.RESOURCES_PHASER_CODE_PLUGIN);
+		Path metadataProjectPath = wsPath.resolve(InspectCore.RESOURCES_METADATA_PLUGIN);
+		Path docsJsonFile = metadataProjectPath.resolve("phaser-custom/jsdoc/docs.json");
+		Path binaryFile = docsJsonFile.resolveSibling(PhaserJSDoc.BINARY_FILE_NAME);
+
+		long t = currentTimeMillis();
+
+		PhaserJSDoc jsdoc = new PhaserJSDoc(sourceProjectPath.resolve("phaser-master/src"), docsJsonFile);
+
+		out.println("Parsed docs.json in " + (currentTimeMillis() - t) + "ms");
+
+		new PhaserJSDocWriter().write(jsdoc, docsJsonFile, binaryFile);
+
+		out.println("Written " + binaryFile + " (" + Files.size(binaryFile) + " bytes)");
+	}
+}
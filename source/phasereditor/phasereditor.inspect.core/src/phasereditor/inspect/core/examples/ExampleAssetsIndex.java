@@ -0,0 +1,168 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.inspect.core.examples;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the files (assets and plugins) the examples can use. Instead of
+ * search every file path in the content of the examples, the string literals
+ * of the example are extracted and looked up in the index.
+ * 
+ * @author arian
+ *
+ */
+class ExampleAssetsIndex {
+	private static final String[] ROOTS = { "assets/", "_plugins/" };
+
+	private Map<String, Integer> _files;
+
+	/**
+	 * @param files
+	 *            The relative paths of the files, like
+	 *            <code>assets/sprites/phaser.png</code>.
+	 */
+	public ExampleAssetsIndex(Collection<String> files) {
+		_files = new HashMap<>();
+		for (String file : files) {
+			_files.putIfAbsent(file, Integer.valueOf(_files.size()));
+		}
+	}
+
+	/**
+	 * Find the files referenced by the string literals of the given code.
+	 * 
+	 * @return The relative paths of the files, in the order they were
+	 *         registered in the index.
+	 */
+	public List<String> findFiles(String content) {
+		Set<String> found = new LinkedHashSet<>();
+
+		for (String literal : getStringLiterals(content)) {
+			String path = normalize(literal);
+			if (_files.containsKey(path)) {
+				found.add(path);
+			} else {
+				// the path can be part of an URL, like
+				// 'http://examples.phaser.io/assets/sprites/phaser.png'
+				for (String root : ROOTS) {
+					int i = path.indexOf("/" + root);
+					if (i != -1) {
+						String subpath = path.substring(i + 1);
+						if (_files.containsKey(subpath)) {
+							found.add(subpath);
+						}
+					}
+				}
+			}
+		}
+
+		List<String> list = new ArrayList<>(found);
+		list.sort((a, b) -> _files.get(a).compareTo(_files.get(b)));
+		return list;
+	}
+
+	private static String normalize(String literal) {
+		String path = literal.trim().replace("\\", "/");
+
+		// remove the query, like in 'assets/data/level.json?v=1'
+		int i = path.indexOf('?');
+		if (i != -1) {
+			path = path.substring(0, i);
+		}
+
+		while (true) {
+			if (path.startsWith("../")) {
+				path = path.substring(3);
+			} else if (path.startsWith("./")) {
+				path = path.substring(2);
+			} else if (path.startsWith("/")) {
+				path = path.substring(1);
+			} else {
+				break;
+			}
+		}
+
+		return path;
+	}
+
+	/**
+	 * Extract the content of the string literals (single, double quoted and
+	 * template strings). The comments are skipped.
+	 */
+	static List<String> getStringLiterals(String content) {
+		List<String> list = new ArrayList<>();
+		StringBuilder sb = new StringBuilder();
+
+		int len = content.length();
+		int i = 0;
+
+		while (i < len) {
+			char c = content.charAt(i);
+
+			if (c == '/' && i + 1 < len) {
+				char next = content.charAt(i + 1);
+				if (next == '/') {
+					// line comment
+					int end = content.indexOf('\n', i);
+					i = end == -1 ? len : end + 1;
+					continue;
+				}
+				if (next == '*') {
+					// block comment
+					int end = content.indexOf("*/", i + 2);
+					i = end == -1 ? len : end + 2;
+					continue;
+				}
+			}
+
+			if (c == '"' || c == '\'' || c == '`') {
+				sb.setLength(0);
+				i++;
+				while (i < len) {
+					char c2 = content.charAt(i);
+					if (c2 == '\\' && i + 1 < len) {
+						sb.append(content.charAt(i + 1));
+						i += 2;
+						continue;
+					}
+					if (c2 == c || (c2 == '\n' && c != '`')) {
+						break;
+					}
+					sb.append(c2);
+					i++;
+				}
+				list.add(sb.toString());
+			}
+
+			i++;
+		}
+
+		return list;
+	}
+}
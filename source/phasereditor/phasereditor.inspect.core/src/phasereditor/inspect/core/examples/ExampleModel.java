@@ -66,6 +66,7 @@ public class ExampleModel implements IPhaserTemplate {
 	private Path _mainFilePath;
 	private Path _phaserBuildFolder;
 	private Path _phaserCustomFolder;
+	private String _stamp;
 
 	public ExampleModel(ExamplesModel examples, ExampleCategoryModel category, String name, String mainFile) {
 		_name = name;
@@ -88,6 +89,18 @@ public class ExampleModel implements IPhaserTemplate {
 		return _name;
 	}
 
+	/**
+	 * The size and modification time of the example file when it was indexed,
+	 * used to build the examples cache incrementally.
+	 */
+	public String getStamp() {
+		return _stamp;
+	}
+
+	public void setStamp(String stamp) {
+		_stamp = stamp;
+	}
+
 	public List<Mapping> getFilesMapping() {
 		return _filesMapping;
 	}
@@ -22,11 +22,17 @@
 package phasereditor.inspect.core.examples;
 
 import static java.lang.System.out;
+import static java.util.stream.Collectors.toList;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -39,13 +45,13 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.inspect.core.examples.ExampleModel.Mapping;
 
 public class ExamplesModel {
 	private Path _examplesFolderPath;
 	private List<ExampleCategoryModel> _examplesCategories;
+	private String _assetsStamp;
 
 	public ExamplesModel(Path reposDir) {
 		_examplesFolderPath = reposDir.resolve("phaser-examples-master/examples");
@@ -53,32 +59,104 @@ public class ExamplesModel {
 	}
 
 	public void build(IProgressMonitor monitor) throws IOException {
-		buildExamples(monitor);
+		build(monitor, null);
 	}
 
-	private void buildExamples(IProgressMonitor monitor) throws IOException {
+	/**
+	 * Build the examples model.
+	 * 
+	 * @param monitor
+	 *            The progress monitor.
+	 * @param previousCache
+	 *            The cache of a previous build, or <code>null</code>. The
+	 *            examples that did not change since that build (and if the
+	 *            asset files are the same) are not indexed again.
+	 */
+	public void build(IProgressMonitor monitor, Path previousCache) throws IOException {
+		buildExamples(monitor, previousCache);
+	}
+
+	private static class ExampleIndexEntry {
+		public String stamp;
+		public List<String> files;
+
+		public ExampleIndexEntry(String stamp, List<String> files) {
+			super();
+			this.stamp = stamp;
+			this.files = files;
+		}
+	}
+
+	private void buildExamples(IProgressMonitor monitor, Path previousCache) throws IOException {
 		Path assetsPath = _examplesFolderPath.resolve("assets");
 		Path pluginsPath = _examplesFolderPath.resolve("_plugins");
 
-		List<Path> requiredFiles = new ArrayList<>();
+		List<String> requiredFiles = new ArrayList<>();
+		List<Path> requiredPaths = new ArrayList<>();
 		{
 			Path[] inAssets = Files.walk(assetsPath).filter(p -> !Files.isDirectory(p)).toArray(Path[]::new);
 			Path[] inPlugins = Files.walk(pluginsPath).filter(p -> !Files.isDirectory(p)).toArray(Path[]::new);
-			requiredFiles.addAll(Arrays.asList(inAssets));
-			requiredFiles.addAll(Arrays.asList(inPlugins));
+			for (Path[] files : new Path[][] { inAssets, inPlugins }) {
+				for (Path file : files) {
+					requiredFiles.add(getRelativePath(file));
+					requiredPaths.add(file);
+				}
+			}
 		}
 
+		_assetsStamp = computeAssetsStamp(requiredPaths);
+
+		Map<String, ExampleIndexEntry> previousIndex = loadIndex(previousCache, _assetsStamp);
+
+		ExampleAssetsIndex assetsIndex = new ExampleAssetsIndex(requiredFiles);
+
 		Path[] jsFiles = Files.walk(_examplesFolderPath).filter(this::isExampleJSFile).toArray(Path[]::new);
 
 		out.println("Examples: " + jsFiles.length);
 
-		Map<Path, ExampleCategoryModel> catMap = new HashMap<>();
-
 		monitor.beginTask("Building examples", jsFiles.length);
 
-		for (Path jsFile : jsFiles) {
+		// index the examples in parallel, the model is created later, in the
+		// same order of the files
+
+		AtomicInteger reused = new AtomicInteger();
+
+		List<ExampleIndexEntry> entries;
+		try {
+			entries = Arrays.stream(jsFiles).parallel().map(jsFile -> {
+				try {
+					String relPath = getRelativePath(jsFile);
+					String stamp = Files.size(jsFile) + "-" + Files.getLastModifiedTime(jsFile).toMillis();
+
+					ExampleIndexEntry entry = previousIndex.get(relPath);
 
-			monitor.subTask(jsFile.getFileName().toString());
+					if (entry == null || !entry.stamp.equals(stamp)) {
+						String content = new String(Files.readAllBytes(jsFile));
+						entry = new ExampleIndexEntry(stamp, assetsIndex.findFiles(content));
+					} else {
+						reused.incrementAndGet();
+					}
+
+					synchronized (monitor) {
+						monitor.worked(1);
+					}
+
+					return entry;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}).collect(toList());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		out.println("Examples reused from cache: " + reused.get());
+
+		Map<Path, ExampleCategoryModel> catMap = new HashMap<>();
+
+		for (int i = 0; i < jsFiles.length; i++) {
+			Path jsFile = jsFiles[i];
+			ExampleIndexEntry entry = entries.get(i);
 
 			Path catPath = jsFile.getParent();
 			ExampleCategoryModel catModel = catMap.get(catPath);
@@ -90,21 +168,16 @@ public class ExamplesModel {
 
 			String mainFile = jsFile.getFileName().toString().replace("\\", "/");
 			ExampleModel exampleModel = new ExampleModel(this, catModel, getName(jsFile), mainFile);
+			exampleModel.setStamp(entry.stamp);
 
 			// add main example file
 			exampleModel.addMapping(_examplesFolderPath.relativize(jsFile), jsFile.getFileName().toString());
 			catModel.addExample(exampleModel);
 
 			// add assets files
-			String content = new String(Files.readAllBytes(jsFile));
-			for (Path file : requiredFiles) {
-				String assetRelPath = _examplesFolderPath.relativize(file).toString().replace("\\", "/");
-				if (content.contains(assetRelPath) || content.contains("../" + assetRelPath)) {
-					exampleModel.addMapping(_examplesFolderPath.relativize(file), assetRelPath);
-				}
+			for (String assetRelPath : entry.files) {
+				exampleModel.addMapping(Paths.get(assetRelPath), assetRelPath);
 			}
-
-			monitor.worked(1);
 		}
 		monitor.done();
 
@@ -134,6 +207,83 @@ public class ExamplesModel {
 
 	}
 
+	/**
+	 * The SHA-1 of the paths (sorted) of the asset files, with their sizes and
+	 * modification times.
+	 */
+	private String computeAssetsStamp(List<Path> files) throws IOException {
+		List<Path> sorted = new ArrayList<>(files);
+		sorted.sort((a, b) -> getRelativePath(a).compareTo(getRelativePath(b)));
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+
+		for (Path file : sorted) {
+			String line = getRelativePath(file) + " " + Files.size(file) + " "
+					+ Files.getLastModifiedTime(file).toMillis() + "\n";
+			digest.update(line.getBytes(StandardCharsets.UTF_8));
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest()) {
+			sb.append(String.format("%02x", Integer.valueOf(b & 0xff)));
+		}
+		return sb.toString();
+	}
+
+	private String getRelativePath(Path file) {
+		return _examplesFolderPath.relativize(file).toString().replace("\\", "/");
+	}
+
+	/**
+	 * Read the index of a previous cache. It is empty if there is not a cache
+	 * or it was built with other asset files.
+	 */
+	private static Map<String, ExampleIndexEntry> loadIndex(Path cache, String assetsStamp) throws IOException {
+		Map<String, ExampleIndexEntry> index = new HashMap<>();
+
+		if (cache == null || !Files.exists(cache)) {
+			return index;
+		}
+
+		JSONObject jsonDoc;
+		try (InputStream input = Files.newInputStream(cache)) {
+			jsonDoc = JSONObject.read(input);
+		}
+
+		if (!assetsStamp.equals(jsonDoc.optString("assetsStamp", null))) {
+			return index;
+		}
+
+		JSONArray jsonCategories = jsonDoc.getJSONArray("examplesCategories");
+		for (int i = 0; i < jsonCategories.length(); i++) {
+			JSONArray jsonExamples = jsonCategories.getJSONObject(i).getJSONArray("examples");
+			for (int j = 0; j < jsonExamples.length(); j++) {
+				JSONObject jsonExample = jsonExamples.getJSONObject(j);
+				String stamp = jsonExample.optString("stamp", null);
+				JSONArray jsonMaps = jsonExample.getJSONArray("map");
+				if (stamp == null || jsonMaps.length() == 0) {
+					continue;
+				}
+
+				// the first mapping is the example file, the others are the
+				// assets
+				String relPath = jsonMaps.getJSONObject(0).getString("orig");
+				List<String> files = new ArrayList<>();
+				for (int k = 1; k < jsonMaps.length(); k++) {
+					files.add(jsonMaps.getJSONObject(k).getString("dst"));
+				}
+				index.put(relPath, new ExampleIndexEntry(stamp, files));
+			}
+		}
+
+		return index;
+	}
+
 	private static String getName(Path path) {
 		String name = path.getFileName().toString();
 		if (name.endsWith(".js")) {
@@ -178,9 +328,11 @@ public class ExamplesModel {
 
 		JSONObject jsonDoc;
 		try (InputStream input = Files.newInputStream(cache)) {
-			jsonDoc = new JSONObject(new JSONTokener(input));
+			jsonDoc = JSONObject.read(input);
 		}
 
+		_assetsStamp = jsonDoc.optString("assetsStamp", null);
+
 		loadCategories(jsonDoc.getJSONArray("examplesCategories"), _examplesCategories);
 	}
 
@@ -195,6 +347,7 @@ public class ExamplesModel {
 				JSONObject jsonExample = jsonExamples.getJSONObject(j);
 				ExampleModel example = new ExampleModel(this, category, jsonExample.getString("name"),
 						jsonExample.getString("mainFile"));
+				example.setStamp(jsonExample.optString("stamp", null));
 				category.addExample(example);
 
 				JSONArray jsonMaps = jsonExample.getJSONArray("map");
@@ -210,6 +363,10 @@ public class ExamplesModel {
 	public void saveCache(Path cache) throws JSONException, IOException {
 		JSONObject jsonDoc = new JSONObject();
 
+		if (_assetsStamp != null) {
+			jsonDoc.put("assetsStamp", _assetsStamp);
+		}
+
 		JSONArray jsonExamplesCategories = new JSONArray();
 		jsonDoc.put("examplesCategories", jsonExamplesCategories);
 		saveCategories(jsonExamplesCategories, _examplesCategories);
@@ -230,6 +387,9 @@ public class ExamplesModel {
 				jsonExamples.put(jsonExample);
 				jsonExample.put("name", example.getName());
 				jsonExample.put("mainFile", example.getInfo().getMainFile());
+				if (example.getStamp() != null) {
+					jsonExample.put("stamp", example.getStamp());
+				}
 
 				JSONArray jsonMaps = new JSONArray();
 				jsonExample.put("map", jsonMaps);
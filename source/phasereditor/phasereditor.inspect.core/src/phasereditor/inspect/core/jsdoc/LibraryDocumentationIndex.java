@@ -14,7 +14,6 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.inspect.core.InspectCore;
 
@@ -58,7 +57,7 @@ public class LibraryDocumentationIndex {
 
 	public void addIndexFile(Path indexFile) throws IOException {
 		try (InputStream input = Files.newInputStream(indexFile);) {
-			JSONObject obj = new JSONObject(new JSONTokener(input));
+			JSONObject obj = JSONObject.read(input);
 			for (String k : obj.keySet()) {
 				_map.put(k, obj.getString(k));
 			}
@@ -42,7 +42,6 @@ import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.wst.jsdt.core.IMember;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.inspect.core.InspectCore;
 
@@ -56,56 +55,106 @@ public class PhaserJSDoc {
 					.getBundleFile(InspectCore.RESOURCES_METADATA_PLUGIN, "phaser-custom/jsdoc/docs.json")
 					.toAbsolutePath().normalize();
 			Path srcFolder = InspectCore.getBundleFile(InspectCore.RESOURCES_PHASER_CODE_PLUGIN, "phaser-master/src");
+			Path binaryFile = docsJsonFile.resolveSibling(BINARY_FILE_NAME);
+
+			if (Files.exists(binaryFile)) {
+				try {
+					_instance = new PhaserJSDoc(srcFolder, new PhaserJSDocReader(binaryFile, docsJsonFile));
+					out.println("Open Phaser JSDoc binary " + (currentTimeMillis() - t));
+				} catch (IOException e) {
+					// try with the docs.json file
+					e.printStackTrace();
+				}
+			}
 
-			try {
-				_instance = new PhaserJSDoc(srcFolder, docsJsonFile);
-				out.println("Build Phaser JSDoc " + (currentTimeMillis() - t));
-			} catch (IOException e) {
-				e.printStackTrace();
-				throw new RuntimeException(e);
+			if (_instance == null) {
+				try {
+					_instance = new PhaserJSDoc(srcFolder, docsJsonFile);
+					out.println("Build Phaser JSDoc " + (currentTimeMillis() - t));
+				} catch (IOException e) {
+					e.printStackTrace();
+					throw new RuntimeException(e);
+				}
 			}
 		}
 		return _instance;
 	}
 
+	/**
+	 * The name of the binary form of the model, it is next to the
+	 * <code>docs.json</code> file. See {@link PhaserJSDocWriter}.
+	 */
+	public static final String BINARY_FILE_NAME = "docs.bin";
+
 	private Map<String, PhaserType> _typesMap;
 	private Map<String, IPhaserMember> _membersMap;
 	private List<PhaserConstant> _globalConstants;
+	private Map<String, PhaserConstant> _globalConstantsMap;
 
 	private Path _srcFolder;
 
+	/**
+	 * If not <code>null</code>, the types are loaded from the binary file
+	 * when requested.
+	 */
+	private PhaserJSDocReader _reader;
+
 	public PhaserJSDoc(Path srcFolder, Path docsJsonFile) throws IOException {
 		_srcFolder = srcFolder;
 		_globalConstants = new ArrayList<>();
-		_membersMap = new HashMap<>();
 
 		_typesMap = buildPhaserJSDoc(docsJsonFile);
 
+		buildMembersMap();
+	}
+
+	private PhaserJSDoc(Path srcFolder, PhaserJSDocReader reader) {
+		_srcFolder = srcFolder;
+		_reader = reader;
+		_globalConstants = reader.getGlobalConstants();
+		_globalConstantsMap = new HashMap<>();
+		for (PhaserConstant cons : _globalConstants) {
+			_globalConstantsMap.put("Phaser." + cons.getName(), cons);
+		}
+	}
+
+	private void buildMembersMap() {
+		Map<String, IPhaserMember> membersMap = new HashMap<>();
+
 		for (PhaserType type : _typesMap.values()) {
 			String typeName1 = type.getName();
 			String typeName2 = typeName1.replace(".", "_");
 
 			for (String typeName : new String[] { typeName1, typeName2 }) {
-				_membersMap.put(typeName, type);
-				_membersMap.put(typeName + ".constructor", type);
+				membersMap.put(typeName + ".constructor", type);
 
 				for (PhaserMember m : type.getMethods()) {
-					_membersMap.put(typeName + "." + m.getName(), m);
+					membersMap.put(typeName + "." + m.getName(), m);
 				}
 
 				for (PhaserMember m : type.getProperties()) {
-					_membersMap.put(typeName + "." + m.getName(), m);
+					membersMap.put(typeName + "." + m.getName(), m);
 				}
 
 				for (PhaserMember m : type.getConstants()) {
-					_membersMap.put(typeName + "." + m.getName(), m);
+					membersMap.put(typeName + "." + m.getName(), m);
 				}
 			}
 		}
 
+		// a nested class is also a member of its namespace (like
+		// Phaser.Physics.Arcade.Body), in that case the class is used
+
+		for (PhaserType type : _typesMap.values()) {
+			membersMap.put(type.getName(), type);
+			membersMap.put(type.getName().replace(".", "_"), type);
+		}
+
 		for (PhaserConstant cons : _globalConstants) {
-			_membersMap.put("Phaser." + cons.getName(), cons);
+			membersMap.put("Phaser." + cons.getName(), cons);
 		}
+
+		_membersMap = membersMap;
 	}
 
 	public Path getTypePath(PhaserType type) {
@@ -116,29 +165,91 @@ public class PhaserJSDoc {
 		return _srcFolder.resolve(type.getFile());
 	}
 
+	/**
+	 * Load all the types of the binary file, if they are not loaded yet.
+	 */
+	private synchronized void loadAllTypes() {
+		if (_typesMap != null) {
+			return;
+		}
+
+		Map<String, PhaserType> map = new HashMap<>();
+		for (String name : _reader.getTypeNames()) {
+			map.put(name, _reader.getType(name));
+		}
+		_typesMap = map;
+
+		buildMembersMap();
+	}
+
 	public Map<String, PhaserType> getTypesMap() {
+		loadAllTypes();
 		return _typesMap;
 	}
 
 	public PhaserType getType(String name) {
+		if (_reader != null) {
+			return _reader.getType(name);
+		}
 		return _typesMap.get(name);
 	}
 
 	public Collection<PhaserType> getTypes() {
-		return _typesMap.values();
+		return getTypesMap().values();
 	}
 
 	public Map<String, IPhaserMember> getMembersMap() {
+		loadAllTypes();
 		return _membersMap;
 	}
 
+	/**
+	 * Find a member by the full name, like <code>Phaser.Sprite.x</code>. When
+	 * the model is loaded from the binary file, only the type of the member is
+	 * loaded.
+	 */
+	private IPhaserMember findMember(String name) {
+		synchronized (this) {
+			if (_membersMap != null) {
+				return _membersMap.get(name);
+			}
+		}
+
+		PhaserConstant cons = _globalConstantsMap.get(name);
+		if (cons != null) {
+			return cons;
+		}
+
+		PhaserType type = _reader.getType(name);
+		if (type != null) {
+			return type;
+		}
+
+		int i = name.lastIndexOf('.');
+		if (i == -1) {
+			return null;
+		}
+
+		type = _reader.getType(name.substring(0, i));
+		if (type == null) {
+			return null;
+		}
+
+		String memberName = name.substring(i + 1);
+		if (memberName.equals("constructor")) {
+			return type;
+		}
+
+		return type.getMemberMap().get(memberName);
+	}
+
 	public List<PhaserConstant> getGlobalConstants() {
 		return _globalConstants;
 	}
 
 	public String getJSDoc(IMember member) {
 		String name = InspectCore.getFullName(member);
-		Object phaserMember = _membersMap.get(name);
+		Object phaserMember = findMember(name);
 
 		if (phaserMember == null) {
 			out.println("<b>Cannot find JSDoc of " + name + "</b>");
@@ -150,7 +261,7 @@ public class PhaserJSDoc {
 
 	public boolean isPhaserMember(IMember member) {
 		String name = InspectCore.getFullName(member);
-		boolean b = _membersMap.containsKey(name);
+		boolean b = findMember(name) != null;
 		return b;
 	}
 
@@ -160,7 +271,7 @@ public class PhaserJSDoc {
 		}
 
 		try (InputStream input = Files.newInputStream(docsJsonFile)) {
-			JSONArray jsdocElements = new JSONArray(new JSONTokener(input));
+			JSONArray jsdocElements = JSONArray.read(input);
 
 			// Set<String> kinds = new HashSet<>();
 			// Set<String> scopes = new HashSet<>();
@@ -675,7 +786,7 @@ public class PhaserJSDoc {
 	}
 
 	public String getMemberHelp(String memberFullName) {
-		IPhaserMember member = _membersMap.get(memberFullName);
+		IPhaserMember member = findMember(memberFullName);
 		if (member == null) {
 			return "<No help available>";
 		}
@@ -683,7 +794,7 @@ public class PhaserJSDoc {
 	}
 
 	public String getMethodArgHelp(String methodName, String argName) {
-		IPhaserMember member = _membersMap.get(methodName);
+		IPhaserMember member = findMember(methodName);
 		List<PhaserMethodArg> args = Collections.emptyList();
 
 		if (member instanceof PhaserMethod) {
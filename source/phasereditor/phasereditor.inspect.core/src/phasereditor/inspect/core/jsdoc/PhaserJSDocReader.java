@@ -0,0 +1,407 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.inspect.core.jsdoc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the binary form of the {@link PhaserJSDoc} model written by
+ * {@link PhaserJSDocWriter}. Only the strings table offsets and the types
+ * directory are read when the file is opened, the types (and the strings they
+ * use) are decoded the first time they are requested.
+ * 
+ * @author arian
+ *
+ */
+class PhaserJSDocReader {
+	static final int MAGIC = 0x504A5344; // PJSD
+	static final int VERSION = 2;
+
+	static final int DOCS_HASH_LENGTH = 20;
+
+	static final byte OWN_MEMBER = 0;
+	static final byte REF_MEMBER = 1;
+
+	static final byte METHOD = 0;
+	static final byte PROPERTY = 1;
+	static final byte CONSTANT = 2;
+	static final byte ARG = 3;
+
+	static final byte VALUE_NULL = 0;
+	static final byte VALUE_STRING = 1;
+	static final byte VALUE_INT = 2;
+	static final byte VALUE_LONG = 3;
+	static final byte VALUE_DOUBLE = 4;
+	static final byte VALUE_BOOLEAN = 5;
+
+	private ByteBuffer _buf;
+
+	private int[] _stringOffsets;
+	private int _stringsStart;
+	private String[] _strings;
+	private Path[] _paths;
+
+	private String[] _typeNames;
+	private int[] _typeOffsets;
+	private Map<String, Integer> _typesDirectory;
+	private PhaserType[] _types;
+
+	private int _recordsStart;
+	private List<PhaserConstant> _globalConstants;
+
+	/**
+	 * The SHA-1 of the content of the <code>docs.json</code> file, it is stored
+	 * in the binary file to detect if it is outdated.
+	 */
+	static byte[] computeDocsHash(Path docsJsonFile) throws IOException {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			try (InputStream input = Files.newInputStream(docsJsonFile)) {
+				byte[] buf = new byte[64 * 1024];
+				int n;
+				while ((n = input.read(buf)) != -1) {
+					digest.update(buf, 0, n);
+				}
+			}
+			return digest.digest();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Open the binary file.
+	 * 
+	 * @param binaryFile
+	 *            The binary file.
+	 * @param docsJsonFile
+	 *            The <code>docs.json</code> file. If it does not match the
+	 *            one used to write the binary file, an exception is thrown.
+	 */
+	public PhaserJSDocReader(Path binaryFile, Path docsJsonFile) throws IOException {
+		_buf = ByteBuffer.wrap(Files.readAllBytes(binaryFile));
+
+		if (_buf.getInt() != MAGIC || _buf.getInt() != VERSION) {
+			throw new IOException("Invalid JSDoc binary file " + binaryFile);
+		}
+
+		byte[] docsHash = new byte[DOCS_HASH_LENGTH];
+		_buf.get(docsHash);
+		if (Files.exists(docsJsonFile) && !Arrays.equals(computeDocsHash(docsJsonFile), docsHash)) {
+			throw new IOException("The JSDoc binary file is outdated " + binaryFile);
+		}
+
+		// strings
+
+		int count = _buf.getInt();
+		_stringOffsets = new int[count + 1];
+		for (int i = 0; i <= count; i++) {
+			_stringOffsets[i] = _buf.getInt();
+		}
+		_stringsStart = _buf.position();
+		_buf.position(_stringsStart + _stringOffsets[count]);
+		_strings = new String[count];
+		_paths = new Path[count];
+
+		// types directory
+
+		count = _buf.getInt();
+		_typeNames = new String[count];
+		_typeOffsets = new int[count];
+		_types = new PhaserType[count];
+		_typesDirectory = new HashMap<>(count * 4);
+
+		int[] nameIndexes = new int[count];
+		for (int i = 0; i < count; i++) {
+			nameIndexes[i] = _buf.getInt();
+			_typeOffsets[i] = _buf.getInt();
+		}
+
+		int globalsOffset = _buf.getInt();
+		_buf.getInt(); // records length
+		_recordsStart = _buf.position();
+
+		for (int i = 0; i < count; i++) {
+			String name = string(nameIndexes[i]);
+			_typeNames[i] = name;
+			Integer index = Integer.valueOf(i);
+			_typesDirectory.put(name, index);
+			_typesDirectory.putIfAbsent(name.replace(".", "_"), index);
+		}
+
+		// global constants, they are just a few
+
+		_buf.position(_recordsStart + globalsOffset);
+		count = _buf.getInt();
+		_globalConstants = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			_globalConstants.add((PhaserConstant) readMember(null));
+		}
+	}
+
+	public List<PhaserConstant> getGlobalConstants() {
+		return _globalConstants;
+	}
+
+	public List<String> getTypeNames() {
+		return Collections.unmodifiableList(Arrays.asList(_typeNames));
+	}
+
+	/**
+	 * Get the type with the given name. The name can be the real name
+	 * (<code>Phaser.Sprite</code>) or the name with underscores
+	 * (<code>Phaser_Sprite</code>).
+	 */
+	public synchronized PhaserType getType(String name) {
+		Integer index = _typesDirectory.get(name);
+		if (index == null) {
+			return null;
+		}
+		return getType(index.intValue());
+	}
+
+	private PhaserType getType(int index) {
+		PhaserType type = _types[index];
+		if (type == null) {
+			type = readType(index);
+		}
+		return type;
+	}
+
+	private String string(int index) {
+		if (index < 0) {
+			return null;
+		}
+
+		String str = _strings[index];
+
+		if (str == null) {
+			int start = _stringOffsets[index];
+			int len = _stringOffsets[index + 1] - start;
+			str = new String(_buf.array(), _stringsStart + start, len, StandardCharsets.UTF_8);
+			_strings[index] = str;
+		}
+
+		return str;
+	}
+
+	private Path path(int index) {
+		if (index < 0) {
+			return null;
+		}
+
+		Path path = _paths[index];
+
+		if (path == null) {
+			path = Paths.get(string(index));
+			_paths[index] = path;
+		}
+
+		return path;
+	}
+
+	private String[] readStrings() {
+		int count = _buf.getInt();
+
+		if (count < 0) {
+			return null;
+		}
+
+		String[] strs = new String[count];
+		for (int i = 0; i < count; i++) {
+			strs[i] = string(_buf.getInt());
+		}
+		return strs;
+	}
+
+	private void readMeta(IPhaserMember member) {
+		String name = string(_buf.getInt());
+		if (member instanceof PhaserType) {
+			((PhaserType) member).setName(name);
+		} else {
+			((PhaserMember) member).setName(name);
+		}
+		member.setFile(path(_buf.getInt()));
+		member.setLine(_buf.getInt());
+		member.setOffset(_buf.getInt());
+		boolean isStatic = _buf.get() != 0;
+		if (member instanceof PhaserType) {
+			((PhaserType) member).setStatic(isStatic);
+		} else {
+			((PhaserMember) member).setStatic(isStatic);
+		}
+	}
+
+	private PhaserType readType(int index) {
+		PhaserType type = new PhaserType();
+
+		// register it first, the references to inherited members could point
+		// back to this type
+		_types[index] = type;
+
+		_buf.position(_recordsStart + _typeOffsets[index]);
+
+		readMeta(type);
+		type.setHelp(string(_buf.getInt()));
+		type.setConstructor(_buf.get() != 0);
+
+		String[] superTypes = readStrings();
+		List<String> extend = new ArrayList<>();
+		Collections.addAll(extend, superTypes);
+		type.setExtends(extend);
+
+		readArgs(type.getConstructorArgs());
+
+		Map<String, PhaserMember> map = type.getMemberMap();
+
+		// the references are resolved later, because it moves the position of
+		// the buffer
+
+		int count = _buf.getInt();
+		// a member or the reference to an inherited member
+		List<Object> order = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			byte kind = _buf.get();
+			if (kind == OWN_MEMBER) {
+				PhaserMember member = readMember(type);
+				map.put(member.getName(), member);
+				order.add(member);
+			} else {
+				int declType = _buf.getInt();
+				int name = _buf.getInt();
+				order.add(new int[] { declType, name });
+			}
+		}
+
+		for (Object item : order) {
+			PhaserMember member;
+
+			if (item instanceof int[]) {
+				int[] ref = (int[]) item;
+				PhaserType declType = getType(ref[0]);
+				String name = string(ref[1]);
+				member = declType.getMemberMap().get(name);
+				if (member == null) {
+					continue;
+				}
+				map.put(name, member);
+			} else {
+				member = (PhaserMember) item;
+			}
+
+			if (member instanceof PhaserMethod) {
+				type.getMethods().add((PhaserMethod) member);
+			} else if (member instanceof PhaserConstant) {
+				type.getConstants().add((PhaserConstant) member);
+			} else if (member instanceof PhaserProperty) {
+				type.getProperties().add((PhaserProperty) member);
+			}
+		}
+
+		return type;
+	}
+
+	private void readArgs(List<PhaserMethodArg> args) {
+		int count = _buf.getInt();
+		for (int i = 0; i < count; i++) {
+			args.add((PhaserMethodArg) readMember(null));
+		}
+	}
+
+	private PhaserMember readMember(PhaserType declType) {
+		byte kind = _buf.get();
+
+		if (kind == METHOD) {
+			PhaserMethod method = new PhaserMethod();
+			readMeta(method);
+			method.setDeclType(declType);
+			method.setHelp(string(_buf.getInt()));
+			method.setReturnTypes(readStrings());
+			method.setReturnHelp(string(_buf.getInt()));
+			readArgs(method.getArgs());
+			for (PhaserMethodArg arg : method.getArgs()) {
+				method.getArgsMap().put(arg.getName(), arg);
+			}
+			return method;
+		}
+
+		PhaserVariable var;
+		switch (kind) {
+		case CONSTANT:
+			var = new PhaserConstant();
+			break;
+		case PROPERTY:
+			var = new PhaserProperty();
+			break;
+		default:
+			var = new PhaserMethodArg();
+			break;
+		}
+
+		readMeta(var);
+		if (kind != ARG) {
+			var.setDeclType(declType);
+		}
+		var.setHelp(string(_buf.getInt()));
+		var.setTypes(readStrings());
+		var.setDefaultValue(readValue());
+		var.setOptional(_buf.get() != 0);
+		if (var instanceof PhaserProperty) {
+			((PhaserProperty) var).setReadOnly(_buf.get() != 0);
+		}
+
+		return var;
+	}
+
+	private Object readValue() {
+		byte kind = _buf.get();
+		switch (kind) {
+		case VALUE_STRING:
+			return string(_buf.getInt());
+		case VALUE_INT:
+			return Integer.valueOf(_buf.getInt());
+		case VALUE_LONG:
+			return Long.valueOf(_buf.getLong());
+		case VALUE_DOUBLE:
+			return Double.valueOf(_buf.getDouble());
+		case VALUE_BOOLEAN:
+			return Boolean.valueOf(_buf.get() != 0);
+		default:
+			return null;
+		}
+	}
+}
@@ -0,0 +1,273 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.inspect.core.jsdoc;
+
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.ARG;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.CONSTANT;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.MAGIC;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.METHOD;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.OWN_MEMBER;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.PROPERTY;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.REF_MEMBER;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VALUE_BOOLEAN;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VALUE_DOUBLE;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VALUE_INT;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VALUE_LONG;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VALUE_NULL;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VALUE_STRING;
+import static phasereditor.inspect.core.jsdoc.PhaserJSDocReader.VERSION;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the compact binary form of the {@link PhaserJSDoc} model. It is
+ * generated at development time (see
+ * <code>phasereditor.inspect.core.build.BuildPhaserJSDocBinary</code>) and
+ * loaded by {@link PhaserJSDocReader}.
+ * 
+ * <p>
+ * All the strings are written in a single table, so repeated strings (like
+ * type names or the file paths) are stored once. The inherited members are
+ * written as references to the type that declares them, so the inheritance
+ * does not need to be computed again when the model is loaded.
+ * </p>
+ * 
+ * @author arian
+ *
+ */
+public class PhaserJSDocWriter {
+	private Map<String, Integer> _strings;
+	private Map<PhaserType, Integer> _typesIndex;
+
+	public PhaserJSDocWriter() {
+		_strings = new LinkedHashMap<>();
+		_typesIndex = new HashMap<>();
+	}
+
+	/**
+	 * Write the model to the given file.
+	 * 
+	 * @param jsdoc
+	 *            The model, built from the <code>docs.json</code> file.
+	 * @param docsJsonFile
+	 *            The <code>docs.json</code> file used to build the model. The
+	 *            SHA-1 of its content is stored to detect a stale binary file.
+	 * @param output
+	 *            The binary file.
+	 */
+	public void write(PhaserJSDoc jsdoc, Path docsJsonFile, Path output) throws IOException {
+		List<PhaserType> types = new ArrayList<>(jsdoc.getTypes());
+		types.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+		for (int i = 0; i < types.size(); i++) {
+			_typesIndex.put(types.get(i), Integer.valueOf(i));
+		}
+
+		// write the records first, to collect the strings
+
+		ByteArrayOutputStream recordsBytes = new ByteArrayOutputStream();
+		DataOutputStream records = new DataOutputStream(recordsBytes);
+
+		int[] typeOffsets = new int[types.size()];
+		for (int i = 0; i < types.size(); i++) {
+			typeOffsets[i] = records.size();
+			writeType(records, types.get(i));
+		}
+
+		int globalsOffset = records.size();
+		List<PhaserConstant> globals = jsdoc.getGlobalConstants();
+		records.writeInt(globals.size());
+		for (PhaserConstant cons : globals) {
+			writeMember(records, cons);
+		}
+
+		records.flush();
+
+		// the type names are needed by the directory
+
+		int[] typeNames = new int[types.size()];
+		for (int i = 0; i < types.size(); i++) {
+			typeNames[i] = string(types.get(i).getName());
+		}
+
+		try (DataOutputStream output2 = new DataOutputStream(Files.newOutputStream(output))) {
+			output2.writeInt(MAGIC);
+			output2.writeInt(VERSION);
+			output2.write(PhaserJSDocReader.computeDocsHash(docsJsonFile));
+
+			// strings
+
+			List<byte[]> encoded = new ArrayList<>(_strings.size());
+			for (String str : _strings.keySet()) {
+				encoded.add(str.getBytes(StandardCharsets.UTF_8));
+			}
+
+			output2.writeInt(encoded.size());
+			int offset = 0;
+			for (byte[] bytes : encoded) {
+				output2.writeInt(offset);
+				offset += bytes.length;
+			}
+			output2.writeInt(offset);
+			for (byte[] bytes : encoded) {
+				output2.write(bytes);
+			}
+
+			// types directory
+
+			output2.writeInt(types.size());
+			for (int i = 0; i < types.size(); i++) {
+				output2.writeInt(typeNames[i]);
+				output2.writeInt(typeOffsets[i]);
+			}
+
+			output2.writeInt(globalsOffset);
+
+			// records
+
+			output2.writeInt(recordsBytes.size());
+			recordsBytes.writeTo(output2);
+		}
+	}
+
+	private int string(String str) {
+		if (str == null) {
+			return -1;
+		}
+		return _strings.computeIfAbsent(str, k -> Integer.valueOf(_strings.size())).intValue();
+	}
+
+	private void writeStrings(DataOutputStream out, String[] strs) throws IOException {
+		if (strs == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		out.writeInt(strs.length);
+		for (String str : strs) {
+			out.writeInt(string(str));
+		}
+	}
+
+	private void writeType(DataOutputStream out, PhaserType type) throws IOException {
+		writeMeta(out, type);
+		out.writeInt(string(type.getHelp()));
+		out.writeBoolean(type.isConstructor());
+
+		List<String> superTypes = type.getExtends();
+		writeStrings(out, superTypes.toArray(new String[superTypes.size()]));
+
+		writeArgs(out, type.getConstructorArgs());
+
+		Map<String, PhaserMember> map = type.getMemberMap();
+		out.writeInt(map.size());
+		for (PhaserMember member : map.values()) {
+			PhaserType declType = member.getDeclType();
+			if (declType == type || !_typesIndex.containsKey(declType)) {
+				out.writeByte(OWN_MEMBER);
+				writeMember(out, member);
+			} else {
+				out.writeByte(REF_MEMBER);
+				out.writeInt(_typesIndex.get(declType).intValue());
+				out.writeInt(string(member.getName()));
+			}
+		}
+	}
+
+	private void writeMeta(DataOutputStream out, IPhaserMember member) throws IOException {
+		out.writeInt(string(member.getName()));
+		Path file = member.getFile();
+		out.writeInt(string(file == null ? null : file.toString().replace("\\", "/")));
+		out.writeInt(member.getLine());
+		out.writeInt(member.getOffset());
+		out.writeBoolean(member.isStatic());
+	}
+
+	private void writeMember(DataOutputStream out, PhaserMember member) throws IOException {
+		if (member instanceof PhaserMethod) {
+			PhaserMethod method = (PhaserMethod) member;
+			out.writeByte(METHOD);
+			writeMeta(out, method);
+			out.writeInt(string(method.getHelp()));
+			writeStrings(out, method.getReturnTypes());
+			out.writeInt(string(method.getReturnHelp()));
+			writeArgs(out, method.getArgs());
+		} else {
+			PhaserVariable var = (PhaserVariable) member;
+			byte kind;
+			if (var instanceof PhaserConstant) {
+				kind = CONSTANT;
+			} else if (var instanceof PhaserProperty) {
+				kind = PROPERTY;
+			} else {
+				kind = ARG;
+			}
+			out.writeByte(kind);
+			writeMeta(out, var);
+			out.writeInt(string(var.getHelp()));
+			writeStrings(out, var.getTypes());
+			writeValue(out, var.getDefaultValue());
+			out.writeBoolean(var.isOptional());
+			if (var instanceof PhaserProperty) {
+				out.writeBoolean(((PhaserProperty) var).isReadOnly());
+			}
+		}
+	}
+
+	private void writeArgs(DataOutputStream out, List<PhaserMethodArg> args) throws IOException {
+		out.writeInt(args.size());
+		for (PhaserMethodArg arg : args) {
+			writeMember(out, arg);
+		}
+	}
+
+	private void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(VALUE_NULL);
+		} else if (value instanceof Integer) {
+			out.writeByte(VALUE_INT);
+			out.writeInt(((Integer) value).intValue());
+		} else if (value instanceof Long) {
+			out.writeByte(VALUE_LONG);
+			out.writeLong(((Long) value).longValue());
+		} else if (value instanceof Number) {
+			out.writeByte(VALUE_DOUBLE);
+			out.writeDouble(((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			out.writeByte(VALUE_BOOLEAN);
+			out.writeBoolean(((Boolean) value).booleanValue());
+		} else {
+			out.writeByte(VALUE_STRING);
+			out.writeInt(string(value.toString()));
+		}
+	}
+}
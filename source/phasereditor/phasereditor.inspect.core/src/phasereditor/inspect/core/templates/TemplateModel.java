@@ -35,7 +35,6 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 import phasereditor.inspect.core.IPhaserCategory;
 import phasereditor.inspect.core.IPhaserTemplate;
@@ -71,7 +70,7 @@ public class TemplateModel implements IPhaserTemplate {
 		Path path = _templateFolder.resolve("template.json");
 		if (Files.exists(path)) {
 			try (InputStream input = Files.newInputStream(path)) {
-				JSONObject obj = new JSONObject(new JSONTokener(input));
+				JSONObject obj = JSONObject.read(input);
 				_info = new TemplateInfo(obj);
 			} catch (Exception e) {
 				throw new RuntimeException(e);
@@ -0,0 +1,80 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.project.core;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The information declared in a <code>buildParticipant</code> extension.
+ *
+ * @author arian
+ *
+ */
+public class BuildParticipantDescriptor {
+	private String _id;
+	private double _order;
+	private Set<String> _dependsOn;
+	private IProjectBuildParticipant _participant;
+
+	public BuildParticipantDescriptor(String id, double order, Set<String> dependsOn,
+			IProjectBuildParticipant participant) {
+		super();
+		_id = id;
+		_order = order;
+		_dependsOn = dependsOn == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(dependsOn));
+		_participant = participant;
+	}
+
+	public String getId() {
+		return _id;
+	}
+
+	public double getOrder() {
+		return _order;
+	}
+
+	/**
+	 * The IDs of the participants that should run before this one.
+	 *
+	 * @return The explicit dependencies or <code>null</code> if they were not
+	 *         declared. In that case the participant depends on all the
+	 *         participants with a lower order.
+	 */
+	public Set<String> getDependsOn() {
+		return _dependsOn;
+	}
+
+	public boolean isDependsOnDeclared() {
+		return _dependsOn != null;
+	}
+
+	public IProjectBuildParticipant getParticipant() {
+		return _participant;
+	}
+
+	@Override
+	public String toString() {
+		return _id + " (" + _participant.getClass().getSimpleName() + ")";
+	}
+}
@@ -0,0 +1,216 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.project.core;
+
+import static java.lang.System.out;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Runs the build participants in a bounded thread pool, respecting the
+ * dependencies declared in the extensions. A participant starts as soon as all
+ * the participants it depends on are done, so independent participants run
+ * concurrently.
+ *
+ * Participants are executed outside the builder thread, so they should not
+ * perform workspace operations that require a scheduling rule (markers and
+ * persistent properties are fine).
+ *
+ * @author arian
+ *
+ */
+public class BuildParticipantScheduler {
+
+	public interface IParticipantTask {
+		public void run(IProjectBuildParticipant participant) throws Exception;
+	}
+
+	private static ExecutorService _pool;
+
+	private static synchronized ExecutorService getPool() {
+		if (_pool == null) {
+			int size = Math.max(2, Runtime.getRuntime().availableProcessors());
+			AtomicInteger count = new AtomicInteger();
+			_pool = Executors.newFixedThreadPool(size, r -> {
+				Thread thread = new Thread(r, "Phaser Build Participant #" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return _pool;
+	}
+
+	private static class Result {
+		public BuildParticipantDescriptor desc;
+		public long time;
+
+		public Result(BuildParticipantDescriptor desc, long time) {
+			super();
+			this.desc = desc;
+			this.time = time;
+		}
+	}
+
+	/**
+	 * Compute the participants each participant depends on. Unknown IDs are
+	 * ignored and participants without declared dependencies depend on all the
+	 * participants before them in the list.
+	 */
+	private static Map<BuildParticipantDescriptor, Set<BuildParticipantDescriptor>> computeDependencies(
+			List<BuildParticipantDescriptor> list) {
+		Map<String, BuildParticipantDescriptor> idMap = new HashMap<>();
+		for (BuildParticipantDescriptor desc : list) {
+			idMap.put(desc.getId(), desc);
+		}
+
+		Map<BuildParticipantDescriptor, Set<BuildParticipantDescriptor>> depsMap = new HashMap<>();
+
+		for (int i = 0; i < list.size(); i++) {
+			BuildParticipantDescriptor desc = list.get(i);
+			Set<BuildParticipantDescriptor> deps = new LinkedHashSet<>();
+
+			if (desc.isDependsOnDeclared()) {
+				for (String id : desc.getDependsOn()) {
+					BuildParticipantDescriptor dep = idMap.get(id);
+					if (dep == null) {
+						out.println("\t" + desc + " depends on unknown participant " + id);
+					} else if (dep != desc) {
+						deps.add(dep);
+					}
+				}
+			} else {
+				deps.addAll(list.subList(0, i));
+			}
+
+			depsMap.put(desc, deps);
+		}
+
+		return depsMap;
+	}
+
+	/**
+	 * Execute the task on all the participants. This method returns when all
+	 * the participants are done. Errors are logged and do not stop the other
+	 * participants.
+	 *
+	 * @param list
+	 *            The participants, sorted by order.
+	 * @param taskName
+	 *            The name used in the progress messages.
+	 * @param monitor
+	 *            The monitor to report the progress. It is updated only from
+	 *            the caller thread.
+	 * @param task
+	 *            The task to execute on each participant.
+	 */
+	public static void run(List<BuildParticipantDescriptor> list, String taskName, IProgressMonitor monitor,
+			IParticipantTask task) {
+
+		Map<BuildParticipantDescriptor, Set<BuildParticipantDescriptor>> depsMap = computeDependencies(list);
+
+		List<BuildParticipantDescriptor> pending = new ArrayList<>(list);
+		Set<BuildParticipantDescriptor> done = new LinkedHashSet<>();
+		Set<BuildParticipantDescriptor> running = new LinkedHashSet<>();
+
+		CompletionService<Result> service = new ExecutorCompletionService<>(getPool());
+
+		long start = System.currentTimeMillis();
+
+		while (!pending.isEmpty() || !running.isEmpty()) {
+
+			// launch all the participants with the dependencies satisfied
+
+			for (BuildParticipantDescriptor desc : new ArrayList<>(pending)) {
+				if (done.containsAll(depsMap.get(desc))) {
+					pending.remove(desc);
+					running.add(desc);
+					out.println("\t" + desc + " (" + taskName + ")");
+					service.submit(() -> {
+						long t = System.currentTimeMillis();
+						try {
+							task.run(desc.getParticipant());
+						} catch (Exception e) {
+							ProjectCore.logError(e);
+						}
+						return new Result(desc, System.currentTimeMillis() - t);
+					});
+				}
+			}
+
+			if (running.isEmpty()) {
+				// there is a cycle, break it by running the first pending
+				// participant as if all its dependencies were satisfied
+				BuildParticipantDescriptor desc = pending.get(0);
+				out.println("\t" + desc + " is in a dependency cycle");
+				depsMap.put(desc, new LinkedHashSet<>());
+				continue;
+			}
+
+			monitor.subTask(taskName + " " + getNames(running));
+
+			try {
+				Result result = service.take().get();
+				running.remove(result.desc);
+				done.add(result.desc);
+
+				out.println("\t" + result.desc + " (done in " + result.time + "ms)");
+				monitor.subTask(result.desc.getParticipant().getClass().getSimpleName() + " done in " + result.time
+						+ "ms");
+				monitor.worked(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				ProjectCore.logError(e);
+				return;
+			} catch (Exception e) {
+				// the task catches the participant errors, so this should not
+				// happen
+				ProjectCore.logError(e);
+				return;
+			}
+		}
+
+		out.println("\t" + taskName + " total time " + (System.currentTimeMillis() - start) + "ms");
+	}
+
+	private static String getNames(Set<BuildParticipantDescriptor> running) {
+		StringBuilder sb = new StringBuilder();
+		for (BuildParticipantDescriptor desc : running) {
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(desc.getParticipant().getClass().getSimpleName());
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,296 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.project.core;
+
+import static java.lang.System.out;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * A background queue for the expensive work of the build participants (like
+ * to generate sound waves or screenshots), so the build only does the model
+ * and markers work.
+ *
+ * The work is associated to a category and a file. If new work is scheduled
+ * for the same category and file, it replaces the work still waiting in the
+ * queue. A few works run in parallel, so the participants should start their
+ * work in the scheduled runnable, not before, else it cannot be replaced or
+ * cancelled.
+ *
+ * @author arian
+ *
+ */
+public class DeferredBuildQueue {
+	private static DeferredBuildQueue _instance;
+
+	private static class Work {
+		public String category;
+		public IFile file;
+		public Runnable runnable;
+
+		public Work(String category, IFile file, Runnable runnable) {
+			super();
+			this.category = category;
+			this.file = file;
+			this.runnable = runnable;
+		}
+	}
+
+	private Map<String, Work> _queue;
+	private List<IDeferredBuildListener> _listeners;
+	private Job _job;
+
+	private DeferredBuildQueue() {
+		_queue = new LinkedHashMap<>();
+		_listeners = new CopyOnWriteArrayList<>();
+		_job = new Job("Building Phaser media") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				return runQueue(monitor);
+			}
+
+			@Override
+			protected void canceling() {
+				// stop the running works, they are interrupted when the queue
+				// stops to wait for them
+				Thread thread = getThread();
+				if (thread != null) {
+					thread.interrupt();
+				}
+			}
+		};
+		_job.setPriority(Job.DECORATE);
+		_job.setSystem(false);
+	}
+
+	public static synchronized DeferredBuildQueue getInstance() {
+		if (_instance == null) {
+			_instance = new DeferredBuildQueue();
+		}
+		return _instance;
+	}
+
+	private static String getKey(String category, IFile file) {
+		return category + "#" + file.getFullPath().toPortableString();
+	}
+
+	/**
+	 * Schedule the work. It replaces any pending work of the same category for
+	 * the same file.
+	 */
+	public void enqueue(String category, IFile file, Runnable runnable) {
+		synchronized (_queue) {
+			String key = getKey(category, file);
+			// remove it first, so the new work goes to the end of the queue
+			_queue.remove(key);
+			_queue.put(key, new Work(category, file, runnable));
+		}
+		_job.schedule(100);
+	}
+
+	/**
+	 * Remove the pending work of the given category for the file.
+	 */
+	public void cancel(String category, IFile file) {
+		synchronized (_queue) {
+			_queue.remove(getKey(category, file));
+		}
+	}
+
+	/**
+	 * Remove all the pending work of the project.
+	 */
+	public void cancel(IProject project) {
+		synchronized (_queue) {
+			Iterator<Work> iter = _queue.values().iterator();
+			while (iter.hasNext()) {
+				if (iter.next().file.getProject().equals(project)) {
+					iter.remove();
+				}
+			}
+		}
+	}
+
+	public boolean isPending(String category, IFile file) {
+		synchronized (_queue) {
+			return _queue.containsKey(getKey(category, file));
+		}
+	}
+
+	public void addListener(IDeferredBuildListener listener) {
+		_listeners.add(listener);
+	}
+
+	public void removeListener(IDeferredBuildListener listener) {
+		_listeners.remove(listener);
+	}
+
+	private Work poll() {
+		synchronized (_queue) {
+			Iterator<Entry<String, Work>> iter = _queue.entrySet().iterator();
+			if (iter.hasNext()) {
+				Work work = iter.next().getValue();
+				iter.remove();
+				return work;
+			}
+			return null;
+		}
+	}
+
+	private int size() {
+		synchronized (_queue) {
+			return _queue.size();
+		}
+	}
+
+	IStatus runQueue(IProgressMonitor monitor) {
+		Map<String, Set<IFile>> done = new HashMap<>();
+
+		monitor.beginTask("Building Phaser media", IProgressMonitor.UNKNOWN);
+
+		long t = System.currentTimeMillis();
+
+		// a few works run at the same time, the rest wait in the queue, so
+		// they can be replaced or cancelled until they start
+
+		int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+		ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+			Thread thread = new Thread(r, "Phaser Deferred Build");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Work> completion = new ExecutorCompletionService<>(pool);
+
+		try {
+			int running = 0;
+
+			while (true) {
+				while (running < parallelism && !monitor.isCanceled()) {
+					Work work = poll();
+
+					if (work == null) {
+						break;
+					}
+
+					completion.submit(() -> {
+						try {
+							if (work.file.exists()) {
+								work.runnable.run();
+							}
+						} catch (Exception e) {
+							ProjectCore.logError(e);
+						}
+					}, work);
+
+					running++;
+				}
+
+				if (running == 0) {
+					break;
+				}
+
+				Future<Work> future = completion.take();
+				running--;
+
+				Work work;
+				try {
+					work = future.get();
+				} catch (ExecutionException e) {
+					ProjectCore.logError(e);
+					continue;
+				}
+
+				monitor.subTask(work.file.getName() + " (" + size() + " pending)");
+
+				done.computeIfAbsent(work.category, k -> new LinkedHashSet<>()).add(work.file);
+
+				monitor.worked(1);
+
+				// notify the listeners from time to time, so the user can see
+				// the results while the rest is building
+
+				if (System.currentTimeMillis() - t > 1000) {
+					fireDone(done);
+					done = new HashMap<>();
+					t = System.currentTimeMillis();
+				}
+			}
+		} catch (InterruptedException e) {
+			// the job was cancelled
+		} finally {
+			// it interrupts the running works
+			pool.shutdownNow();
+		}
+
+		// clear the interrupt of canceling(), the thread goes back to the pool
+		// of the jobs
+		Thread.interrupted();
+
+		if (monitor.isCanceled()) {
+			synchronized (_queue) {
+				_queue.clear();
+			}
+		}
+
+		fireDone(done);
+
+		monitor.done();
+
+		return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+	}
+
+	private void fireDone(Map<String, Set<IFile>> done) {
+		for (Entry<String, Set<IFile>> entry : done.entrySet()) {
+			out.println("DeferredBuildQueue: " + entry.getKey() + " done " + entry.getValue().size() + " files");
+			for (IDeferredBuildListener l : new ArrayList<>(_listeners)) {
+				try {
+					l.deferredWorkDone(entry.getKey(), entry.getValue());
+				} catch (Exception e) {
+					ProjectCore.logError(e);
+				}
+			}
+		}
+	}
+}
@@ -22,11 +22,12 @@
 package phasereditor.project.core;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -38,112 +39,319 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 
 /**
+ * A cache of data computed from the files of the projects.
+ * 
+ * The data of each project is kept in an immutable snapshot, so the readers
+ * (label providers, validations) do not need any lock. Writers are
+ * synchronized per project, and publish a new snapshot when they finish.
+ * 
  * @author arian
  *
  */
 public abstract class FileDataCache<TData> {
-	private Map<IProject, Map<IPath, TData>> _cache;
+
+	/**
+	 * An immutable view of the data of a project.
+	 */
+	public static class Snapshot<TData> {
+		private Map<IPath, TData> _map;
+		private List<TData> _list;
+
+		Snapshot(Map<IPath, TData> map) {
+			_map = Collections.unmodifiableMap(map);
+			_list = Collections.unmodifiableList(new ArrayList<>(map.values()));
+		}
+
+		public TData get(IPath path) {
+			return _map.get(path);
+		}
+
+		public Map<IPath, TData> getMap() {
+			return _map;
+		}
+
+		public List<TData> getList() {
+			return _list;
+		}
+
+		public int size() {
+			return _map.size();
+		}
+	}
+
+	private static class ProjectEntry<TData> {
+		public volatile Snapshot<TData> snapshot;
+		/**
+		 * The modification stamps of the processed files, even of those
+		 * without data. Used to write the {@link FileSnapshot}.
+		 */
+		public Map<IPath, Long> stamps;
+
+		public ProjectEntry() {
+			snapshot = new Snapshot<>(Collections.emptyMap());
+			stamps = new ConcurrentHashMap<>();
+		}
+	}
+
+	private Map<IProject, ProjectEntry<TData>> _cache;
 
 	public FileDataCache() {
-		_cache = new HashMap<>();
+		_cache = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Build the data of all the files of the project. The data of the files is
+	 * created in parallel, so {@link #createData(IFile)} should be thread
+	 * safe.
+	 */
+	public void buildProject(IProject project) throws CoreException {
+		buildProject(project, false);
 	}
 
-	public synchronized void buildProject(IProject project) throws CoreException {
-		Map<IPath, TData> map = new HashMap<>();
+	/**
+	 * Build the data of all the files of the project.
+	 * 
+	 * @param useSnapshot
+	 *            If <code>true</code>, the data of the files not modified
+	 *            since the last {@link #saveSnapshot(IProject)} is taken from
+	 *            the snapshot, instead of calling {@link #createData(IFile)}.
+	 */
+	public void buildProject(IProject project, boolean useSnapshot) throws CoreException {
+		List<IFile> files = new ArrayList<>();
 		IContainer webContent = ProjectCore.getWebContentFolder(project);
 		webContent.accept(new IResourceVisitor() {
 
 			@Override
 			public boolean visit(IResource resource) throws CoreException {
 				if (resource instanceof IFile) {
-					TData data = createData((IFile) resource);
-					if (data != null) {
-						map.put(resource.getFullPath(), data);
-					}
+					files.add((IFile) resource);
 				}
 				return true;
 			}
 		});
-		_cache.put(project, map);
-	}
 
-	public synchronized void buildDelta(IProject project, IResourceDelta delta) throws CoreException {
-		Map<IPath, TData> map = getProjectMap(project);
+		String snapshotName = getSnapshotName();
+		FileSnapshot fileSnapshot = useSnapshot && snapshotName != null
+				? FileSnapshot.read(project, snapshotName, getSnapshotVersion()) : null;
 
-		delta.accept(new IResourceDeltaVisitor2() {
+		Map<IPath, TData> map = new ConcurrentHashMap<>();
+		Map<IPath, Long> stamps = new ConcurrentHashMap<>();
+
+		files.parallelStream().forEach(file -> {
+			try {
+				IPath path = file.getFullPath();
+				long stamp = file.getModificationStamp();
+				TData data;
+
+				FileSnapshot.Item item = fileSnapshot == null ? null : fileSnapshot.getValid(file);
+
+				if (item == null) {
+					data = createData(file);
+				} else {
+					data = item.data == null ? null : createDataFromSnapshot(file, item.data);
+				}
+
+				stamps.put(path, Long.valueOf(stamp));
 
-			@Override
-			public void fileAdded(IFile file) {
-				TData data = createData(file);
 				if (data != null) {
-					map.put(file.getFullPath(), data);
+					map.put(path, data);
 				}
+			} catch (Exception e) {
+				ProjectCore.logError(e);
 			}
+		});
 
-			@Override
-			public void fileRemoved(IFile file) {
-				map.remove(file.getFullPath());
-			}
+		ProjectEntry<TData> entry = getProjectEntry(project);
 
-			@Override
-			public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
-				TData data = map.remove(movedFromPath);
+		synchronized (entry) {
+			entry.snapshot = new Snapshot<>(new HashMap<>(map));
+			entry.stamps = stamps;
+		}
+	}
 
-				if (!ProjectCore.isWebContentFile(file)) {
-					// the file is going out of the web content so we are not
-					// interested on it, so just keep it deleted!!!
-					return;
+	public void buildDelta(IProject project, IResourceDelta delta) throws CoreException {
+		ProjectEntry<TData> entry = getProjectEntry(project);
+
+		synchronized (entry) {
+			Map<IPath, TData> map = new HashMap<>(entry.snapshot.getMap());
+
+			delta.accept(new IResourceDeltaVisitor2() {
+
+				@Override
+				public void fileAdded(IFile file) {
+					entry.stamps.put(file.getFullPath(), Long.valueOf(file.getModificationStamp()));
+					TData data = createData(file);
+					if (data != null) {
+						map.put(file.getFullPath(), data);
+					}
 				}
 
-				if (data == null) {
-					// maybe moved from outside the WebContent folder
-					data = createData(file);
-					if (data == null) {
-						// this is not the kind of file we are interested on
+				@Override
+				public void fileRemoved(IFile file) {
+					entry.stamps.remove(file.getFullPath());
+					map.remove(file.getFullPath());
+				}
+
+				@Override
+				public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+					TData data = map.remove(movedFromPath);
+					entry.stamps.remove(movedFromPath);
+
+					if (!ProjectCore.isWebContentFile(file)) {
+						// the file is going out of the web content so we are
+						// not interested on it, so just keep it deleted!!!
 						return;
 					}
-				} else {
-					updateDataWithMove(data, file, movedFromPath, movedToPath);
-				}
 
-				map.put(movedToPath, data);
-			}
+					if (data == null) {
+						// maybe moved from outside the WebContent folder
+						data = createData(file);
+						if (data == null) {
+							// this is not the kind of file we are interested on
+							return;
+						}
+					} else {
+						updateDataWithMove(data, file, movedFromPath, movedToPath);
+					}
 
-			@Override
-			public void fileChanged(IFile file) {
-				TData data = createData(file);
-				if (data != null) {
-					map.put(file.getFullPath(), data);
+					entry.stamps.put(movedToPath, Long.valueOf(file.getModificationStamp()));
+					map.put(movedToPath, data);
 				}
-			}
 
-		});
+				@Override
+				public void fileChanged(IFile file) {
+					entry.stamps.put(file.getFullPath(), Long.valueOf(file.getModificationStamp()));
+					TData data = createData(file);
+					if (data != null) {
+						map.put(file.getFullPath(), data);
+					} else {
+						map.remove(file.getFullPath());
+					}
+				}
+
+			});
+
+			entry.snapshot = new Snapshot<>(map);
+		}
 	}
 
 	protected abstract void updateDataWithMove(TData data, IFile file, IPath movedFromPath, IPath movedToPath);
 
-	public synchronized void clean(IProject project) {
+	public void clean(IProject project) {
 		_cache.remove(project);
+
+		String name = getSnapshotName();
+		if (name != null) {
+			FileSnapshot.delete(project, name);
+		}
+	}
+
+	/**
+	 * The name of the {@link FileSnapshot} used to persist the cache, or
+	 * <code>null</code> if this cache is not persisted. Subclasses returning
+	 * a name should implement {@link #getSnapshotData(Object)} and
+	 * {@link #createDataFromSnapshot(IFile, String)}.
+	 */
+	protected String getSnapshotName() {
+		return null;
+	}
+
+	/**
+	 * The version of the snapshot format. Change it when the data format
+	 * changes, so the old snapshots are discarded.
+	 */
+	protected int getSnapshotVersion() {
+		return 1;
+	}
+
+	/**
+	 * Serialize the data to be stored in the snapshot.
+	 */
+	@SuppressWarnings("unused")
+	protected String getSnapshotData(TData data) {
+		return null;
+	}
+
+	/**
+	 * Create the data of the file from the information stored in the snapshot.
+	 * It is called only if the file was not modified since the snapshot was
+	 * written.
+	 */
+	@SuppressWarnings("unused")
+	protected TData createDataFromSnapshot(IFile file, String snapshotData) {
+		return createData(file);
+	}
+
+	/**
+	 * Write the snapshot of the project data, to be used the next time the
+	 * workspace is opened.
+	 */
+	public void saveSnapshot(IProject project) {
+		String name = getSnapshotName();
+		ProjectEntry<TData> entry = _cache.get(project);
+
+		if (name == null || entry == null) {
+			return;
+		}
+
+		FileSnapshot fileSnapshot = new FileSnapshot(getSnapshotVersion());
+
+		synchronized (entry) {
+			Snapshot<TData> snapshot = entry.snapshot;
+			for (Entry<IPath, Long> stampEntry : entry.stamps.entrySet()) {
+				IPath path = stampEntry.getKey();
+				TData data = snapshot.get(path);
+				fileSnapshot.put(path, stampEntry.getValue().longValue(), data == null ? null : getSnapshotData(data));
+			}
+		}
+
+		fileSnapshot.write(project, name);
+	}
+
+	/**
+	 * Write the snapshots of all the cached projects.
+	 */
+	public void saveSnapshots() {
+		for (IProject project : _cache.keySet()) {
+			saveSnapshot(project);
+		}
+	}
+
+	/**
+	 * Get the current snapshot of the project data. It is immutable, so it can
+	 * be iterated while the cache is updated.
+	 */
+	public Snapshot<TData> getProjectSnapshot(IProject project) {
+		ProjectEntry<TData> entry = _cache.get(project);
+
+		if (entry == null) {
+			return null;
+		}
+
+		return entry.snapshot;
 	}
 
-	public synchronized List<TData> getProjectData(IProject project) {
-		Map<IPath, TData> map = _cache.get(project);
+	/**
+	 * The data of the project. The returned list is immutable.
+	 */
+	public List<TData> getProjectData(IProject project) {
+		Snapshot<TData> snapshot = getProjectSnapshot(project);
 
-		if (map == null) {
+		if (snapshot == null) {
 			return Collections.emptyList();
 		}
-		Collection<TData> values = map.values();
-		return new ArrayList<>(values);
+
+		return snapshot.getList();
 	}
 
-	public synchronized TData getFileData(IFile file) {
-		Map<IPath, TData> map = _cache.get(file.getProject());
+	public TData getFileData(IFile file) {
+		Snapshot<TData> snapshot = getProjectSnapshot(file.getProject());
 
-		if (map == null) {
+		if (snapshot == null) {
 			return null;
 		}
 
-		TData data = map.get(file.getFullPath());
+		TData data = snapshot.get(file.getFullPath());
 
 		return data;
 	}
@@ -153,8 +361,8 @@ public abstract class FileDataCache<TData> {
 		return data != null;
 	}
 
-	private Map<IPath, TData> getProjectMap(IProject project) {
-		return _cache.computeIfAbsent(project, p -> new HashMap<>());
+	private ProjectEntry<TData> getProjectEntry(IProject project) {
+		return _cache.computeIfAbsent(project, p -> new ProjectEntry<>());
 	}
 
 	/**
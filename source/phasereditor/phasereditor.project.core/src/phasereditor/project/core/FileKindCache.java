@@ -0,0 +1,133 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.project.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * A cache of the kind of the files (like if a file is an atlas, a tilemap or
+ * a canvas), that is computed by sniffing the file content. The results are
+ * keyed by the file path, and are valid while the modification stamp of the
+ * file does not change, so the dialogs and wizards that list the files of a
+ * certain kind do not read the same content again and again.
+ * 
+ * @author arian
+ *
+ */
+public class FileKindCache {
+
+	private static final Object NONE = new Object();
+
+	private static class Entry {
+		public long stamp;
+		public Map<String, Object> kinds;
+
+		public Entry(long stamp) {
+			this.stamp = stamp;
+			this.kinds = new ConcurrentHashMap<>();
+		}
+	}
+
+	private static Map<IPath, Entry> _map = new ConcurrentHashMap<>();
+
+	/**
+	 * Get the result of the sniffer for the given file. The sniffer is called
+	 * only if there is not a result computed for the current modification
+	 * stamp of the file.
+	 * 
+	 * @param file
+	 *            The file to test.
+	 * @param kind
+	 *            The ID of the kind, like <code>"atlas"</code>.
+	 * @param sniffer
+	 *            The function that computes the kind. It can return
+	 *            <code>null</code>.
+	 * @return The result of the sniffer.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T get(IFile file, String kind, Function<IFile, T> sniffer) {
+		long stamp = file.getModificationStamp();
+		IPath path = file.getFullPath();
+
+		Entry entry = _map.get(path);
+
+		if (entry == null || entry.stamp != stamp) {
+			entry = new Entry(stamp);
+			_map.put(path, entry);
+		}
+
+		Object value = entry.kinds.get(kind);
+
+		if (value == null) {
+			T result = sniffer.apply(file);
+			value = result == null ? NONE : result;
+			entry.kinds.put(kind, value);
+		}
+
+		return value == NONE ? null : (T) value;
+	}
+
+	public static boolean is(IFile file, String kind, Function<IFile, Boolean> sniffer) {
+		Boolean b = get(file, kind, sniffer);
+		return b != null && b.booleanValue();
+	}
+
+	public static void remove(IFile file) {
+		_map.remove(file.getFullPath());
+	}
+
+	public static void remove(IProject project) {
+		IPath projectPath = project.getFullPath();
+		_map.keySet().removeIf(path -> projectPath.isPrefixOf(path));
+	}
+
+	/**
+	 * Remove the entries of the files removed in the delta. The entries of the
+	 * modified files are updated the next time they are requested.
+	 */
+	public static void update(IResourceDelta delta) {
+		try {
+			delta.accept(new IResourceDeltaVisitor2() {
+
+				@Override
+				public void fileRemoved(IFile file) {
+					remove(file);
+				}
+
+				@Override
+				public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+					_map.remove(movedFromPath);
+				}
+			});
+		} catch (CoreException e) {
+			ProjectCore.logError(e);
+		}
+	}
+}
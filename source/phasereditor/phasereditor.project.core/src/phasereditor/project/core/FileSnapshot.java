@@ -0,0 +1,181 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.project.core;
+
+import static java.lang.System.out;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * A binary snapshot of information computed from the files of a project. Each
+ * entry is keyed by the file path and keeps the modification stamp of the file
+ * when the information was computed, so at startup only the files modified
+ * since the snapshot was written need to be processed again.
+ * 
+ * The snapshots are stored in the project working location.
+ * 
+ * @author arian
+ *
+ */
+public class FileSnapshot {
+	private static final int MAGIC = 0x50455353;
+
+	public static class Item {
+		public long stamp;
+		/**
+		 * The information of the file, or <code>null</code> if the file was
+		 * processed and it is not the kind of file we are interested on.
+		 */
+		public String data;
+
+		public Item(long stamp, String data) {
+			super();
+			this.stamp = stamp;
+			this.data = data;
+		}
+	}
+
+	private int _version;
+	private Map<IPath, Item> _items;
+
+	public FileSnapshot(int version) {
+		_version = version;
+		_items = new HashMap<>();
+	}
+
+	public void put(IPath path, long stamp, String data) {
+		_items.put(path, new Item(stamp, data));
+	}
+
+	public Item get(IPath path) {
+		return _items.get(path);
+	}
+
+	/**
+	 * Get the item of the file only if the file was not modified after the
+	 * snapshot was taken.
+	 */
+	public Item getValid(IFile file) {
+		Item item = _items.get(file.getFullPath());
+
+		if (item == null || item.stamp != file.getModificationStamp()) {
+			return null;
+		}
+
+		return item;
+	}
+
+	public int size() {
+		return _items.size();
+	}
+
+	public static Path getSnapshotFile(IProject project, String name) {
+		return project.getWorkingLocation(Activator.PLUGIN_ID).append(name + ".snapshot").toFile().toPath();
+	}
+
+	/**
+	 * Read the snapshot. If it does not exist or it was written with another
+	 * version, an empty snapshot is returned.
+	 */
+	public static FileSnapshot read(IProject project, String name, int version) {
+		FileSnapshot snapshot = new FileSnapshot(version);
+
+		Path file = getSnapshotFile(project, name);
+
+		if (!Files.exists(file)) {
+			return snapshot;
+		}
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (input.readInt() != MAGIC || input.readInt() != version) {
+				out.println("FileSnapshot: discard old version of " + file);
+				return snapshot;
+			}
+
+			int size = input.readInt();
+			for (int i = 0; i < size; i++) {
+				IPath path = project.getFullPath().append(input.readUTF());
+				long stamp = input.readLong();
+				String data = input.readBoolean() ? input.readUTF() : null;
+				snapshot.put(path, stamp, data);
+			}
+
+		} catch (IOException e) {
+			ProjectCore.logError(e);
+			return new FileSnapshot(version);
+		}
+
+		return snapshot;
+	}
+
+	public void write(IProject project, String name) {
+		if (!project.isAccessible()) {
+			return;
+		}
+
+		Path file = getSnapshotFile(project, name);
+		IPath projectPath = project.getFullPath();
+
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file)))) {
+
+			output.writeInt(MAGIC);
+			output.writeInt(_version);
+
+			output.writeInt(_items.size());
+
+			for (Entry<IPath, Item> entry : _items.entrySet()) {
+				Item item = entry.getValue();
+				output.writeUTF(entry.getKey().makeRelativeTo(projectPath).toPortableString());
+				output.writeLong(item.stamp);
+				output.writeBoolean(item.data != null);
+				if (item.data != null) {
+					output.writeUTF(item.data);
+				}
+			}
+
+		} catch (IOException e) {
+			ProjectCore.logError(e);
+		}
+	}
+
+	public static void delete(IProject project, String name) {
+		try {
+			Files.deleteIfExists(getSnapshotFile(project, name));
+		} catch (IOException e) {
+			ProjectCore.logError(e);
+		}
+	}
+}
@@ -0,0 +1,300 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.project.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+
+/**
+ * Collects the problems of a marker type for a set of files and updates the
+ * markers in a single workspace operation. Only the differences with the
+ * existing markers are applied, so a file that keeps the same problems does
+ * not fire marker changes (and the Problems view and the label decorators are
+ * not updated for nothing).
+ * 
+ * It also keeps in memory the type of the Phaser problems of the files, to
+ * answer {@link ProjectCore#hasProblems(IFile)} without query the markers.
+ * 
+ * @author arian
+ *
+ */
+public class MarkerBatch {
+
+	private static class Problem {
+		public int severity;
+		public String message;
+
+		public Problem(int severity, String message) {
+			super();
+			this.severity = severity;
+			this.message = message;
+		}
+
+		public Problem(IMarker marker) {
+			this(marker.getAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING),
+					marker.getAttribute(IMarker.MESSAGE, ""));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(Integer.valueOf(severity), message);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Problem)) {
+				return false;
+			}
+			Problem other = (Problem) obj;
+			return severity == other.severity && Objects.equals(message, other.message);
+		}
+	}
+
+	/**
+	 * The number of Phaser problems of each file, grouped by the marker type.
+	 * The entries are loaded from the markers the first time they are
+	 * requested, and are discarded when the markers of the file are modified
+	 * by others.
+	 */
+	private static Map<IFile, Map<String, Integer>> _problemsState = new ConcurrentHashMap<>();
+	private static boolean _registeredListener = false;
+
+	private String _type;
+	private IResource _scope;
+	private Map<IFile, List<Problem>> _problems;
+
+	/**
+	 * @param type
+	 *            The type of the markers.
+	 */
+	public MarkerBatch(String type) {
+		this(type, null);
+	}
+
+	/**
+	 * @param type
+	 *            The type of the markers.
+	 * @param scope
+	 *            If not <code>null</code>, the markers of the given type in the
+	 *            files of the scope, that are not part of this batch, are
+	 *            deleted.
+	 */
+	public MarkerBatch(String type, IResource scope) {
+		_type = type;
+		_scope = scope;
+		_problems = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Set the problems of the file. The file will have only these problems
+	 * when the batch is applied. If this method is not called for a file, its
+	 * markers are not touched.
+	 */
+	public void setProblems(IFile file, List<IStatus> problems) {
+		List<Problem> list = _problems.computeIfAbsent(file, k -> new ArrayList<>());
+		list.clear();
+		for (IStatus problem : problems) {
+			list.add(new Problem(getMarkerSeverity(problem), problem.getMessage()));
+		}
+	}
+
+	/**
+	 * Add a problem to the file.
+	 */
+	public void addProblem(IFile file, IStatus problem) {
+		_problems.computeIfAbsent(file, k -> new ArrayList<>())
+				.add(new Problem(getMarkerSeverity(problem), problem.getMessage()));
+	}
+
+	public boolean isEmpty() {
+		return _problems.isEmpty() && _scope == null;
+	}
+
+	private static int getMarkerSeverity(IStatus status) {
+		switch (status.getSeverity()) {
+		case IStatus.ERROR:
+			return IMarker.SEVERITY_ERROR;
+		default:
+			return IMarker.SEVERITY_WARNING;
+		}
+	}
+
+	/**
+	 * Update the markers, in a single workspace operation.
+	 */
+	public void apply() {
+		if (isEmpty()) {
+			return;
+		}
+
+		registerListener();
+
+		try {
+			IWorkspace workspace = ResourcesPlugin.getWorkspace();
+			workspace.run(monitor -> {
+
+				if (_scope != null && _scope.exists()) {
+					for (IMarker marker : _scope.findMarkers(_type, false, IResource.DEPTH_INFINITE)) {
+						IResource resource = marker.getResource();
+						if (!_problems.containsKey(resource)) {
+							marker.delete();
+							if (resource instanceof IFile) {
+								updateState((IFile) resource, 0);
+							}
+						}
+					}
+				}
+
+				for (Entry<IFile, List<Problem>> entry : _problems.entrySet()) {
+					IFile file = entry.getKey();
+					if (file.exists()) {
+						updateMarkers(file, entry.getValue());
+						updateState(file, entry.getValue().size());
+					}
+				}
+
+			}, null, IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			ProjectCore.logError(e);
+		}
+	}
+
+	private void updateMarkers(IFile file, List<Problem> problems) throws CoreException {
+		List<Problem> toCreate = new ArrayList<>(problems);
+
+		for (IMarker marker : file.findMarkers(_type, false, IResource.DEPTH_ZERO)) {
+			// remove returns false if the problem is not there anymore
+			if (!toCreate.remove(new Problem(marker))) {
+				marker.delete();
+			}
+		}
+
+		String location = file.getProject().getName();
+
+		for (Problem problem : toCreate) {
+			IMarker marker = file.createMarker(_type);
+			marker.setAttributes(new String[] { IMarker.SEVERITY, IMarker.MESSAGE, IMarker.LOCATION },
+					new Object[] { Integer.valueOf(problem.severity), problem.message, location });
+		}
+	}
+
+	private void updateState(IFile file, int count) {
+		Map<String, Integer> state = _problemsState.get(file);
+
+		if (state == null) {
+			// it is not loaded, it will be loaded when requested
+			return;
+		}
+
+		Map<String, Integer> newState = new HashMap<>(state);
+		if (count == 0) {
+			newState.remove(_type);
+		} else {
+			newState.put(_type, Integer.valueOf(count));
+		}
+
+		_problemsState.put(file, Collections.unmodifiableMap(newState));
+	}
+
+	/**
+	 * If the file has any Phaser problem.
+	 */
+	public static boolean hasProblems(IFile file) {
+		registerListener();
+
+		Map<String, Integer> state = _problemsState.get(file);
+
+		if (state == null) {
+			state = new HashMap<>();
+			try {
+				for (IMarker marker : file.findMarkers(ProjectCore.PHASER_PROBLEM_MARKER_ID, true,
+						IResource.DEPTH_ZERO)) {
+					state.merge(marker.getType(), Integer.valueOf(1), (a, b) -> Integer.valueOf(a.intValue() + 1));
+				}
+			} catch (CoreException e) {
+				ProjectCore.logError(e);
+				return false;
+			}
+			state = Collections.unmodifiableMap(state);
+			_problemsState.put(file, state);
+		}
+
+		return !state.isEmpty();
+	}
+
+	/**
+	 * Forget the state of the files of the resource, it will be loaded again
+	 * from the markers.
+	 */
+	static void invalidate(IResource resource) {
+		if (resource instanceof IFile) {
+			_problemsState.remove(resource);
+		} else {
+			_problemsState.keySet().removeIf(file -> resource.getFullPath().isPrefixOf(file.getFullPath()));
+		}
+	}
+
+	private static synchronized void registerListener() {
+		if (_registeredListener) {
+			return;
+		}
+
+		_registeredListener = true;
+
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(event -> {
+			IResourceDelta delta = event.getDelta();
+			if (delta == null) {
+				return;
+			}
+			try {
+				delta.accept(d -> {
+					IResource resource = d.getResource();
+					if (resource instanceof IFile) {
+						if (d.getKind() == IResourceDelta.REMOVED || (d.getFlags() & IResourceDelta.MARKERS) != 0) {
+							_problemsState.remove(resource);
+						}
+					}
+					return true;
+				});
+			} catch (CoreException e) {
+				ProjectCore.logError(e);
+			}
+		}, IResourceChangeEvent.POST_CHANGE);
+	}
+}
@@ -26,6 +26,7 @@ import static java.lang.System.out;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -113,6 +114,10 @@ public class PhaserProjectBuilder extends IncrementalProjectBuilder {
 		out.println("PhaserProjectBuilder.clean (start)");
 
 		IProject project = getProject();
+
+		DeferredBuildQueue.getInstance().cancel(project);
+		FileKindCache.remove(project);
+
 		Map<String, Object> env = new HashMap<>();
 		List<IProjectBuildParticipant> list = ProjectCore.getBuildParticipants();
 		for (IProjectBuildParticipant participant : list) {
@@ -132,6 +137,9 @@ public class PhaserProjectBuilder extends IncrementalProjectBuilder {
 
 		out.println("PhaserProjectBuilder.projectDeleted (start)");
 
+		DeferredBuildQueue.getInstance().cancel(project);
+		FileKindCache.remove(project);
+
 		List<IProjectBuildParticipant> list = ProjectCore.getBuildParticipants();
 
 		for (IProjectBuildParticipant participant : list) {
@@ -156,29 +164,30 @@ public class PhaserProjectBuilder extends IncrementalProjectBuilder {
 		}
 
 		// call all build participant!!!
+		// the independent participants are executed in parallel, so the env
+		// should be thread safe.
 
-		Map<String, Object> env = new HashMap<>();
-		List<IProjectBuildParticipant> list = ProjectCore.getBuildParticipants();
+		Map<String, Object> env = new ConcurrentHashMap<>();
+		List<BuildParticipantDescriptor> list = ProjectCore.getBuildParticipantDescriptors();
 
 		monitor.beginTask("Building Phaser elements", list.size());
 
 		IProject project = getProject();
+		IResourceDelta delta = fullBuild ? null : getDelta(project);
 
-		for (IProjectBuildParticipant participant : list) {
-			try {
-				monitor.subTask("Building " + participant.getClass().getSimpleName());
-				out.println("\t" + participant + " (building)");
+		if (delta == null) {
+			FileKindCache.remove(project);
+		} else {
+			FileKindCache.update(delta);
+		}
 
-				if (fullBuild) {
-					participant.fullBuild(project, env);
-				} else {
-					participant.build(project, getDelta(project), env);
-				}
-				monitor.worked(1);
-			} catch (Exception e) {
-				ProjectCore.logError(e);
+		BuildParticipantScheduler.run(list, "Building", monitor, participant -> {
+			if (fullBuild) {
+				participant.fullBuild(project, env);
+			} else {
+				participant.build(project, delta, env);
 			}
-		}
+		});
 
 		monitor.done();
 
@@ -25,9 +25,9 @@ import static java.lang.System.out;
 
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -74,34 +74,53 @@ public class ProjectCore {
 
 	public static List<IProjectBuildParticipant> getBuildParticipants() {
 		List<IProjectBuildParticipant> list = new ArrayList<>();
+		for (BuildParticipantDescriptor desc : getBuildParticipantDescriptors()) {
+			list.add(desc.getParticipant());
+		}
+		return list;
+	}
+
+	/**
+	 * Get the registered build participants, sorted by the order attribute.
+	 */
+	public static List<BuildParticipantDescriptor> getBuildParticipantDescriptors() {
+		List<BuildParticipantDescriptor> list = new ArrayList<>();
 		IExtensionPoint point = Platform.getExtensionRegistry()
 				.getExtensionPoint("phasereditor.project.core.buildParticipant");
 
-		Map<IProjectBuildParticipant, String> orderMap = new HashMap<>();
-
 		for (IConfigurationElement element : point.getConfigurationElements()) {
 			try {
 				IProjectBuildParticipant participant = (IProjectBuildParticipant) element
 						.createExecutableExtension("handler");
-				list.add(participant);
-				String order = element.getAttribute("order");
-				orderMap.put(participant, order);
+
+				String id = element.getAttribute("id");
+
+				double order;
+				try {
+					order = Double.parseDouble(element.getAttribute("order"));
+				} catch (Exception e) {
+					order = 0;
+				}
+
+				Set<String> dependsOn = null;
+				String dependsOnAttr = element.getAttribute("dependsOn");
+				if (dependsOnAttr != null) {
+					dependsOn = new LinkedHashSet<>();
+					for (String dep : dependsOnAttr.split(",")) {
+						dep = dep.trim();
+						if (dep.length() > 0) {
+							dependsOn.add(dep);
+						}
+					}
+				}
+
+				list.add(new BuildParticipantDescriptor(id, order, dependsOn, participant));
 			} catch (Exception e) {
 				ProjectCore.logError(e);
 			}
 		}
 
-		list.sort((a, b) -> {
-
-			try {
-				String order1 = orderMap.get(a);
-				String order2 = orderMap.get(b);
-				int c = new Double(Double.parseDouble(order1)).compareTo(new Double(Double.parseDouble(order2)));
-				return c;
-			} catch (Exception e) {
-				return 0;
-			}
-		});
+		list.sort((a, b) -> Double.compare(a.getOrder(), b.getOrder()));
 
 		return list;
 	}
@@ -269,16 +288,15 @@ public class ProjectCore {
 		} catch (CoreException e) {
 			logError(e);
 		}
+		MarkerBatch.invalidate(resource);
 	}
 
+	/**
+	 * If the file has Phaser problem markers. It is served from the state kept
+	 * by {@link MarkerBatch}.
+	 */
 	public static boolean hasProblems(IFile file) {
-		try {
-			IMarker[] markers = file.findMarkers(PHASER_PROBLEM_MARKER_ID, true, IResource.DEPTH_INFINITE);
-			return markers.length > 0;
-		} catch (CoreException e) {
-			logError(e);
-		}
-		return false;
+		return MarkerBatch.hasProblems(file);
 	}
 
 	public static IMarker createErrorMarker(String type, IStatus status, IResource resource) {
@@ -298,6 +316,8 @@ public class ProjectCore {
 			marker.setAttribute(IMarker.MESSAGE, status.getMessage());
 			marker.setAttribute(IMarker.LOCATION, resource.getProject().getName());
 
+			MarkerBatch.invalidate(resource);
+
 			return marker;
 
 		} catch (CoreException e) {
@@ -22,13 +22,17 @@
 package phasereditor.text.ui;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.swt.graphics.Image;
 
 import phasereditor.assetpack.core.AssetModel;
 import phasereditor.assetpack.core.AssetPackCore;
+import phasereditor.assetpack.core.AssetPackCore.PackDelta;
 import phasereditor.assetpack.core.AssetPackModel;
 import phasereditor.assetpack.core.AssetSectionModel;
 import phasereditor.assetpack.core.AssetType;
@@ -74,6 +78,65 @@ public class AssetProposalComputer extends BaseProposalComputer {
 	public AssetProposalComputer() {
 	}
 
+	// the proposals of each pack, and the index of each project, are computed
+	// only when the packs change
+
+	private static Map<AssetPackModel, List<ProposalData>> _packProposals = new IdentityHashMap<>();
+	private static Map<IProject, ProposalIndex> _projectIndex = new HashMap<>();
+
+	@Override
+	protected ProposalIndex getProjectIndex(IProject project) {
+		synchronized (_packProposals) {
+			ProposalIndex index = _projectIndex.get(project);
+
+			if (index == null) {
+				List<ProposalData> list = new ArrayList<>();
+				List<AssetPackModel> models = AssetPackCore.getAssetPackModels(project);
+
+				// forget the packs that are not in the project anymore
+				_packProposals.keySet().removeIf(model -> model.getFile().getProject().equals(project)
+						&& models.stream().noneMatch(m -> m == model));
+
+				for (AssetPackModel model : models) {
+					list.addAll(_packProposals.computeIfAbsent(model, AssetProposalComputer::computeAssetProposals));
+				}
+
+				index = new ProposalIndex(list);
+				_projectIndex.put(project, index);
+			}
+
+			return index;
+		}
+	}
+
+	/**
+	 * Forget the proposals of the packs changed in the build.
+	 */
+	static void buildDelta(PackDelta delta) {
+		if (delta == null || delta.isEmpty()) {
+			return;
+		}
+
+		synchronized (_packProposals) {
+			for (AssetPackModel pack : delta.getPacks()) {
+				_packProposals.remove(pack);
+			}
+
+			for (AssetModel asset : delta.getAssets()) {
+				_packProposals.remove(asset.getPack());
+			}
+
+			_projectIndex.remove(delta.getProject());
+		}
+	}
+
+	static void clear(IProject project) {
+		synchronized (_packProposals) {
+			_packProposals.keySet().removeIf(model -> model.getFile().getProject().equals(project));
+			_projectIndex.remove(project);
+		}
+	}
+
 	@Override
 	protected List<ProposalData> computeProjectProposals(IProject project) {
 		List<ProposalData> list = new ArrayList<>();
@@ -120,7 +183,7 @@ public class AssetProposalComputer extends BaseProposalComputer {
 					propData = new ProposalData(asset, assetKey, display, ASSET_KEY_ORDER + type.ordinal());
 					propData.setControlCreator(new GenericInformationControlCreator(OtherAssetInformationControl.class,
 							OtherAssetInformationControl::new));
-					propData.setImage(_labelProvider.getImage(asset));
+					propData.setImageProvider(() -> _labelProvider.getImage(asset));
 					list.add(propData);
 				}
 				
@@ -149,7 +212,7 @@ public class AssetProposalComputer extends BaseProposalComputer {
 							proposal.setControlCreator(new GenericInformationControlCreator(
 									AudioSpriteAssetElementInformationControl.class,
 									AudioSpriteAssetElementInformationControl::new));
-							proposal.setImage(_labelProvider.getImage(asset));
+							proposal.setImageProvider(() -> _labelProvider.getImage(asset));
 							list.add(proposal);
 						}
 					}
@@ -166,7 +229,7 @@ public class AssetProposalComputer extends BaseProposalComputer {
 							ProposalData proposal = new ProposalData(frame, name, display, SPRITE_ATLAS_ORDER);
 							proposal.setControlCreator(new GenericInformationControlCreator(
 									AtlasFrameInformationControl.class, AtlasFrameInformationControl::new));
-							proposal.setImage(_labelProvider.getImage(frame));
+							proposal.setImageProvider(() -> _labelProvider.getImage(frame));
 							list.add(proposal);
 						}
 					}
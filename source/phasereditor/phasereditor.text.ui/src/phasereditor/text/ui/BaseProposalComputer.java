@@ -28,7 +28,6 @@ import java.util.List;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
-import org.eclipse.swt.graphics.Image;
 import org.eclipse.wst.jsdt.core.CompletionContext;
 import org.eclipse.wst.jsdt.ui.text.java.ContentAssistInvocationContext;
 import org.eclipse.wst.jsdt.ui.text.java.IJavaCompletionProposalComputer;
@@ -48,26 +47,16 @@ public abstract class BaseProposalComputer implements IJavaCompletionProposalCom
 			char[] token = coreContext.getToken();
 			if (token != null) {
 				IProject project = javaContext.getCompilationUnit().getJavaScriptProject().getProject();
-				List<ProposalData> propDataList = computeProjectProposals(project);
+				ProposalIndex index = getProjectIndex(project);
 
-				if (propDataList.size() > 0) {
+				if (index.size() > 0) {
 
 					String prefix = new String(token).toLowerCase();
 
 					List<ICompletionProposal> list = new ArrayList<>();
 
-					for (ProposalData propData : propDataList) {
-						String name = propData.getName().toLowerCase();
-
-						int index = name.indexOf(prefix);
-						if (index >= 0) {
-							CompletionProposal proposal = createCompletionProposal(coreContext, propData);
-							if (index == 0) {
-								list.add(0, proposal);
-							} else {
-								list.add(proposal);
-							}
-						}
+					for (ProposalData propData : index.find(prefix)) {
+						list.add(createCompletionProposal(coreContext, propData));
 					}
 
 					return list;
@@ -79,6 +68,14 @@ public abstract class BaseProposalComputer implements IJavaCompletionProposalCom
 
 	protected abstract List<ProposalData> computeProjectProposals(IProject project);
 
+	/**
+	 * The index of the proposals of the project. By default it is computed on
+	 * each request, computers with many proposals should keep it updated.
+	 */
+	protected ProposalIndex getProjectIndex(IProject project) {
+		return new ProposalIndex(computeProjectProposals(project));
+	}
+
 	private static CompletionProposal createCompletionProposal(CompletionContext coreContext, ProposalData propData) {
 
 		int len = propData.getName().length();
@@ -91,14 +88,8 @@ public abstract class BaseProposalComputer implements IJavaCompletionProposalCom
 		int replLen = end - start - 1;
 		int cursor = len + 1;
 
-		CompletionProposal proposal = new CompletionProposal(propData, replOffset, replLen, cursor);
-
-		Image img = propData.getImage();
-		if (img != null) {
-			proposal.setImage(img);
-		}
-
-		return proposal;
+		// the image is taken from the data, when the proposal is shown
+		return new CompletionProposal(propData, replOffset, replLen, cursor);
 	}
 
 	@SuppressWarnings("rawtypes")
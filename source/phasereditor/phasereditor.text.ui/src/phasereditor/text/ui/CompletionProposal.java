@@ -109,6 +109,10 @@ public class CompletionProposal
 	 */
 	@Override
 	public Image getImage() {
+		if (_image == null) {
+			// the image of the data is resolved only when it is shown
+			return _data.getImage();
+		}
 		return _image;
 	}
 
@@ -22,13 +22,17 @@
 package phasereditor.text.ui;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -41,6 +45,7 @@ import phasereditor.assetpack.ui.preview.AudioFileInformationControl;
 import phasereditor.assetpack.ui.preview.ImageFileInformationControl;
 import phasereditor.assetpack.ui.preview.VideoAssetScreenshotInformationControl;
 import phasereditor.audio.core.AudioCore;
+import phasereditor.project.core.IResourceDeltaVisitor2;
 import phasereditor.project.core.ProjectCore;
 import phasereditor.ui.info.GenericInformationControlCreator;
 import phasereditor.ui.info.TextInformationControlCreator;
@@ -49,70 +54,170 @@ public class FilesProposalComputer extends BaseProposalComputer {
 	protected static final int RELEVANCE = 0;
 	protected static Image _filePropImage;
 	protected static WorkbenchLabelProvider _defaultLabelProvider;
+	private static TextInformationControlCreator _controlCreator;
 
 	static {
 		_filePropImage = AssetLabelProvider.getFileImage();
 		_defaultLabelProvider = new WorkbenchLabelProvider();
+		_controlCreator = new TextInformationControlCreator("Relative path to a web file.");
 	}
 
+	private static class ProjectFiles {
+		public IPath rootPath;
+		public Map<IPath, ProposalData> proposals = new LinkedHashMap<>();
+		public ProposalIndex index;
+	}
+
+	// the file proposals of each project, updated with the resource deltas
+	private static Map<IProject, ProjectFiles> _projectFiles = new HashMap<>();
+
 	public FilesProposalComputer() {
 	}
 
 	@Override
-	protected List<ProposalData> computeProjectProposals(IProject project) {
-		List<ProposalData> list = new ArrayList<>();
-		try {
-			IContainer webContentFolder = ProjectCore.getWebContentFolder(project);
-			IResource rootFolder = webContentFolder == null || !webContentFolder.exists() ? project : webContentFolder;
-
-			IPath rootPath = rootFolder.getFullPath();
-			TextInformationControlCreator controlCreator = new TextInformationControlCreator(
-					"Relative path to a web file.");
-			rootFolder.accept(new IResourceVisitor() {
+	protected ProposalIndex getProjectIndex(IProject project) {
+		synchronized (_projectFiles) {
+			ProjectFiles files = _projectFiles.get(project);
 
-				@Override
-				public boolean visit(IResource resource) throws CoreException {
-					if (resource instanceof IFolder && resource.getName().startsWith(".")) {
-						return false;
-					}
+			if (files == null || !files.rootPath.equals(getRootFolder(project).getFullPath())) {
+				files = new ProjectFiles();
+				IResource rootFolder = getRootFolder(project);
+				files.rootPath = rootFolder.getFullPath();
+				Map<IPath, ProposalData> proposals = files.proposals;
+				try {
+					rootFolder.accept(new IResourceVisitor() {
 
-					if (resource instanceof IFile) {
-						IPath filePath = resource.getFullPath().makeRelativeTo(rootPath);
-						String filename = filePath.toPortableString();
-						String display = "\"" + filename + "\"";
+						@Override
+						public boolean visit(IResource resource) throws CoreException {
+							if (resource instanceof IFolder && resource.getName().startsWith(".")) {
+								return false;
+							}
 
-						Object obj = null;
-						if (AssetPackCore.isAudio(resource) || AssetPackCore.isImage(resource)
-								|| AssetPackCore.isVideo(resource)) {
-							obj = resource;
+							if (resource instanceof IFile) {
+								IFile file = (IFile) resource;
+								proposals.put(file.getFullPath(), createProposal(file, rootFolder.getFullPath()));
+							}
+							return true;
 						}
+					});
+				} catch (CoreException e) {
+					throw new RuntimeException(e);
+				}
+				_projectFiles.put(project, files);
+			}
 
-						ProposalData proposal = new ProposalData(obj, filename, display, RELEVANCE);
-						Image icon = _defaultLabelProvider.getImage(resource);
-						proposal.setImage(icon == null ? _filePropImage : icon);
-
-						if (AssetPackCore.isImage(resource)) {
-							proposal.setControlCreator(new GenericInformationControlCreator(
-									ImageFileInformationControl.class, ImageFileInformationControl::new));
-						} else if (AudioCore.isSupportedVideo((IFile) resource)) {
-							proposal.setControlCreator(
-									new GenericInformationControlCreator(VideoAssetScreenshotInformationControl.class,
-											VideoAssetScreenshotInformationControl::new));
-						} else if (AudioCore.isSupportedAudio((IFile) resource)) {
-							proposal.setControlCreator(new GenericInformationControlCreator(
-									AudioFileInformationControl.class, AudioFileInformationControl::new));
-						} else {
-							proposal.setControlCreator(controlCreator);
-						}
+			if (files.index == null) {
+				files.index = new ProposalIndex(new ArrayList<>(files.proposals.values()));
+			}
+
+			return files.index;
+		}
+	}
+
+	/**
+	 * Update the file proposals of the project with the changes of the build.
+	 */
+	static void buildDelta(IProject project, IResourceDelta delta) throws CoreException {
+		synchronized (_projectFiles) {
+			ProjectFiles files = _projectFiles.get(project);
+
+			if (files == null) {
+				return;
+			}
+
+			if (!files.rootPath.equals(getRootFolder(project).getFullPath())) {
+				_projectFiles.remove(project);
+				return;
+			}
+
+			delta.accept(new IResourceDeltaVisitor2() {
+
+				@Override
+				public void fileAdded(IFile file) {
+					if (isVisible(file, files.rootPath)) {
+						files.proposals.put(file.getFullPath(), createProposal(file, files.rootPath));
+						files.index = null;
+					}
+				}
+
+				@Override
+				public void fileRemoved(IFile file) {
+					if (files.proposals.remove(file.getFullPath()) != null) {
+						files.index = null;
+					}
+				}
 
-						list.add(proposal);
+				@Override
+				public void fileMovedTo(IFile file, IPath movedFromPath, IPath movedToPath) {
+					if (files.proposals.remove(movedFromPath) != null) {
+						files.index = null;
 					}
-					return true;
+					fileAdded(file);
 				}
 			});
-		} catch (CoreException e) {
-			throw new RuntimeException(e);
 		}
-		return list;
+	}
+
+	static void clear(IProject project) {
+		synchronized (_projectFiles) {
+			_projectFiles.remove(project);
+		}
+	}
+
+	private static boolean isVisible(IFile file, IPath rootPath) {
+		if (!rootPath.isPrefixOf(file.getFullPath())) {
+			return false;
+		}
+
+		for (IContainer parent = file.getParent(); !parent.getFullPath().equals(rootPath); parent = parent
+				.getParent()) {
+			if (parent.getName().startsWith(".")) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static IResource getRootFolder(IProject project) {
+		IContainer webContentFolder = ProjectCore.getWebContentFolder(project);
+		return webContentFolder == null || !webContentFolder.exists() ? project : webContentFolder;
+	}
+
+	private static ProposalData createProposal(IFile file, IPath rootPath) {
+		IPath filePath = file.getFullPath().makeRelativeTo(rootPath);
+		String filename = filePath.toPortableString();
+		String display = "\"" + filename + "\"";
+
+		Object obj = null;
+		if (AssetPackCore.isAudio(file) || AssetPackCore.isImage(file) || AssetPackCore.isVideo(file)) {
+			obj = file;
+		}
+
+		ProposalData proposal = new ProposalData(obj, filename, display, RELEVANCE);
+		proposal.setImageProvider(() -> {
+			Image icon = _defaultLabelProvider.getImage(file);
+			return icon == null ? _filePropImage : icon;
+		});
+
+		if (AssetPackCore.isImage(file)) {
+			proposal.setControlCreator(new GenericInformationControlCreator(ImageFileInformationControl.class,
+					ImageFileInformationControl::new));
+		} else if (AudioCore.isSupportedVideo(file)) {
+			proposal.setControlCreator(new GenericInformationControlCreator(
+					VideoAssetScreenshotInformationControl.class, VideoAssetScreenshotInformationControl::new));
+		} else if (AudioCore.isSupportedAudio(file)) {
+			proposal.setControlCreator(new GenericInformationControlCreator(AudioFileInformationControl.class,
+					AudioFileInformationControl::new));
+		} else {
+			proposal.setControlCreator(_controlCreator);
+		}
+
+		return proposal;
+	}
+
+	@Override
+	protected List<ProposalData> computeProjectProposals(IProject project) {
+		return new ArrayList<>(getProjectIndex(project).find(""));
 	}
 }
@@ -49,7 +49,6 @@ import org.eclipse.wst.jsdt.internal.ui.JavaPluginImages;
 import org.eclipse.wst.jsdt.internal.ui.text.template.contentassist.TemplateProposal;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.JSONTokener;
 
 // copied from org.eclipse.wst.jsdt.internal.ui.text.template.contentassist.TemplateEngine
 @SuppressWarnings("restriction")
@@ -67,7 +66,7 @@ public class PhaserTemplateEngine {
 			URL url = new URL("platform:/plugin/" + TextUI.PLUGIN_IDE
 					+ "/templates/PhaserSandboxTemplates.json");
 			try (InputStream input = url.openStream()) {
-				JSONObject doc = new JSONObject(new JSONTokener(input));
+				JSONObject doc = JSONObject.read(input);
 
 				JSONArray jsonRoot = doc.getJSONArray("templates");
 				for (int i = 0; i < jsonRoot.length(); i++) {
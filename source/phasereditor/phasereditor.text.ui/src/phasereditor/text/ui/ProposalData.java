@@ -21,6 +21,8 @@
 // USE OR OTHER DEALINGS IN THE SOFTWARE.
 package phasereditor.text.ui;
 
+import java.util.function.Supplier;
+
 import org.eclipse.jface.text.IInformationControlCreator;
 import org.eclipse.swt.graphics.Image;
 
@@ -30,6 +32,7 @@ public class ProposalData {
 	private String _info;
 	private int _relevance;
 	private Image _image;
+	private Supplier<Image> _imageProvider;
 	private Object _object;
 	private IInformationControlCreator _controlCreator;
 
@@ -57,6 +60,10 @@ public class ProposalData {
 	}
 
 	public Image getImage() {
+		if (_image == null && _imageProvider != null) {
+			_image = _imageProvider.get();
+			_imageProvider = null;
+		}
 		return _image;
 	}
 
@@ -64,6 +71,14 @@ public class ProposalData {
 		_image = image;
 	}
 
+	/**
+	 * Set the provider of the image, it is called the first time the image is
+	 * requested (in the UI thread).
+	 */
+	public void setImageProvider(Supplier<Image> imageProvider) {
+		_imageProvider = imageProvider;
+	}
+
 	public String getName() {
 		return _name;
 	}
@@ -0,0 +1,74 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.text.ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The proposals of a project, with the lower case names computed once, so the
+ * proposals matching the token are found without create new strings.
+ * 
+ * @author arian
+ *
+ */
+public class ProposalIndex {
+	private List<ProposalData> _proposals;
+	private String[] _names;
+
+	public ProposalIndex(List<ProposalData> proposals) {
+		_proposals = new ArrayList<>(proposals);
+		_names = new String[_proposals.size()];
+		for (int i = 0; i < _names.length; i++) {
+			_names[i] = _proposals.get(i).getName().toLowerCase();
+		}
+	}
+
+	public int size() {
+		return _names.length;
+	}
+
+	/**
+	 * Find the proposals with a name containing the given token.
+	 * 
+	 * @param prefix
+	 *            The token, in lower case.
+	 * @return The proposals starting with the token first, then the others.
+	 */
+	public List<ProposalData> find(String prefix) {
+		List<ProposalData> starts = new ArrayList<>();
+		List<ProposalData> contains = new ArrayList<>();
+
+		for (int i = 0; i < _names.length; i++) {
+			String name = _names[i];
+			if (name.startsWith(prefix)) {
+				starts.add(_proposals.get(i));
+			} else if (name.indexOf(prefix) > 0) {
+				contains.add(_proposals.get(i));
+			}
+		}
+
+		starts.addAll(contains);
+
+		return starts;
+	}
+}
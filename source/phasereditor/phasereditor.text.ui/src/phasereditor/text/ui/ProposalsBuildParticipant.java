@@ -0,0 +1,79 @@
+// The MIT License (MIT)
+//
+// Copyright (c) 2015, 2017 Arian Fornaris
+//
+// Permission is hereby granted, free of charge, to any person obtaining a
+// copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to permit
+// persons to whom the Software is furnished to do so, subject to the
+// following conditions: The above copyright notice and this permission
+// notice shall be included in all copies or substantial portions of the
+// Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS
+// OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN
+// NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+// DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+// OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE
+// USE OR OTHER DEALINGS IN THE SOFTWARE.
+package phasereditor.text.ui;
+
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.CoreException;
+
+import phasereditor.assetpack.core.AssetPackBuildParticipant;
+import phasereditor.project.core.IProjectBuildParticipant;
+import phasereditor.project.core.ProjectCore;
+
+/**
+ * Keeps the content assist proposals of the asset keys and file names updated
+ * with the changes of the project.
+ * 
+ * @author arian
+ *
+ */
+public class ProposalsBuildParticipant implements IProjectBuildParticipant {
+
+	@Override
+	public void startupOnInitialize(IProject project, Map<String, Object> env) {
+		clear(project);
+	}
+
+	@Override
+	public void clean(IProject project, Map<String, Object> env) {
+		clear(project);
+	}
+
+	@Override
+	public void build(IProject project, IResourceDelta delta, Map<String, Object> env) {
+		AssetProposalComputer.buildDelta(AssetPackBuildParticipant.getData(env));
+
+		try {
+			FilesProposalComputer.buildDelta(project, delta);
+		} catch (CoreException e) {
+			ProjectCore.logError(e);
+			FilesProposalComputer.clear(project);
+		}
+	}
+
+	@Override
+	public void fullBuild(IProject project, Map<String, Object> env) {
+		clear(project);
+	}
+
+	@Override
+	public void projectDeleted(IProject project, Map<String, Object> env) {
+		clear(project);
+	}
+
+	private static void clear(IProject project) {
+		AssetProposalComputer.clear(project);
+		FilesProposalComputer.clear(project);
+	}
+}
@@ -25,8 +25,6 @@ import static java.lang.System.currentTimeMillis;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -41,12 +39,17 @@ import javax.imageio.ImageIO;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Display;
 
+import javafx.scene.image.PixelReader;
+
 /**
  * A cache for images read from files. If the file is modified the cache is
- * updated.
+ * updated. The icons of workspace files are scaled from the pixels of the
+ * {@link ImageCache}, when they are loaded there.
  * 
  * @author arian
  *
@@ -62,29 +65,100 @@ public class IconCache {
 		_extraDispose = new ArrayList<>();
 	}
 
-	private static Image scaleImage(String filepath, Rectangle src, int newSize, BufferedImage overlay) {
+	private static Image scaleImage(IFile file, String filepath, Rectangle src, int newSize,
+			BufferedImage overlay) {
 		try {
-			BufferedImage swingimg = ImageIO.read(new File(filepath));
 			BufferedImage swingimg2 = new BufferedImage(newSize, newSize, BufferedImage.TYPE_INT_ARGB);
-			Graphics2D g2 = swingimg2.createGraphics();
-			Rectangle src2 = src == null ? new Rectangle(0, 0, swingimg.getWidth(), swingimg.getHeight()) : src;
-			Rectangle z = PhaserEditorUI.computeImageZoom(src2, new Rectangle(0, 0, newSize, newSize));
-			g2.drawImage(swingimg, z.x, z.y, z.x + z.width, z.y + z.height, src2.x, src2.y, src2.x + src2.width,
-					src2.y + src2.height, null);
+
+			// use the pixels already decoded by the JavaFX cache, if possible
+			javafx.scene.image.Image fximg = file == null ? null : ImageCache.getLoadedFXImage(file);
+
+			if (fximg == null) {
+				BufferedImage swingimg = ImageIO.read(new File(filepath));
+
+				if (swingimg == null) {
+					return null;
+				}
+
+				Graphics2D g2 = swingimg2.createGraphics();
+				Rectangle src2 = src == null ? new Rectangle(0, 0, swingimg.getWidth(), swingimg.getHeight()) : src;
+				Rectangle z = PhaserEditorUI.computeImageZoom(src2, new Rectangle(0, 0, newSize, newSize));
+				g2.drawImage(swingimg, z.x, z.y, z.x + z.width, z.y + z.height, src2.x, src2.y,
+						src2.x + src2.width, src2.y + src2.height, null);
+				g2.dispose();
+			} else {
+				Rectangle src2 = src == null ? new Rectangle(0, 0, (int) fximg.getWidth(), (int) fximg.getHeight())
+						: src;
+				Rectangle z = PhaserEditorUI.computeImageZoom(src2, new Rectangle(0, 0, newSize, newSize));
+				drawScaled(fximg.getPixelReader(), (int) fximg.getWidth(), (int) fximg.getHeight(), src2, swingimg2,
+						z);
+			}
+
 			if (overlay != null) {
+				Graphics2D g2 = swingimg2.createGraphics();
 				g2.drawImage(overlay, 0, 0, null);
+				g2.dispose();
 			}
-			g2.dispose();
-			ByteArrayOutputStream memory = new ByteArrayOutputStream();
-			ImageIO.write(swingimg2, "png", memory);
-			Image img = new Image(Display.getCurrent(), new ByteArrayInputStream(memory.toByteArray()));
-			return img;
+
+			return new Image(Display.getCurrent(), toImageData(swingimg2));
 		} catch (IOException e) {
 			// e.printStackTrace();
 			return null;
 		}
 	}
 
+	/**
+	 * Draw the source region of the pixels in the destination region of the
+	 * image, with the nearest neighbor interpolation (like the default of
+	 * Java2D). Only the pixels of the destination are read, so there is no
+	 * copy of the source image.
+	 */
+	private static void drawScaled(PixelReader reader, int width, int height, Rectangle src, BufferedImage dst,
+			Rectangle z) {
+		int x0 = Math.max(0, z.x);
+		int y0 = Math.max(0, z.y);
+		int x1 = Math.min(dst.getWidth(), z.x + z.width);
+		int y1 = Math.min(dst.getHeight(), z.y + z.height);
+
+		for (int y = y0; y < y1; y++) {
+			int sy = src.y + (int) ((y - z.y + 0.5) * src.height / z.height);
+			if (sy < 0 || sy >= height) {
+				continue;
+			}
+			for (int x = x0; x < x1; x++) {
+				int sx = src.x + (int) ((x - z.x + 0.5) * src.width / z.width);
+				if (sx < 0 || sx >= width) {
+					continue;
+				}
+				dst.setRGB(x, y, reader.getArgb(sx, sy));
+			}
+		}
+	}
+
+	/**
+	 * Convert the image to SWT data, without encode it.
+	 */
+	private static ImageData toImageData(BufferedImage img) {
+		int width = img.getWidth();
+		int height = img.getHeight();
+
+		ImageData data = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		data.alphaData = new byte[width * height];
+
+		int[] row = new int[width];
+
+		for (int y = 0; y < height; y++) {
+			img.getRGB(0, y, width, 1, row, 0, width);
+			for (int x = 0; x < width; x++) {
+				int argb = row[x];
+				data.setPixel(x, y, argb & 0xFFFFFF);
+				data.alphaData[y * width + x] = (byte) (argb >>> 24);
+			}
+		}
+
+		return data;
+	}
+
 	public Image getIcon(Path file, int iconSize, BufferedImage overlay) {
 		return getIcon(file.toAbsolutePath().toString(), iconSize, overlay);
 	}
@@ -94,14 +168,18 @@ public class IconCache {
 	}
 
 	public Image getIcon(IFile file, int newSize, BufferedImage overlay) {
-		return getScaledImage(file.getLocation().toPortableString(), null, newSize, overlay);
+		return getScaledImage(file, file.getLocation().toPortableString(), null, newSize, overlay);
 	}
 
 	public Image getIcon(IFile file, Rectangle src, int newSize, BufferedImage overlay) {
-		return getScaledImage(file.getLocation().toPortableString(), src, newSize, overlay);
+		return getScaledImage(file, file.getLocation().toPortableString(), src, newSize, overlay);
 	}
 
 	public Image getScaledImage(String filepath, Rectangle src, int newSize, BufferedImage overlay) {
+		return getScaledImage(null, filepath, src, newSize, overlay);
+	}
+
+	private Image getScaledImage(IFile wsFile, String filepath, Rectangle src, int newSize, BufferedImage overlay) {
 		Path file = Paths.get(filepath);
 
 		if (!Files.exists(file)) {
@@ -132,7 +210,7 @@ public class IconCache {
 
 		_timeCache.put(k, Long.valueOf(t0));
 		try {
-			Image img = scaleImage(filepath, src, newSize, overlay);
+			Image img = scaleImage(wsFile, filepath, src, newSize, overlay);
 
 			if (img == null) {
 				return null;
@@ -163,7 +241,7 @@ public class IconCache {
 		}
 
 		for (Image img : _extraDispose) {
-			if (img.isDisposed()) {
+			if (!img.isDisposed()) {
 				img.dispose();
 			}
 		}
@@ -23,7 +23,10 @@ package phasereditor.ui;
 
 import static java.lang.System.out;
 
+import java.lang.ref.WeakReference;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
@@ -34,9 +37,22 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.scene.image.Image;
 
 /**
+ * A cache of the JavaFX images of the workspace files, shared by all the
+ * editors and views.
+ * 
+ * The cache has a memory budget (the size of the decoded pixels). When the
+ * budget is exceeded, the least recently used images are evicted. The evicted
+ * images are kept with weak references, so if an open editor is still using
+ * an image, it is reused and not decoded again.
+ * 
+ * The budget (in megabytes) can be set with the
+ * <code>phasereditor.imagecache.budget</code> system property.
+ * 
  * @author arian
  *
  */
@@ -44,10 +60,45 @@ public class ImageCache {
 	static class Container<T> {
 		public T value;
 		public long token;
+		// the memory counted in the budget
+		public long size;
 	}
 
-	private static Map<IFile, Container<Image>> _fxcache = new HashMap<>();
+	static class WeakContainer<T> {
+		public WeakReference<T> ref;
+		public long token;
+
+		public WeakContainer(Container<T> c) {
+			ref = new WeakReference<>(c.value);
+			token = c.token;
+		}
+	}
+
+	public static final String BUDGET_PROPERTY = "phasereditor.imagecache.budget";
+	private static final long DEFAULT_BUDGET_MB = 512;
+
+	// access order, the first entry is the least recently used
+	private static Map<IFile, Container<Image>> _fxcache = new LinkedHashMap<>(16, 0.75f, true);
+	private static Map<IFile, WeakContainer<Image>> _evicted = new HashMap<>();
 	private static IResourceChangeListener _workspaceListener;
+	private static long _budget = readBudget();
+	private static long _memorySize;
+	private static long _hits;
+	private static long _misses;
+	private static long _evictions;
+
+	private static long readBudget() {
+		long mb = DEFAULT_BUDGET_MB;
+		String value = System.getProperty(BUDGET_PROPERTY);
+		if (value != null) {
+			try {
+				mb = Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				out.println("ImageCache: invalid budget " + value);
+			}
+		}
+		return mb * 1024 * 1024;
+	}
 
 	public static Image getFXImage(IFile file) {
 
@@ -59,22 +110,170 @@ public class ImageCache {
 
 		synchronized (_fxcache) {
 			long t = file.getModificationStamp();
-			if (_fxcache.containsKey(file)) {
-				Container<Image> c = _fxcache.get(file);
-				if (t != c.token) {
-					c.token = t;
-					c.value = new Image("file:" + file.getLocation().makeAbsolute().toOSString(), true);
-				}
+
+			Container<Image> c = _fxcache.get(file);
+
+			if (c != null && c.token == t) {
+				_hits++;
 				return c.value;
 			}
-			Container<Image> c = new Container<>();
+
+			if (c == null) {
+				// maybe it was evicted but it is still in use
+				WeakContainer<Image> weak = _evicted.remove(file);
+				if (weak != null && weak.token == t) {
+					Image image = weak.ref.get();
+					if (image != null) {
+						_hits++;
+						c = new Container<>();
+						c.token = t;
+						_fxcache.put(file, c);
+						setImage(file, c, image);
+						evict();
+						return image;
+					}
+				}
+				c = new Container<>();
+				_fxcache.put(file, c);
+			}
+
+			_misses++;
 			c.token = t;
-			c.value = new Image("file:" + file.getLocation().makeAbsolute().toOSString(), true);
-			_fxcache.put(file, c);
+			setImage(file, c, new Image("file:" + file.getLocation().makeAbsolute().toOSString(), true));
+
+			evict();
+
 			return c.value;
 		}
 	}
 
+	/**
+	 * Get the cached image of the file, only if it is completely loaded and
+	 * updated. It does not load the image, it is used to share the pixels
+	 * decoded by JavaFX with other toolkits.
+	 * 
+	 * @return The image or <code>null</code> if it is not available.
+	 */
+	public static Image getLoadedFXImage(IFile file) {
+		synchronized (_fxcache) {
+			Container<Image> c = _fxcache.get(file);
+
+			if (c == null || c.token != file.getModificationStamp()) {
+				return null;
+			}
+
+			Image image = c.value;
+
+			if (image.isError() || image.getProgress() < 1) {
+				return null;
+			}
+
+			_hits++;
+
+			return image;
+		}
+	}
+
+	private static long getMemorySize(Image image) {
+		return (long) image.getWidth() * (long) image.getHeight() * 4;
+	}
+
+	/**
+	 * Set the image of the container. The images loaded in background have a
+	 * zero size until they are loaded, so their size is added to the budget
+	 * when the loading finishes.
+	 */
+	private static void setImage(IFile file, Container<Image> c, Image image) {
+		_memorySize -= c.size;
+		c.size = 0;
+		c.value = image;
+
+		if (image.getProgress() < 1 && !image.isError()) {
+			image.progressProperty().addListener(new ChangeListener<Number>() {
+
+				@Override
+				public void changed(ObservableValue<? extends Number> observable, Number oldValue,
+						Number newValue) {
+					if (newValue.doubleValue() < 1) {
+						return;
+					}
+
+					observable.removeListener(this);
+
+					synchronized (_fxcache) {
+						if (c.value == image && _fxcache.get(file) == c) {
+							updateMemorySize(c);
+							evict();
+						}
+					}
+				}
+			});
+		}
+
+		// it is idempotent, so it does not matter if the listener was
+		// called
+		updateMemorySize(c);
+	}
+
+	private static void updateMemorySize(Container<Image> c) {
+		long size = getMemorySize(c.value);
+		_memorySize += size - c.size;
+		c.size = size;
+	}
+
+	/**
+	 * Evict the least recently used images until the memory budget is
+	 * satisfied. The last used image is never evicted.
+	 */
+	private static void evict() {
+		if (_memorySize > _budget) {
+			Iterator<Map.Entry<IFile, Container<Image>>> iter = _fxcache.entrySet().iterator();
+
+			while (_memorySize > _budget && _fxcache.size() > 1 && iter.hasNext()) {
+				Map.Entry<IFile, Container<Image>> entry = iter.next();
+				Container<Image> c = entry.getValue();
+
+				_memorySize -= c.size;
+				c.size = 0;
+				iter.remove();
+
+				_evicted.put(entry.getKey(), new WeakContainer<>(c));
+				_evictions++;
+			}
+
+			// remove the evicted images already collected
+			_evicted.values().removeIf(weak -> weak.ref.get() == null);
+		}
+	}
+
+	public static long getMemoryBudget() {
+		synchronized (_fxcache) {
+			return _budget;
+		}
+	}
+
+	/**
+	 * Set the memory budget, in bytes.
+	 */
+	public static void setMemoryBudget(long budget) {
+		synchronized (_fxcache) {
+			_budget = budget;
+			evict();
+		}
+	}
+
+	/**
+	 * A summary of the cache usage: hits, misses, evictions and the size of the
+	 * images in memory.
+	 */
+	public static String getStatistics() {
+		synchronized (_fxcache) {
+			return "hits=" + _hits + ", misses=" + _misses + ", evictions=" + _evictions + ", images="
+					+ _fxcache.size() + ", memory=" + (_memorySize / 1024 / 1024) + "MB/" + (_budget / 1024 / 1024)
+					+ "MB";
+		}
+	}
+
 	private static IResourceChangeListener createWorkspaceListener() {
 		return new IResourceChangeListener() {
 
@@ -98,7 +297,12 @@ public class ImageCache {
 	static void unloadFile(IFile file) {
 		out.println("ImageCache: unload " + file);
 		synchronized (_fxcache) {
-			_fxcache.remove(file);
+			Container<Image> c = _fxcache.remove(file);
+			if (c != null) {
+				_memorySize -= c.size;
+				c.size = 0;
+			}
+			_evicted.remove(file);
 		}
 	}
 